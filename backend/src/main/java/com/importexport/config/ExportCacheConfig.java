@@ -0,0 +1,64 @@
+package com.importexport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.export-cache")
+public class ExportCacheConfig {
+
+    private boolean enabled = true;
+    private long maxMemorySize = 67108864; // 64MB of exports kept in heap
+    private long spillThreshold = 1048576; // 1MB, larger exports are kept on disk
+    private long maxDiskSize = 1073741824; // 1GB of exports kept on disk
+    private long maxEntrySize = 268435456; // 256MB, larger exports are not cached
+    private String cachePath = "./export-cache";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxMemorySize() {
+        return maxMemorySize;
+    }
+
+    public void setMaxMemorySize(long maxMemorySize) {
+        this.maxMemorySize = maxMemorySize;
+    }
+
+    public long getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public void setSpillThreshold(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    public long getMaxDiskSize() {
+        return maxDiskSize;
+    }
+
+    public void setMaxDiskSize(long maxDiskSize) {
+        this.maxDiskSize = maxDiskSize;
+    }
+
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(long maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public String getCachePath() {
+        return cachePath;
+    }
+
+    public void setCachePath(String cachePath) {
+        this.cachePath = cachePath;
+    }
+}
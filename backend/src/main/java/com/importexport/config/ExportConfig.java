@@ -0,0 +1,64 @@
+package com.importexport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.export")
+public class ExportConfig {
+
+    private int pageSize = 1000; // rows read per keyset page, each page in its own transaction
+    private int bufferSize = 64 * 1024; // bytes buffered before writing to the response
+    private int xlsxRowWindow = 100; // rows an xlsx export keeps in memory before flushing to a temp file
+    private int filterCacheSize = 256; // parsed filter expressions kept for reuse
+    private long jobRetentionMinutes = 60; // how long export jobs stay pollable, from creation if never downloaded
+    private long progressIntervalMs = 500; // minimum gap between progress events of one export job
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getXlsxRowWindow() {
+        return xlsxRowWindow;
+    }
+
+    public void setXlsxRowWindow(int xlsxRowWindow) {
+        this.xlsxRowWindow = xlsxRowWindow;
+    }
+
+    public int getFilterCacheSize() {
+        return filterCacheSize;
+    }
+
+    public void setFilterCacheSize(int filterCacheSize) {
+        this.filterCacheSize = filterCacheSize;
+    }
+
+    public long getJobRetentionMinutes() {
+        return jobRetentionMinutes;
+    }
+
+    public void setJobRetentionMinutes(long jobRetentionMinutes) {
+        this.jobRetentionMinutes = jobRetentionMinutes;
+    }
+
+    public long getProgressIntervalMs() {
+        return progressIntervalMs;
+    }
+
+    public void setProgressIntervalMs(long progressIntervalMs) {
+        this.progressIntervalMs = progressIntervalMs;
+    }
+}
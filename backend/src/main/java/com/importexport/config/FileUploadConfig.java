@@ -9,8 +9,13 @@ public class FileUploadConfig {
 
     private long maxFileSize = 10485760; // 10MB
     private long maxRequestSize = 10485760; // 10MB
-    private String[] allowedFileTypes = {"csv", "xlsx", "xls", "json"};
+    private String[] allowedFileTypes = {"csv", "xlsx", "xls", "json", "ndjson", "jsonl"};
     private String uploadPath = "./uploads";
+    private long maxUploadSize = 52428800; // 50MB, for chunked uploads
+    private long maxChunkSize = 8388608; // 8MB
+    private int uploadExpiryMinutes = 60; // idle chunked uploads are discarded after this
+    private int maxBatchSize = 5000; // larger batchSize parameters are lowered to this
+    private boolean keepUploads = true; // false deletes an upload once no import or kept result uses it
 
     public long getMaxFileSize() {
         return maxFileSize;
@@ -43,4 +48,44 @@ public class FileUploadConfig {
     public void setUploadPath(String uploadPath) {
         this.uploadPath = uploadPath;
     }
-}
\ No newline at end of file
+
+    public long getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    public void setMaxUploadSize(long maxUploadSize) {
+        this.maxUploadSize = maxUploadSize;
+    }
+
+    public long getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public void setMaxChunkSize(long maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public int getUploadExpiryMinutes() {
+        return uploadExpiryMinutes;
+    }
+
+    public void setUploadExpiryMinutes(int uploadExpiryMinutes) {
+        this.uploadExpiryMinutes = uploadExpiryMinutes;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isKeepUploads() {
+        return keepUploads;
+    }
+
+    public void setKeepUploads(boolean keepUploads) {
+        this.keepUploads = keepUploads;
+    }
+}
@@ -0,0 +1,55 @@
+package com.importexport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.import-jobs")
+public class ImportJobConfig {
+
+    private int poolSize = 4; // imports running at the same time
+    private int queueCapacity = 100; // accepted imports waiting for a worker
+    private long retentionMinutes = 60; // how long finished jobs stay pollable
+    private long progressIntervalMs = 500; // minimum gap between progress events of one job
+    private long waitMinutes = 30; // how long a synchronous import waits for an identical one still running
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getRetentionMinutes() {
+        return retentionMinutes;
+    }
+
+    public void setRetentionMinutes(long retentionMinutes) {
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    public long getProgressIntervalMs() {
+        return progressIntervalMs;
+    }
+
+    public void setProgressIntervalMs(long progressIntervalMs) {
+        this.progressIntervalMs = progressIntervalMs;
+    }
+
+    public long getWaitMinutes() {
+        return waitMinutes;
+    }
+
+    public void setWaitMinutes(long waitMinutes) {
+        this.waitMinutes = waitMinutes;
+    }
+}
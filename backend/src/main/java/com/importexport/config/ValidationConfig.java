@@ -0,0 +1,82 @@
+package com.importexport.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.validation")
+public class ValidationConfig {
+
+    private int parallelThreshold = 50000; // rows validated serially before switching to segments
+    private int segmentSize = 5000;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int lookupSize = 1000; // values looked up in the table per IN query
+    private boolean duplicateBloomFilter = false; // read the existing keys into a Bloom filter before an import
+    private double bloomFalsePositiveRate = 0.01;
+    private long bloomMaxKeys = 20000000; // larger tables are only looked up
+    private int referenceCacheSize = 10000; // referenced keys remembered per import
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getLookupSize() {
+        return lookupSize;
+    }
+
+    public void setLookupSize(int lookupSize) {
+        this.lookupSize = lookupSize;
+    }
+
+    public boolean isDuplicateBloomFilter() {
+        return duplicateBloomFilter;
+    }
+
+    public void setDuplicateBloomFilter(boolean duplicateBloomFilter) {
+        this.duplicateBloomFilter = duplicateBloomFilter;
+    }
+
+    public double getBloomFalsePositiveRate() {
+        return bloomFalsePositiveRate;
+    }
+
+    public void setBloomFalsePositiveRate(double bloomFalsePositiveRate) {
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+    }
+
+    public long getBloomMaxKeys() {
+        return bloomMaxKeys;
+    }
+
+    public void setBloomMaxKeys(long bloomMaxKeys) {
+        this.bloomMaxKeys = bloomMaxKeys;
+    }
+
+    public int getReferenceCacheSize() {
+        return referenceCacheSize;
+    }
+
+    public void setReferenceCacheSize(int referenceCacheSize) {
+        this.referenceCacheSize = referenceCacheSize;
+    }
+}
@@ -1,24 +1,57 @@
 package com.importexport.controller;
 
+import com.importexport.config.FileUploadConfig;
+import com.importexport.dto.ExportJob;
 import com.importexport.dto.ExportRequest;
+import com.importexport.dto.ImportJob;
 import com.importexport.dto.ImportRequest;
 import com.importexport.dto.ImportResponse;
+import com.importexport.dto.UploadSession;
+import com.importexport.exception.ValidationException;
+import com.importexport.export.ExportPlan;
+import com.importexport.service.ExportJobService;
 import com.importexport.service.ImportExportService;
+import com.importexport.service.ImportJobService;
+import com.importexport.service.TemplateRegistry;
+import com.importexport.service.UploadSessionService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
 
 public abstract class BaseImportExportController {
 
+    private static final String EXPORT_WARNING_HEADER = "X-Export-Warning";
+
+    // Templates only change with a deployment, clients revalidate with the ETag after that
+    private static final Duration TEMPLATE_MAX_AGE = Duration.ofDays(1);
+
     @Autowired
     protected ImportExportService importExportService;
 
+    @Autowired
+    protected ImportJobService importJobService;
+
+    @Autowired
+    protected UploadSessionService uploadSessionService;
+
+    @Autowired
+    protected ExportJobService exportJobService;
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
     protected abstract String getModuleType();
 
     @PostMapping("/import")
@@ -26,46 +59,263 @@ public abstract class BaseImportExportController {
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "validateOnly", defaultValue = "false") boolean validateOnly,
             @RequestParam(value = "skipErrors", defaultValue = "false") boolean skipErrors,
-            @RequestParam(value = "batchSize", defaultValue = "100") int batchSize) {
+            @RequestParam(value = "batchSize", defaultValue = "100") int batchSize,
+            @RequestParam(value = "force", defaultValue = "false") boolean force) {
+
+        ImportRequest request = createImportRequest(file, validateOnly, skipErrors, batchSize, force);
+        ImportResponse response = importExportService.importData(file, request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/import/stream")
+    public ResponseEntity<ImportResponse> importStream(
+            @RequestParam("fileName") String fileName,
+            @RequestParam(value = "validateOnly", defaultValue = "false") boolean validateOnly,
+            @RequestParam(value = "skipErrors", defaultValue = "false") boolean skipErrors,
+            @RequestParam(value = "batchSize", defaultValue = "100") int batchSize,
+            @RequestParam(value = "force", defaultValue = "false") boolean force,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream body) {
+
+        ImportRequest request = createImportRequest(fileName, validateOnly, skipErrors, batchSize, force);
+        ImportResponse response = importExportService.importStream(body,
+                contentLength != null ? contentLength : -1, request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/import/async")
+    public ResponseEntity<ImportJob> importDataAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "validateOnly", defaultValue = "false") boolean validateOnly,
+            @RequestParam(value = "skipErrors", defaultValue = "false") boolean skipErrors,
+            @RequestParam(value = "batchSize", defaultValue = "100") int batchSize,
+            @RequestParam(value = "force", defaultValue = "false") boolean force) {
+
+        ImportRequest request = createImportRequest(file, validateOnly, skipErrors, batchSize, force);
+        ImportJob job = importJobService.submit(file, request);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/import/jobs/{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable String jobId) {
+        ImportJob job = importJobService.getJob(jobId);
+        if (job == null || !getModuleType().equals(job.getModuleType())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping(value = "/import/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamImportProgress(@PathVariable String jobId) {
+        ImportJob job = importJobService.getJob(jobId);
+        if (job == null || !getModuleType().equals(job.getModuleType())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(importJobService.subscribe(job));
+    }
+
+    @PostMapping("/import/uploads")
+    public ResponseEntity<UploadSession> createUpload(
+            @RequestParam("fileName") String fileName,
+            @RequestParam("fileSize") long fileSize,
+            @RequestParam("checksum") String checksum) throws IOException {
+
+        UploadSession session = uploadSessionService.create(getModuleType(), fileName, fileSize, checksum);
+        return ResponseEntity.status(HttpStatus.CREATED).body(session);
+    }
+
+    @GetMapping("/import/uploads/{uploadId}")
+    public ResponseEntity<UploadSession> getUpload(@PathVariable String uploadId) {
+        UploadSession session = findUpload(uploadId);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(session);
+    }
+
+    @PutMapping("/import/uploads/{uploadId}")
+    public ResponseEntity<UploadSession> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam("offset") long offset,
+            InputStream chunk) throws IOException {
+
+        UploadSession session = findUpload(uploadId);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(uploadSessionService.writeChunk(session, offset, chunk));
+    }
 
+    @PostMapping("/import/uploads/{uploadId}/complete")
+    public ResponseEntity<ImportJob> completeUpload(
+            @PathVariable String uploadId,
+            @RequestParam(value = "validateOnly", defaultValue = "false") boolean validateOnly,
+            @RequestParam(value = "skipErrors", defaultValue = "false") boolean skipErrors,
+            @RequestParam(value = "batchSize", defaultValue = "100") int batchSize,
+            @RequestParam(value = "force", defaultValue = "false") boolean force) throws IOException {
+
+        UploadSession session = findUpload(uploadId);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ImportRequest request = createImportRequest(session.getFileName(), validateOnly, skipErrors, batchSize, force);
+        return ResponseEntity.accepted().body(uploadSessionService.complete(session, request));
+    }
+
+    @DeleteMapping("/import/uploads/{uploadId}")
+    public ResponseEntity<Void> cancelUpload(@PathVariable String uploadId) {
+        UploadSession session = findUpload(uploadId);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        uploadSessionService.cancel(session);
+        return ResponseEntity.noContent().build();
+    }
+
+    private UploadSession findUpload(String uploadId) {
+        UploadSession session = uploadSessionService.getSession(uploadId);
+        return session != null && getModuleType().equals(session.getModuleType()) ? session : null;
+    }
+
+    private ImportRequest createImportRequest(MultipartFile file, boolean validateOnly, boolean skipErrors, int batchSize,
+                                              boolean force) {
+        return createImportRequest(file.getOriginalFilename(), validateOnly, skipErrors, batchSize, force);
+    }
+
+    private ImportRequest createImportRequest(String fileName, boolean validateOnly, boolean skipErrors, int batchSize,
+                                              boolean force) {
         ImportRequest request = new ImportRequest();
         request.setModuleType(getModuleType());
-        request.setFileName(file.getOriginalFilename());
+        request.setFileName(fileName);
         request.setValidateOnly(validateOnly);
         request.setSkipErrors(skipErrors);
-        request.setBatchSize(batchSize);
-
-        ImportResponse response = importExportService.importData(file, request);
-        return ResponseEntity.ok(response);
+        // Lowered here already, so equal imports are recognised whatever oversized value they asked for
+        request.setBatchSize(Math.min(batchSize, fileUploadConfig.getMaxBatchSize()));
+        request.setForce(force);
+        return request;
     }
 
     @PostMapping("/export")
-    public ResponseEntity<InputStreamResource> exportData(@RequestBody ExportRequest request) {
+    public ResponseEntity<StreamingResponseBody> exportData(
+            @RequestBody ExportRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         request.setModuleType(getModuleType());
-        
-        InputStream inputStream = importExportService.exportData(request);
-        InputStreamResource resource = new InputStreamResource(inputStream);
 
-        String filename = getModuleType() + "_export." + request.getFileFormat();
-        
+        // Planned up front, an invalid request can still get a 400
+        ExportPlan plan = importExportService.planExport(request);
+
+        String eTag = importExportService.getExportETag(plan);
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        return exportResponse(plan, eTag, outputStream -> importExportService.exportData(plan, outputStream));
+    }
+
+    @PostMapping("/export/jobs")
+    public ResponseEntity<ExportJob> createExportJob(@RequestBody ExportRequest request) {
+        request.setModuleType(getModuleType());
+        ExportPlan plan = importExportService.planExport(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(exportJobService.create(plan));
+    }
+
+    @GetMapping("/export/jobs/{jobId}")
+    public ResponseEntity<ExportJob> getExportJob(@PathVariable String jobId) {
+        ExportJob job = findExportJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping(value = "/export/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamExportProgress(@PathVariable String jobId) {
+        ExportJob job = findExportJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(exportJobService.subscribe(job));
+    }
+
+    @GetMapping("/export/jobs/{jobId}/file")
+    public ResponseEntity<StreamingResponseBody> downloadExportJob(@PathVariable String jobId) {
+        ExportJob job = findExportJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!job.start()) {
+            // The job reports one export, a second download would mix its counters
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        ExportPlan plan = job.getPlan();
+        return exportResponse(plan, importExportService.getExportETag(plan),
+                outputStream -> exportJobService.run(job, outputStream));
+    }
+
+    private ExportJob findExportJob(String jobId) {
+        ExportJob job = exportJobService.getJob(jobId);
+        return job != null && getModuleType().equals(job.getModuleType()) ? job : null;
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(ExportPlan plan, String eTag,
+                                                                 StreamingResponseBody body) {
+        String filename = getModuleType() + "_export." + plan.getRequest().getFileFormat().toLowerCase();
+
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(resource);
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .header(EXPORT_WARNING_HEADER, plan.getWarnings().toArray(new String[0]))
+                .contentType(MediaType.parseMediaType(plan.getExporter().getContentType()))
+                .body(body);
+    }
+
+    /**
+     * If-None-Match holds "*" or a list of ETags, compared weakly
+     */
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<Map<String, String>> handleValidationException(ValidationException e) {
+        return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
     }
 
     @GetMapping("/template")
-    public ResponseEntity<InputStreamResource> getTemplate(
-            @RequestParam(value = "format", defaultValue = "csv") String format) {
-        
-        InputStream inputStream = importExportService.getTemplate(getModuleType(), format);
-        InputStreamResource resource = new InputStreamResource(inputStream);
-
-        String filename = getModuleType() + "_template." + format;
-        
+    public ResponseEntity<byte[]> getTemplate(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        TemplateRegistry.Template template = importExportService.getTemplate(getModuleType(), format);
+        CacheControl cacheControl = CacheControl.maxAge(TEMPLATE_MAX_AGE).cachePublic();
+        if (matchesETag(ifNoneMatch, template.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(template.getETag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        String filename = getModuleType() + "_template." + format.toLowerCase();
+
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(resource);
+                .eTag(template.getETag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(template.getContentType()))
+                .contentLength(template.getContent().length)
+                .body(template.getContent());
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.importexport.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.importexport.export.ExportPlan;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an export whose progress is followed while it is downloaded.
+ * Counters are written by the thread streaming the file and read by polling
+ * requests, so every mutable field is volatile.
+ */
+public class ExportJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    // Pipeline stages reported while the job is running
+    public static final String EXPORTING = "EXPORTING";
+    public static final String FINISHING = "FINISHING";
+
+    private final String jobId;
+    private final String moduleType;
+    private final String fileFormat;
+    private final ExportPlan plan;
+    private final LocalDateTime createdAt;
+    private volatile String status = QUEUED;
+    private volatile String stage = QUEUED;
+    private volatile long rowsRead;
+    private volatile long rowsWritten;
+    private volatile long bytesWritten;
+    private volatile String errorMessage;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime completedAt;
+
+    public ExportJob(String jobId, ExportPlan plan) {
+        this.jobId = jobId;
+        this.moduleType = plan.getRequest().getModuleType();
+        this.fileFormat = plan.getRequest().getFileFormat().toLowerCase();
+        this.plan = plan;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Mark the job running, an export job is only downloaded once
+     * @return false if it was started before
+     */
+    public synchronized boolean start() {
+        if (startedAt != null) {
+            return false;
+        }
+        this.startedAt = LocalDateTime.now();
+        this.status = RUNNING;
+        return true;
+    }
+
+    // Progress setters, called by the exporting thread
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    /**
+     * Record the end of the export
+     * @param errorMessage Why it failed, or null if the whole file was sent
+     */
+    public void complete(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.completedAt = LocalDateTime.now();
+        this.status = errorMessage == null ? COMPLETED : FAILED;
+        this.stage = status;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return completedAt != null;
+    }
+
+    @JsonIgnore
+    public ExportPlan getPlan() {
+        return plan;
+    }
+
+    // Getters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getModuleType() {
+        return moduleType;
+    }
+
+    public String getFileFormat() {
+        return fileFormat;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
@@ -11,6 +11,7 @@ public class FileMetadata {
     private LocalDateTime uploadedAt;
     private String uploadedBy;
     private String moduleType;
+    private String checksum;
 
     // Constructors
     public FileMetadata() {
@@ -83,4 +84,12 @@ public class FileMetadata {
     public void setModuleType(String moduleType) {
         this.moduleType = moduleType;
     }
-}
\ No newline at end of file
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+}
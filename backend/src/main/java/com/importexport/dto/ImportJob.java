@@ -0,0 +1,160 @@
+package com.importexport.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an asynchronous import. Counters are written by the worker thread
+ * and read by polling requests, so every mutable field is volatile.
+ */
+public class ImportJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    // Pipeline stages reported while the job is running
+    public static final String VALIDATING = "VALIDATING";
+    public static final String IMPORTING = "IMPORTING";
+
+    private final String jobId;
+    private final String moduleType;
+    private final String fileName;
+    private final long totalBytes;
+    private final LocalDateTime submittedAt;
+    private volatile String status = QUEUED;
+    private volatile String stage = QUEUED;
+    private volatile int processedRecords;
+    private volatile int validatedRecords;
+    private volatile int persistedRecords;
+    private volatile int failedRecords;
+    private volatile int errorCount;
+    private volatile long bytesRead;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime completedAt;
+    private volatile ImportResponse result;
+
+    public ImportJob(String jobId, String moduleType, String fileName, long totalBytes) {
+        this.jobId = jobId;
+        this.moduleType = moduleType;
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    public void start() {
+        this.startedAt = LocalDateTime.now();
+        this.status = RUNNING;
+    }
+
+    // Progress setters, called by the import thread
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public void setProcessedRecords(int processedRecords) {
+        this.processedRecords = processedRecords;
+    }
+
+    public void setValidatedRecords(int validatedRecords, int failedRecords, int errorCount) {
+        this.validatedRecords = validatedRecords;
+        this.failedRecords = failedRecords;
+        this.errorCount = errorCount;
+    }
+
+    public void setPersistedRecords(int persistedRecords) {
+        this.persistedRecords = persistedRecords;
+    }
+
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    /**
+     * Record the final response, the job failed if the import itself errored
+     */
+    public void complete(ImportResponse result) {
+        if (!"ERROR".equals(result.getStatus())) {
+            this.processedRecords = result.getTotalRecords();
+            this.validatedRecords = result.getTotalRecords();
+            this.failedRecords = result.getFailedRecords();
+            this.errorCount = result.getErrors() != null ? result.getErrors().size() : 0;
+        }
+        this.result = result;
+        this.completedAt = LocalDateTime.now();
+        this.status = "ERROR".equals(result.getStatus()) ? FAILED : COMPLETED;
+        this.stage = status;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return completedAt != null;
+    }
+
+    // Getters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getModuleType() {
+        return moduleType;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public int getProcessedRecords() {
+        return processedRecords;
+    }
+
+    public int getValidatedRecords() {
+        return validatedRecords;
+    }
+
+    public int getPersistedRecords() {
+        return persistedRecords;
+    }
+
+    public int getFailedRecords() {
+        return failedRecords;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public ImportResponse getResult() {
+        return result;
+    }
+}
@@ -19,6 +19,9 @@ public class ImportRequest {
 
     private int batchSize = 100;
 
+    // Import even if the same file was imported with the same options before
+    private boolean force = false;
+
     // Constructors
     public ImportRequest() {}
 
@@ -79,4 +82,12 @@ public class ImportRequest {
     public void setBatchSize(int batchSize) {
         this.batchSize = batchSize;
     }
-}
\ No newline at end of file
+
+    public boolean isForce() {
+        return force;
+    }
+
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+}
@@ -13,6 +13,7 @@ public class ImportResponse {
     private List<ValidationError> errors;
     private LocalDateTime processedAt;
     private long processingTimeMs;
+    private double rowsPerSecond;
 
     // Constructors
     public ImportResponse() {
@@ -92,4 +93,12 @@ public class ImportResponse {
     public void setProcessingTimeMs(long processingTimeMs) {
         this.processingTimeMs = processingTimeMs;
     }
-}
\ No newline at end of file
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
@@ -0,0 +1,174 @@
+package com.importexport.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * State of a chunked upload. Chunks may arrive concurrently and in any
+ * order, so the received byte ranges are kept merged and sorted, and every
+ * method touching them is synchronized.
+ */
+public class UploadSession {
+
+    public static final String UPLOADING = "UPLOADING";
+    public static final String COMPLETED = "COMPLETED";
+
+    private final String uploadId;
+    private final String moduleType;
+    private final String fileName;
+    private final long fileSize;
+    private final String checksum;
+    private final LocalDateTime createdAt;
+    private final FileMetadata file;
+    // Start offset -> end offset (exclusive) of each received range
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+    private long receivedBytes;
+    private int chunksInFlight;
+    private String status = UPLOADING;
+    private LocalDateTime lastActivityAt;
+
+    public UploadSession(String uploadId, String moduleType, String fileName, long fileSize, String checksum,
+                         FileMetadata file) {
+        this.uploadId = uploadId;
+        this.moduleType = moduleType;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.checksum = checksum;
+        this.file = file;
+        this.createdAt = LocalDateTime.now();
+        this.lastActivityAt = createdAt;
+    }
+
+    /**
+     * Register a chunk about to be written
+     * @return false if the upload no longer takes chunks
+     */
+    public synchronized boolean beginChunk() {
+        if (!UPLOADING.equals(status)) {
+            return false;
+        }
+        chunksInFlight++;
+        lastActivityAt = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * Record the bytes a chunk wrote, also when it only got partway
+     */
+    public synchronized void endChunk(long offset, long length) {
+        chunksInFlight--;
+        lastActivityAt = LocalDateTime.now();
+        if (length <= 0) {
+            return;
+        }
+        long start = offset;
+        long end = offset + length;
+        // Merge with every range the new one touches or overlaps
+        Map.Entry<Long, Long> before = ranges.floorEntry(start);
+        if (before != null && before.getValue() >= start) {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+        }
+        Map.Entry<Long, Long> next = ranges.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            ranges.remove(next.getKey());
+            receivedBytes -= next.getValue() - next.getKey();
+            next = ranges.ceilingEntry(start);
+        }
+        ranges.put(start, end);
+        receivedBytes += end - start;
+    }
+
+    /**
+     * Stop taking chunks, once every byte has arrived
+     * @return false if bytes are missing or chunks are still being written
+     */
+    public synchronized boolean complete() {
+        if (!UPLOADING.equals(status) || chunksInFlight > 0 || receivedBytes != fileSize) {
+            return false;
+        }
+        status = COMPLETED;
+        lastActivityAt = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * Take chunks again after completing failed, keeping the received ranges
+     */
+    public synchronized void reopen() {
+        status = UPLOADING;
+        lastActivityAt = LocalDateTime.now();
+    }
+
+    /**
+     * Forget every received range, the content has to be sent again
+     */
+    public synchronized void reset() {
+        ranges.clear();
+        receivedBytes = 0;
+        status = UPLOADING;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public String getModuleType() {
+        return moduleType;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized String getStatus() {
+        return status;
+    }
+
+    public synchronized long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    /**
+     * @return the received ranges as [start, end) pairs, in file order
+     */
+    public synchronized List<long[]> getReceivedRanges() {
+        List<long[]> received = new ArrayList<>(ranges.size());
+        ranges.forEach((start, end) -> received.add(new long[]{start, end}));
+        return received;
+    }
+
+    public synchronized LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    /**
+     * @return true if no chunk is being written and nothing happened since the cutoff
+     */
+    public synchronized boolean isIdleSince(LocalDateTime cutoff) {
+        return chunksInFlight == 0 && lastActivityAt.isBefore(cutoff);
+    }
+
+    @JsonIgnore
+    public FileMetadata getFile() {
+        return file;
+    }
+}
@@ -9,7 +9,8 @@ import jakarta.validation.constraints.NotNull;
 public class Camera {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cameras_seq")
+    @SequenceGenerator(name = "cameras_seq", sequenceName = "cameras_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Camera name is required")
@@ -9,7 +9,8 @@ import jakarta.validation.constraints.NotNull;
 public class Map {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "maps_seq")
+    @SequenceGenerator(name = "maps_seq", sequenceName = "maps_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Map name is required")
@@ -9,7 +9,8 @@ import jakarta.validation.constraints.NotNull;
 public class Robot {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "robots_seq")
+    @SequenceGenerator(name = "robots_seq", sequenceName = "robots_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Robot name is required")
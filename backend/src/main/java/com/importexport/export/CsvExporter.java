@@ -0,0 +1,114 @@
+package com.importexport.export;
+
+import com.importexport.config.ExportConfig;
+import com.importexport.util.DateUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes CSV with the snake_case headers of the import templates, so an
+ * export can be imported again as is. Values are quoted only when they
+ * contain a delimiter, quote or line break.
+ */
+@Component
+public class CsvExporter implements FileExporter {
+
+    @Autowired
+    private ExportConfig exportConfig;
+
+    @Override
+    public RowWriter open(OutputStream outputStream, List<ExportColumn> columns) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                exportConfig.getBufferSize());
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeValue(writer, columns.get(i).getColumnName());
+        }
+        writer.write('\n');
+        writer.flush();
+        return new CsvRowWriter(writer);
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/csv";
+    }
+
+    @Override
+    public boolean supports(String fileFormat) {
+        return "csv".equalsIgnoreCase(fileFormat);
+    }
+
+    private static void writeValue(Writer writer, String value) throws IOException {
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values[i];
+                if (value instanceof LocalDateTime) {
+                    // Same pattern the importer reads first
+                    writer.write(DateUtil.formatDate((LocalDateTime) value));
+                } else if (value != null) {
+                    writeValue(writer, value.toString());
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release, the writer only wraps the caller's stream
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.importexport.export;
+
+/**
+ * One exportable entity attribute. Tabular formats head the column with its
+ * snake_case column name, as the import templates do, and object formats
+ * key it by the camelCase field name. The type is the Java type of the
+ * entity attribute, for formats that write typed values.
+ */
+public final class ExportColumn {
+
+    private final String field;
+    private final String columnName;
+    private final Class<?> type;
+
+    public ExportColumn(String field, String columnName, Class<?> type) {
+        this.field = field;
+        this.columnName = columnName;
+        this.type = type;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+}
@@ -0,0 +1,82 @@
+package com.importexport.export;
+
+import com.importexport.dto.ExportRequest;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * An export request that has been checked and resolved to its entity,
+ * columns, exporter and compiled filter. Planning happens before the response is committed,
+ * so an invalid request can still be answered with an error status.
+ */
+public final class ExportPlan {
+
+    private final ExportRequest request;
+    private final ExportSchema schema;
+    private final List<ExportColumn> columns;
+    private final FileExporter exporter;
+    private final FilterExpression filter;
+    private final List<String> warnings;
+    private final String cacheKey;
+
+    public ExportPlan(ExportRequest request, ExportSchema schema, List<ExportColumn> columns, FileExporter exporter,
+                      FilterExpression filter, List<String> warnings) {
+        this.request = request;
+        this.schema = schema;
+        this.columns = List.copyOf(columns);
+        this.exporter = exporter;
+        this.filter = filter;
+        this.warnings = List.copyOf(warnings);
+        this.cacheKey = cacheKey();
+    }
+
+    public ExportRequest getRequest() {
+        return request;
+    }
+
+    public ExportSchema getSchema() {
+        return schema;
+    }
+
+    public List<ExportColumn> getColumns() {
+        return columns;
+    }
+
+    public FileExporter getExporter() {
+        return exporter;
+    }
+
+    /**
+     * @return the compiled filter, or null to export every row
+     */
+    public FilterExpression getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return problems that do not stop the export but make it slower, such as an unindexed sort field
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * @return a key that is equal for requests that export the same file,
+     *         however their optional parameters were spelled
+     */
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    private String cacheKey() {
+        StringJoiner fields = new StringJoiner(",");
+        columns.forEach(column -> fields.add(column.getField()));
+        String sortBy = request.getSortBy() != null && !request.getSortBy().isBlank() ? request.getSortBy() : "id";
+        String sortOrder = "DESC".equalsIgnoreCase(request.getSortOrder()) ? "DESC" : "ASC";
+        String filter = request.getFilter() != null ? request.getFilter().trim() : "";
+        // The filter goes last, it is the only part that may contain the separator
+        return String.join("|", request.getModuleType(), request.getFileFormat().toLowerCase(), fields.toString(),
+                sortBy, sortOrder, String.valueOf(request.isIncludeInactive()), filter);
+    }
+}
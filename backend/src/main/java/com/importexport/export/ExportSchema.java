@@ -0,0 +1,132 @@
+package com.importexport.export;
+
+import com.importexport.entity.Camera;
+import com.importexport.entity.Robot;
+import com.importexport.entity.Task;
+import com.importexport.entity.User;
+import com.importexport.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * The entity and exportable columns of a module, in export order.
+ */
+public final class ExportSchema {
+
+    private static final Map<String, ExportSchema> SCHEMAS = Map.of(
+            "camera", new ExportSchema(Camera.class,
+                    "id", "name", "type", "ipAddress", "location", "isActive", "description"),
+            "robot", new ExportSchema(Robot.class,
+                    "id", "name", "model", "serialNumber", "manufacturer", "isActive", "description"),
+            "task", new ExportSchema(Task.class,
+                    "id", "name", "type", "priority", "status", "assignedTo", "dueDate", "isActive", "description"),
+            "user", new ExportSchema(User.class,
+                    "id", "username", "email", "firstName", "lastName", "role", "department", "isActive"),
+            "map", new ExportSchema(com.importexport.entity.Map.class,
+                    "id", "name", "type", "resolution", "width", "height", "originX", "originY", "isActive", "description")
+    );
+
+    private final Class<?> entityClass;
+    private final List<ExportColumn> columns;
+
+    private ExportSchema(Class<?> entityClass, String... fields) {
+        List<ExportColumn> columns = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            columns.add(new ExportColumn(field, toColumnName(field), fieldType(entityClass, field)));
+        }
+        this.entityClass = entityClass;
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * @return the schema of the module, or null if the module is unknown
+     */
+    public static ExportSchema forModule(String moduleType) {
+        return moduleType != null ? SCHEMAS.get(moduleType.toLowerCase()) : null;
+    }
+
+    /**
+     * @return the modules that have a schema
+     */
+    public static Set<String> getModuleTypes() {
+        return SCHEMAS.keySet();
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public List<ExportColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the column of the field, or null if the module has no such field
+     */
+    public ExportColumn getColumn(String field) {
+        for (ExportColumn column : columns) {
+            if (column.getField().equals(field)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> fieldType(Class<?> entityClass, String field) {
+        try {
+            return entityClass.getDeclaredField(field).getType();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(entityClass.getSimpleName() + " has no field " + field, e);
+        }
+    }
+
+    /**
+     * Resolve the requested fields to columns, in the requested order
+     * @param fields Field names, or null or empty for every column
+     * @return The selected columns
+     * @throws ValidationException if a field is unknown or requested twice
+     */
+    public List<ExportColumn> select(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return columns;
+        }
+        List<ExportColumn> selected = new ArrayList<>(fields.size());
+        List<String> unknown = new ArrayList<>();
+        for (String field : fields) {
+            ExportColumn column = getColumn(field);
+            if (column == null) {
+                unknown.add(field);
+            } else if (selected.contains(column)) {
+                throw new ValidationException("Field '" + field + "' is requested more than once");
+            } else {
+                selected.add(column);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            StringJoiner available = new StringJoiner(", ");
+            columns.forEach(column -> available.add(column.getField()));
+            throw new ValidationException("Unknown export fields: " + String.join(", ", unknown)
+                    + ". Available fields: " + available);
+        }
+        return selected;
+    }
+
+    // ipAddress -> ip_address, originX -> origin_x
+    private static String toColumnName(String field) {
+        StringBuilder columnName = new StringBuilder(field.length() + 4);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (Character.isUpperCase(c)) {
+                columnName.append('_').append(Character.toLowerCase(c));
+            } else {
+                columnName.append(c);
+            }
+        }
+        return columnName.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.importexport.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface FileExporter {
+
+    /**
+     * Start an export file on the output stream. The header, if the format
+     * has one, is written and flushed right away, so the client receives
+     * bytes before the first row has been read.
+     * @param outputStream The stream to write the file to
+     * @param columns The exported columns, in order
+     * @return Writer for the rows of the file
+     * @throws IOException if the output cannot be written
+     */
+    RowWriter open(OutputStream outputStream, List<ExportColumn> columns) throws IOException;
+
+    /**
+     * Get the MIME type of the files this exporter writes
+     * @return The content type
+     */
+    String getContentType();
+
+    /**
+     * Check if the exporter writes the given file format
+     * @param fileFormat The file format to check
+     * @return true if supported, false otherwise
+     */
+    boolean supports(String fileFormat);
+}
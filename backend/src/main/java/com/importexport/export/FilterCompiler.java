@@ -0,0 +1,50 @@
+package com.importexport.export;
+
+import com.importexport.config.ExportConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parses export filters and keeps the most recently used ones, keyed by
+ * module and expression text, so repeated exports with the same filter
+ * skip parsing. Parse errors are not cached.
+ */
+@Component
+public class FilterCompiler {
+
+    @Autowired
+    private ExportConfig exportConfig;
+
+    private final Map<String, FilterExpression> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FilterExpression> eldest) {
+            return size() > exportConfig.getFilterCacheSize();
+        }
+    };
+
+    /**
+     * @return the compiled filter, or null if the filter is blank
+     * @throws com.importexport.exception.ValidationException if the filter is invalid
+     */
+    public FilterExpression compile(String moduleType, ExportSchema schema, String filter) {
+        if (filter == null || filter.isBlank()) {
+            return null;
+        }
+        String key = moduleType + ':' + filter.trim();
+        synchronized (cache) {
+            FilterExpression cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Parsed outside the lock, two threads may parse the same filter once each
+        FilterExpression expression = FilterParser.parse(filter.trim(), schema);
+        synchronized (cache) {
+            cache.put(key, expression);
+        }
+        return expression;
+    }
+}
@@ -0,0 +1,168 @@
+package com.importexport.export;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.List;
+
+/**
+ * A parsed export filter. Field references have been checked against the
+ * module's entity and literals converted to the field's Java type, so a
+ * filter that parses always translates into a valid Criteria predicate.
+ * Values are bound as query parameters, never spliced into SQL.
+ * Expressions are immutable and shared between requests.
+ */
+public interface FilterExpression {
+
+    Predicate toPredicate(CriteriaBuilder cb, Root<?> root);
+
+    final class And implements FilterExpression {
+
+        private final FilterExpression left;
+        private final FilterExpression right;
+
+        And(FilterExpression left, FilterExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            return cb.and(left.toPredicate(cb, root), right.toPredicate(cb, root));
+        }
+    }
+
+    final class Or implements FilterExpression {
+
+        private final FilterExpression left;
+        private final FilterExpression right;
+
+        Or(FilterExpression left, FilterExpression right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            return cb.or(left.toPredicate(cb, root), right.toPredicate(cb, root));
+        }
+    }
+
+    final class Not implements FilterExpression {
+
+        private final FilterExpression operand;
+
+        Not(FilterExpression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            return cb.not(operand.toPredicate(cb, root));
+        }
+    }
+
+    /**
+     * field op value, with op one of = != &lt; &lt;= &gt; &gt;=
+     */
+    final class Comparison implements FilterExpression {
+
+        private final String field;
+        private final String operator;
+        private final Comparable<?> value;
+
+        Comparison(String field, String operator, Comparable<?> value) {
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            Expression path = root.get(field);
+            Comparable comparable = value;
+            switch (operator) {
+                case "=":
+                    return cb.equal(path, comparable);
+                case "!=":
+                    return cb.notEqual(path, comparable);
+                case "<":
+                    return cb.lessThan(path, comparable);
+                case "<=":
+                    return cb.lessThanOrEqualTo(path, comparable);
+                case ">":
+                    return cb.greaterThan(path, comparable);
+                case ">=":
+                    return cb.greaterThanOrEqualTo(path, comparable);
+                default:
+                    throw new IllegalStateException("Unknown operator " + operator);
+            }
+        }
+    }
+
+    /**
+     * field [NOT] LIKE 'pattern', with % and _ as wildcards
+     */
+    final class Like implements FilterExpression {
+
+        private final String field;
+        private final String pattern;
+        private final boolean negated;
+
+        Like(String field, String pattern, boolean negated) {
+            this.field = field;
+            this.pattern = pattern;
+            this.negated = negated;
+        }
+
+        @Override
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            Expression<String> path = root.get(field);
+            return negated ? cb.notLike(path, pattern) : cb.like(path, pattern);
+        }
+    }
+
+    /**
+     * field IS [NOT] NULL
+     */
+    final class IsNull implements FilterExpression {
+
+        private final String field;
+        private final boolean negated;
+
+        IsNull(String field, boolean negated) {
+            this.field = field;
+            this.negated = negated;
+        }
+
+        @Override
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            return negated ? cb.isNotNull(root.get(field)) : cb.isNull(root.get(field));
+        }
+    }
+
+    /**
+     * field [NOT] IN (value, ...)
+     */
+    final class In implements FilterExpression {
+
+        private final String field;
+        private final List<Object> values;
+        private final boolean negated;
+
+        In(String field, List<Object> values, boolean negated) {
+            this.field = field;
+            this.values = List.copyOf(values);
+            this.negated = negated;
+        }
+
+        @Override
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            Predicate in = root.get(field).in(values);
+            return negated ? cb.not(in) : in;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.importexport.export;
+
+import com.importexport.exception.ValidationException;
+import com.importexport.util.DateUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive descent parser for the export filter language:
+ * <pre>
+ * expression := and (OR and)*
+ * and        := unary (AND unary)*
+ * unary      := NOT unary | '(' expression ')' | condition
+ * condition  := field (= | != | &lt;&gt; | &lt; | &lt;= | &gt; | &gt;=) literal
+ *             | field [NOT] LIKE string
+ *             | field IS [NOT] NULL
+ *             | field [NOT] IN '(' literal (',' literal)* ')'
+ * literal    := 'string' | number | TRUE | FALSE
+ * </pre>
+ * Keywords are case-insensitive, quotes inside strings are doubled. Fields
+ * are checked against the schema while parsing and literals are converted
+ * to the field's type, dates being written as strings in any format the
+ * importer accepts.
+ */
+final class FilterParser {
+
+    private static final int MAX_LENGTH = 4096;
+    private static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private final ExportSchema schema;
+    private int position;
+    private int depth;
+
+    // Current token
+    private TokenType type;
+    private String token;
+    private int tokenStart;
+
+    private FilterParser(String text, ExportSchema schema) {
+        this.text = text;
+        this.schema = schema;
+    }
+
+    /**
+     * @throws ValidationException if the filter is malformed or refers to unknown fields
+     */
+    static FilterExpression parse(String filter, ExportSchema schema) {
+        if (filter.length() > MAX_LENGTH) {
+            throw new ValidationException("Filter is longer than " + MAX_LENGTH + " characters");
+        }
+        FilterParser parser = new FilterParser(filter, schema);
+        parser.advance();
+        FilterExpression expression = parser.expression();
+        if (parser.type != TokenType.END) {
+            throw parser.error("Unexpected '" + parser.token + "'");
+        }
+        return expression;
+    }
+
+    private FilterExpression expression() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Filter is nested too deeply");
+        }
+        FilterExpression expression = and();
+        while (isKeyword("OR")) {
+            advance();
+            expression = new FilterExpression.Or(expression, and());
+        }
+        depth--;
+        return expression;
+    }
+
+    private FilterExpression and() {
+        FilterExpression expression = unary();
+        while (isKeyword("AND")) {
+            advance();
+            expression = new FilterExpression.And(expression, unary());
+        }
+        return expression;
+    }
+
+    private FilterExpression unary() {
+        if (isKeyword("NOT")) {
+            advance();
+            if (++depth > MAX_DEPTH) {
+                throw error("Filter is nested too deeply");
+            }
+            FilterExpression operand = unary();
+            depth--;
+            return new FilterExpression.Not(operand);
+        }
+        if (type == TokenType.LEFT_PAREN) {
+            advance();
+            FilterExpression expression = expression();
+            expect(TokenType.RIGHT_PAREN, "')'");
+            return expression;
+        }
+        return condition();
+    }
+
+    private FilterExpression condition() {
+        if (type != TokenType.WORD || isReserved(token)) {
+            throw error("Expected a field name");
+        }
+        ExportColumn column = schema.getColumn(token);
+        if (column == null) {
+            throw error("Unknown field '" + token + "'");
+        }
+        String field = column.getField();
+        advance();
+
+        if (type == TokenType.OPERATOR) {
+            String operator = "<>".equals(token) ? "!=" : token;
+            advance();
+            if (column.getType() == Boolean.class && !"=".equals(operator) && !"!=".equals(operator)) {
+                throw error("Field '" + field + "' can only be compared with = or !=");
+            }
+            return new FilterExpression.Comparison(field, operator, literal(column));
+        }
+
+        if (isKeyword("IS")) {
+            advance();
+            boolean negated = acceptKeyword("NOT");
+            expectKeyword("NULL");
+            return new FilterExpression.IsNull(field, negated);
+        }
+
+        boolean negated = acceptKeyword("NOT");
+        if (isKeyword("LIKE")) {
+            if (column.getType() != String.class) {
+                throw error("LIKE needs a text field, '" + field + "' is not one");
+            }
+            advance();
+            if (type != TokenType.STRING) {
+                throw error("Expected a quoted pattern");
+            }
+            String pattern = token;
+            advance();
+            return new FilterExpression.Like(field, pattern, negated);
+        }
+        if (isKeyword("IN")) {
+            advance();
+            expect(TokenType.LEFT_PAREN, "'('");
+            List<Object> values = new ArrayList<>();
+            values.add(literal(column));
+            while (type == TokenType.COMMA) {
+                advance();
+                values.add(literal(column));
+            }
+            expect(TokenType.RIGHT_PAREN, "')'");
+            return new FilterExpression.In(field, values, negated);
+        }
+        throw error(negated ? "Expected LIKE or IN" : "Expected an operator");
+    }
+
+    /**
+     * Read a literal and convert it to the type of the column
+     */
+    private Comparable<?> literal(ExportColumn column) {
+        if (type != TokenType.STRING && type != TokenType.NUMBER && type != TokenType.WORD) {
+            throw error("Expected a value");
+        }
+        Class<?> fieldType = column.getType();
+        String value = token;
+        int start = tokenStart;
+        Comparable<?> converted;
+        try {
+            if (type == TokenType.STRING) {
+                converted = fromString(fieldType, value);
+            } else if (type == TokenType.NUMBER) {
+                converted = fromNumber(fieldType, value);
+            } else if (type == TokenType.WORD && ("TRUE".equalsIgnoreCase(value) || "FALSE".equalsIgnoreCase(value))
+                    && fieldType == Boolean.class) {
+                converted = Boolean.valueOf(value.toLowerCase());
+            } else {
+                converted = null;
+            }
+        } catch (IllegalArgumentException e) {
+            converted = null;
+        }
+        if (converted == null) {
+            throw new ValidationException("Invalid filter at position " + (start + 1) + ": '" + value
+                    + "' is not a valid " + typeName(fieldType) + " for field '" + column.getField() + "'");
+        }
+        advance();
+        return converted;
+    }
+
+    private static Comparable<?> fromString(Class<?> fieldType, String value) {
+        if (fieldType == String.class) {
+            return value;
+        }
+        if (fieldType == LocalDateTime.class) {
+            return DateUtil.parseDate(value);
+        }
+        if (fieldType == LocalDate.class) {
+            return DateUtil.parseDate(value).toLocalDate();
+        }
+        return null;
+    }
+
+    private static Comparable<?> fromNumber(Class<?> fieldType, String value) {
+        if (fieldType == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (fieldType == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (fieldType == Double.class) {
+            return Double.valueOf(value);
+        }
+        return null;
+    }
+
+    private static String typeName(Class<?> fieldType) {
+        if (fieldType == Integer.class || fieldType == Long.class) {
+            return "integer";
+        }
+        if (fieldType == Double.class) {
+            return "number";
+        }
+        if (fieldType == Boolean.class) {
+            return "boolean (true or false)";
+        }
+        if (fieldType == LocalDateTime.class || fieldType == LocalDate.class) {
+            return "quoted date";
+        }
+        return "quoted string";
+    }
+
+    private boolean isKeyword(String keyword) {
+        return type == TokenType.WORD && keyword.equalsIgnoreCase(token);
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        if (isKeyword(keyword)) {
+            advance();
+            return true;
+        }
+        return false;
+    }
+
+    private void expectKeyword(String keyword) {
+        if (!acceptKeyword(keyword)) {
+            throw error("Expected " + keyword);
+        }
+    }
+
+    private void expect(TokenType expected, String description) {
+        if (type != expected) {
+            throw error("Expected " + description);
+        }
+        advance();
+    }
+
+    private static boolean isReserved(String word) {
+        switch (word.toUpperCase()) {
+            case "AND":
+            case "OR":
+            case "NOT":
+            case "LIKE":
+            case "IS":
+            case "NULL":
+            case "IN":
+            case "TRUE":
+            case "FALSE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private ValidationException error(String message) {
+        String at = type == TokenType.END ? "end of filter" : "position " + (tokenStart + 1);
+        return new ValidationException("Invalid filter at " + at + ": " + message);
+    }
+
+    private void advance() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+        tokenStart = position;
+        if (position == text.length()) {
+            type = TokenType.END;
+            token = "";
+            return;
+        }
+
+        char c = text.charAt(position);
+        if (c == '(' || c == ')' || c == ',') {
+            type = c == '(' ? TokenType.LEFT_PAREN : c == ')' ? TokenType.RIGHT_PAREN : TokenType.COMMA;
+            token = String.valueOf(c);
+            position++;
+        } else if (c == '\'') {
+            readString();
+        } else if (c == '=' || c == '!' || c == '<' || c == '>') {
+            readOperator(c);
+        } else if (Character.isDigit(c) || ((c == '-' || c == '.') && position + 1 < text.length()
+                && Character.isDigit(text.charAt(position + 1)))) {
+            int end = position + 1;
+            while (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+                end++;
+            }
+            type = TokenType.NUMBER;
+            token = text.substring(position, end);
+            position = end;
+        } else if (Character.isLetter(c) || c == '_') {
+            int end = position + 1;
+            while (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '_')) {
+                end++;
+            }
+            type = TokenType.WORD;
+            token = text.substring(position, end);
+            position = end;
+        } else {
+            throw new ValidationException("Invalid filter at position " + (position + 1) + ": Unexpected '" + c + "'");
+        }
+    }
+
+    private void readString() {
+        StringBuilder value = new StringBuilder();
+        int i = position + 1;
+        while (true) {
+            if (i == text.length()) {
+                throw new ValidationException("Invalid filter at position " + (position + 1) + ": Unterminated string");
+            }
+            char c = text.charAt(i++);
+            if (c == '\'') {
+                if (i < text.length() && text.charAt(i) == '\'') {
+                    value.append('\'');
+                    i++;
+                } else {
+                    break;
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        type = TokenType.STRING;
+        token = value.toString();
+        position = i;
+    }
+
+    private void readOperator(char c) {
+        char next = position + 1 < text.length() ? text.charAt(position + 1) : 0;
+        String operator;
+        if (next == '=' && c != '=') {
+            operator = c + "=";
+        } else if (c == '<' && next == '>') {
+            operator = "<>";
+        } else if (c == '!') {
+            throw new ValidationException("Invalid filter at position " + (position + 1) + ": Unexpected '!'");
+        } else {
+            operator = String.valueOf(c);
+        }
+        type = TokenType.OPERATOR;
+        token = operator;
+        position += operator.length();
+    }
+
+    private enum TokenType {
+        WORD, STRING, NUMBER, OPERATOR, LEFT_PAREN, RIGHT_PAREN, COMMA, END
+    }
+}
@@ -0,0 +1,155 @@
+package com.importexport.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.importexport.config.ExportConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes a JSON array of objects keyed by field name, straight to the output
+ * through a JsonGenerator. Nothing is data-bound: each column has a writer,
+ * built once from its entity type, that emits the pre-encoded field name and
+ * the value with the matching generator call. Dates are ISO-8601 strings,
+ * which the importer reads back.
+ */
+@Component
+public class JsonExporter implements FileExporter {
+
+    private final JsonFactory jsonFactory = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final Map<ExportColumn, ColumnWriter> columnWriters = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ExportConfig exportConfig;
+
+    @Override
+    public RowWriter open(OutputStream outputStream, List<ExportColumn> columns) throws IOException {
+        ColumnWriter[] writers = new ColumnWriter[columns.size()];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = columnWriters.computeIfAbsent(columns.get(i), ColumnWriter::new);
+        }
+        JsonGenerator generator = jsonFactory.createGenerator(
+                new BufferedOutputStream(outputStream, exportConfig.getBufferSize()), JsonEncoding.UTF8);
+        RowWriter writer = createRowWriter(generator, writers);
+        generator.flush();
+        return writer;
+    }
+
+    RowWriter createRowWriter(JsonGenerator generator, ColumnWriter[] writers) throws IOException {
+        generator.writeStartArray();
+        return new JsonRowWriter(generator, writers, false);
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/json";
+    }
+
+    @Override
+    public boolean supports(String fileFormat) {
+        return "json".equalsIgnoreCase(fileFormat);
+    }
+
+    static class JsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final ColumnWriter[] writers;
+        private final boolean lineDelimited;
+
+        JsonRowWriter(JsonGenerator generator, ColumnWriter[] writers, boolean lineDelimited) {
+            this.generator = generator;
+            this.writers = writers;
+            this.lineDelimited = lineDelimited;
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < writers.length; i++) {
+                writers[i].write(generator, values[i]);
+            }
+            generator.writeEndObject();
+            if (lineDelimited) {
+                generator.writeRaw('\n');
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!lineDelimited) {
+                generator.writeEndArray();
+            }
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Releases the generator's buffers, the target stays open
+            generator.close();
+        }
+    }
+
+    static final class ColumnWriter {
+
+        private final SerializableString name;
+        private final ValueWriter valueWriter;
+
+        ColumnWriter(ExportColumn column) {
+            this.name = new SerializedString(column.getField());
+            this.valueWriter = valueWriter(column.getType());
+        }
+
+        void write(JsonGenerator generator, Object value) throws IOException {
+            generator.writeFieldName(name);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                valueWriter.write(generator, value);
+            }
+        }
+
+        private static ValueWriter valueWriter(Class<?> type) {
+            if (type == Long.class || type == long.class) {
+                return (generator, value) -> generator.writeNumber((Long) value);
+            }
+            if (type == Integer.class || type == int.class) {
+                return (generator, value) -> generator.writeNumber((Integer) value);
+            }
+            if (type == Double.class || type == double.class) {
+                return (generator, value) -> generator.writeNumber((Double) value);
+            }
+            if (type == Boolean.class || type == boolean.class) {
+                return (generator, value) -> generator.writeBoolean((Boolean) value);
+            }
+            if (type == LocalDateTime.class) {
+                return (generator, value) ->
+                        generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value));
+            }
+            if (type == LocalDate.class) {
+                return (generator, value) ->
+                        generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE.format((LocalDate) value));
+            }
+            return (generator, value) -> generator.writeString(value.toString());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(JsonGenerator generator, Object value) throws IOException;
+    }
+}
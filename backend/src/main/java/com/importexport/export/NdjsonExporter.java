@@ -0,0 +1,31 @@
+package com.importexport.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes newline-delimited JSON: one object per line and no enclosing
+ * array, for consumers that process the export line by line.
+ */
+@Component
+public class NdjsonExporter extends JsonExporter {
+
+    @Override
+    RowWriter createRowWriter(JsonGenerator generator, ColumnWriter[] writers) throws IOException {
+        // Rows end with their own newline, so no separator between root values
+        generator.setRootValueSeparator(null);
+        return new JsonRowWriter(generator, writers, true);
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/x-ndjson";
+    }
+
+    @Override
+    public boolean supports(String fileFormat) {
+        return "ndjson".equalsIgnoreCase(fileFormat);
+    }
+}
@@ -0,0 +1,33 @@
+package com.importexport.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Serializes exported rows into an output stream as they are read.
+ */
+public interface RowWriter extends Closeable {
+
+    /**
+     * Write one row. The array is reused for the next row, so writers must
+     * not keep a reference to it.
+     * @param values The column values, in the order of the export columns
+     * @throws IOException if the output cannot be written
+     */
+    void writeRow(Object[] values) throws IOException;
+
+    /**
+     * Complete the file and flush it, once every row has been written.
+     * The underlying stream is left open, it belongs to the caller.
+     * @throws IOException if the output cannot be written
+     */
+    void finish() throws IOException;
+
+    /**
+     * Release what the writer holds, such as temp files. Called whether or
+     * not the export finished, e.g. after the client aborted the download.
+     * @throws IOException if a resource cannot be released
+     */
+    @Override
+    void close() throws IOException;
+}
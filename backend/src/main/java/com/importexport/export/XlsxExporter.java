@@ -0,0 +1,154 @@
+package com.importexport.export;
+
+import com.importexport.config.ExportConfig;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes xlsx through a streaming workbook: only the last rows of the row
+ * window stay in memory, older rows are flushed to compressed temp files
+ * and zipped into the response once the export is complete. Cells are
+ * typed by the entity attribute, so numbers, booleans and dates stay
+ * numbers, booleans and dates in Excel. A sheet holds at most 1,048,576
+ * rows, larger exports continue on further sheets.
+ */
+@Component
+public class XlsxExporter implements FileExporter {
+
+    private static final String SHEET_NAME = "Data";
+    private static final String DATE_FORMAT = "yyyy-mm-dd hh:mm:ss";
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    @Autowired
+    private ExportConfig exportConfig;
+
+    @Override
+    public RowWriter open(OutputStream outputStream, List<ExportColumn> columns) {
+        return open(outputStream, columns, MAX_ROWS);
+    }
+
+    /**
+     * @param maxRows Rows per sheet, header included, lowered by tests
+     */
+    RowWriter open(OutputStream outputStream, List<ExportColumn> columns, int maxRows) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(Math.max(1, exportConfig.getXlsxRowWindow()));
+        workbook.setCompressTempFiles(true);
+        return new XlsxRowWriter(workbook, outputStream, columns, maxRows);
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    }
+
+    @Override
+    public boolean supports(String fileFormat) {
+        return "xlsx".equalsIgnoreCase(fileFormat);
+    }
+
+    private static class XlsxRowWriter implements RowWriter {
+
+        private final SXSSFWorkbook workbook;
+        private final OutputStream outputStream;
+        private final List<ExportColumn> columns;
+        private final CellStyle headerStyle;
+        private final CellStyle dateStyle;
+        private final boolean[] dateColumns;
+        private final int maxRows;
+        private SXSSFSheet sheet;
+        private int rowIndex;
+
+        XlsxRowWriter(SXSSFWorkbook workbook, OutputStream outputStream, List<ExportColumn> columns, int maxRows) {
+            this.workbook = workbook;
+            this.outputStream = outputStream;
+            this.columns = columns;
+            this.maxRows = maxRows;
+
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(bold);
+            dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat(DATE_FORMAT));
+
+            // Styles are per column, decided once from the entity types
+            dateColumns = new boolean[columns.size()];
+            for (int i = 0; i < dateColumns.length; i++) {
+                Class<?> type = columns.get(i).getType();
+                dateColumns[i] = type == LocalDateTime.class || type == LocalDate.class;
+            }
+            startSheet();
+        }
+
+        @Override
+        public void writeRow(Object[] values) {
+            if (rowIndex == maxRows) {
+                startSheet();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                if (value instanceof Number) {
+                    cell.setCellValue(((Number) value).doubleValue());
+                } else if (value instanceof Boolean) {
+                    cell.setCellValue((Boolean) value);
+                } else if (value instanceof LocalDateTime) {
+                    cell.setCellValue((LocalDateTime) value);
+                } else if (value instanceof LocalDate) {
+                    cell.setCellValue((LocalDate) value);
+                } else {
+                    cell.setCellValue(value.toString());
+                }
+                if (dateColumns[i]) {
+                    cell.setCellStyle(dateStyle);
+                }
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            workbook.write(outputStream);
+            outputStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                workbook.close();
+            } finally {
+                // close() leaves the temp files of the flushed rows behind
+                workbook.dispose();
+            }
+        }
+
+        private void startSheet() {
+            int sheetNumber = workbook.getNumberOfSheets() + 1;
+            sheet = workbook.createSheet(sheetNumber == 1 ? SHEET_NAME : SHEET_NAME + " " + sheetNumber);
+            sheet.createFreezePane(0, 1);
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < columns.size(); i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(columns.get(i).getColumnName());
+                cell.setCellStyle(headerStyle);
+            }
+            rowIndex = 1;
+        }
+    }
+}
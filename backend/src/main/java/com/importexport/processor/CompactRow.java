@@ -0,0 +1,93 @@
+package com.importexport.processor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A parsed row stored as a plain value array against a {@link RowSchema}
+ * shared by the whole file, exposed as a read-only Map in column order.
+ *
+ * Only the first {@code size} slots are present, rows that are shorter than
+ * the header leave out the trailing columns instead of mapping them to null.
+ */
+public final class CompactRow extends AbstractMap<String, Object> {
+
+    private final RowSchema schema;
+    private final Object[] values;
+    private final int size;
+
+    public CompactRow(RowSchema schema, Object[] values, int size) {
+        this.schema = schema;
+        this.values = values;
+        this.size = size;
+    }
+
+    public CompactRow(RowSchema schema, Object[] values) {
+        this(schema, values, schema.size());
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Value of a slot, null when the slot is absent from this row
+     */
+    public Object get(int slot) {
+        return slot >= 0 && slot < size ? values[slot] : null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key instanceof String ? get(schema.slotOf((String) key)) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        int slot = schema.slotOf((String) key);
+        return slot >= 0 && slot < size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int slot;
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < size;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (slot >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, Object> entry = new SimpleImmutableEntry<>(schema.getName(slot), values[slot]);
+                        slot++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,185 @@
+package com.importexport.processor;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses the data records of a mapped CSV file on a fork/join pool.
+ *
+ * The data region is cut into byte ranges that end on record boundaries. A
+ * newline only ends a record outside a quoted field, and like in the
+ * tokenizer a quote only opens one at the start of a field, so whether a cut
+ * point is inside quotes depends on everything before it. Each range is
+ * therefore run in parallel through the tokenizer's quoting states from
+ * every possible starting state, and chaining the resulting end states from
+ * the start of the data gives the exact state at every cut point. Chunks are
+ * then tokenized concurrently and handed to the sink in file order, with a
+ * bounded number in flight, so rows and row numbers match the sequential
+ * parser.
+ */
+class CsvChunkedReader {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    // Quoting states between two bytes, as the tokenizer moves through them
+    private static final int FIELD_START = 0; // at the start of a field, after any spaces or tabs
+    private static final int UNQUOTED = 1; // in an unquoted field, or after the closing quote of a quoted one
+    private static final int QUOTED = 2; // in a quoted field
+    private static final int QUOTE_IN_QUOTED = 3; // after a quote in a quoted field, closing it or escaping the next
+    private static final int STATES = 4;
+
+    // Next state by state and byte
+    private static final byte[] TRANSITIONS = transitions();
+
+    private final ByteBuffer content;
+    private final RowSchema schema;
+    private final int dataStart;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    CsvChunkedReader(ByteBuffer content, RowSchema schema, int dataStart, int chunkSize, ForkJoinPool pool) {
+        this.content = content;
+        this.schema = schema;
+        this.dataStart = dataStart;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    int read(RowSink sink) throws Exception {
+        List<int[]> chunks = split();
+        int maxInFlight = pool.getParallelism() * 2;
+        Deque<ForkJoinTask<List<Map<String, Object>>>> inFlight = new ArrayDeque<>();
+        Deque<Integer> inFlightEnds = new ArrayDeque<>();
+        int next = 0;
+        int count = 0;
+        int rowNumber = 1; // header is row 1
+
+        try {
+            while (next < chunks.size() || !inFlight.isEmpty()) {
+                while (next < chunks.size() && inFlight.size() < maxInFlight) {
+                    int[] chunk = chunks.get(next++);
+                    inFlight.addLast(pool.submit(() -> parse(chunk[0], chunk[1])));
+                    inFlightEnds.addLast(chunk[1]);
+                }
+                for (Map<String, Object> row : join(inFlight.removeFirst())) {
+                    count++;
+                    if (!sink.accept(row, ++rowNumber)) {
+                        return count;
+                    }
+                }
+                sink.bytesRead(inFlightEnds.removeFirst());
+            }
+        } finally {
+            inFlight.forEach(task -> task.cancel(true));
+        }
+        return count;
+    }
+
+    private List<Map<String, Object>> parse(int start, int end) throws Exception {
+        CsvTokenizer tokenizer = new CsvTokenizer(content, start, end);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        while (tokenizer.next()) {
+            rows.add(tokenizer.toRow(schema));
+        }
+        return rows;
+    }
+
+    private <T> T join(ForkJoinTask<T> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * @return [start, end) byte ranges covering the data region, each on record boundaries
+     */
+    private List<int[]> split() throws Exception {
+        int end = content.limit();
+        int pieces = Math.max(1, (end - dataStart + chunkSize - 1) / chunkSize);
+
+        List<ForkJoinTask<int[]>> endStates = new ArrayList<>(pieces);
+        for (int i = 0; i < pieces - 1; i++) {
+            int from = dataStart + i * chunkSize;
+            int to = Math.min(end, from + chunkSize);
+            endStates.add(pool.submit(() -> endStates(from, to)));
+        }
+
+        List<int[]> chunks = new ArrayList<>(pieces);
+        int chunkStart = dataStart;
+        int state = FIELD_START;
+        for (int i = 1; i < pieces; i++) {
+            state = join(endStates.get(i - 1))[state];
+            int cut = dataStart + i * chunkSize;
+            if (cut < chunkStart) {
+                continue; // a quoted field swallowed this whole piece
+            }
+            int boundary = nextRecordStart(cut, state);
+            if (boundary > chunkStart && boundary < end) {
+                chunks.add(new int[] {chunkStart, boundary});
+                chunkStart = boundary;
+            }
+        }
+        chunks.add(new int[] {chunkStart, end});
+        return chunks;
+    }
+
+    /**
+     * @return the state at {@code to} for each state at {@code from}
+     */
+    private int[] endStates(int from, int to) {
+        int[] states = new int[STATES];
+        for (int state = 0; state < STATES; state++) {
+            states[state] = state;
+        }
+        for (int i = from; i < to; i++) {
+            int b = content.get(i) & 0xFF;
+            for (int state = 0; state < STATES; state++) {
+                states[state] = TRANSITIONS[states[state] << 8 | b];
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Offset of the first record starting at or after {@code from}, given the quoting state there
+     */
+    private int nextRecordStart(int from, int state) {
+        int end = content.limit();
+        // A cut between CR and LF belongs to the line ending before it
+        if (state == FIELD_START && from > dataStart && content.get(from - 1) == CR
+                && from < end && content.get(from) == LF) {
+            return from + 1;
+        }
+        for (int i = from; i < end; i++) {
+            byte b = content.get(i);
+            if (state != QUOTED && (b == LF || b == CR)) {
+                return b == CR && i + 1 < end && content.get(i + 1) == LF ? i + 2 : i + 1;
+            }
+            state = TRANSITIONS[state << 8 | (b & 0xFF)];
+        }
+        return end;
+    }
+
+    private static byte[] transitions() {
+        byte[] transitions = new byte[STATES << 8];
+        for (int b = 0; b < 256; b++) {
+            boolean delimiter = b == ',' || b == LF || b == CR;
+            transitions[FIELD_START << 8 | b] = (byte) (delimiter || b == ' ' || b == '\t' ? FIELD_START
+                    : b == '"' ? QUOTED : UNQUOTED);
+            transitions[UNQUOTED << 8 | b] = (byte) (delimiter ? FIELD_START : UNQUOTED);
+            transitions[QUOTED << 8 | b] = (byte) (b == '"' ? QUOTE_IN_QUOTED : QUOTED);
+            transitions[QUOTE_IN_QUOTED << 8 | b] = (byte) (delimiter ? FIELD_START : b == '"' ? QUOTED : UNQUOTED);
+        }
+        return transitions;
+    }
+}
@@ -1,38 +1,79 @@
 package com.importexport.processor;
 
-import com.opencsv.CSVReader;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 @Component
 public class CsvProcessor implements FileProcessor {
 
     private static final String[] SUPPORTED_EXTENSIONS = {"csv"};
+    private static final long PARALLEL_MIN_FILE_SIZE = 16L * 1024 * 1024;
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final long PROGRESS_INTERVAL_BYTES = 1024 * 1024;
 
     @Override
-    public List<Map<String, Object>> processFile(InputStream inputStream) throws Exception {
-        List<Map<String, Object>> result = new ArrayList<>();
-        
-        try (CSVReader reader = new CSVReader(new InputStreamReader(inputStream))) {
-            String[] headers = reader.readNext();
-            if (headers == null) {
-                throw new IllegalArgumentException("CSV file is empty or has no headers");
+    public int processFile(InputStream inputStream, RowSink sink) throws Exception {
+        return processRecords(new CsvTokenizer(inputStream), sink);
+    }
+
+    @Override
+    public int processFile(Path file, RowSink sink) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return FileProcessor.super.processFile(file, sink);
+            }
+            // Parse straight out of the page cache, the mapping outlives the channel
+            MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CsvTokenizer tokenizer = new CsvTokenizer(content);
+            if (channel.size() < PARALLEL_MIN_FILE_SIZE || ForkJoinPool.getCommonPoolParallelism() < 2) {
+                return processRecords(tokenizer, sink);
             }
+            // Large file: parse record-aligned chunks across cores, delivered in file order
+            RowSchema schema = readHeaders(tokenizer);
+            return new CsvChunkedReader(content, schema, tokenizer.position(), CHUNK_SIZE, ForkJoinPool.commonPool())
+                    .read(sink);
+        }
+    }
+
+    private int processRecords(CsvTokenizer tokenizer, RowSink sink) throws Exception {
+        int count = 0;
+        RowSchema schema = readHeaders(tokenizer);
 
-            String[] row;
-            while ((row = reader.readNext()) != null) {
-                Map<String, Object> rowData = new LinkedHashMap<>();
-                for (int i = 0; i < headers.length && i < row.length; i++) {
-                    rowData.put(headers[i].trim(), row[i].trim());
-                }
-                result.add(rowData);
+        int rowNumber = 1;
+        long bytesReported = 0;
+        while (tokenizer.next()) {
+            rowNumber++;
+            Map<String, Object> rowData = tokenizer.toRow(schema);
+            count++;
+            if (!sink.accept(rowData, rowNumber)) {
+                break;
             }
+            if (tokenizer.bytesConsumed() - bytesReported >= PROGRESS_INTERVAL_BYTES) {
+                bytesReported = tokenizer.bytesConsumed();
+                sink.bytesRead(bytesReported);
+            }
+        }
+        sink.bytesRead(tokenizer.bytesConsumed());
+
+        return count;
+    }
+
+    private RowSchema readHeaders(CsvTokenizer tokenizer) throws Exception {
+        if (!tokenizer.next()) {
+            throw new IllegalArgumentException("CSV file is empty or has no headers");
+        }
+        String[] headers = new String[tokenizer.fieldCount()];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = tokenizer.field(i);
         }
-        
-        return result;
+        return new RowSchema(headers);
     }
 
     @Override
@@ -44,4 +85,4 @@ public class CsvProcessor implements FileProcessor {
     public boolean supports(String fileType) {
         return Arrays.asList(SUPPORTED_EXTENSIONS).contains(fileType.toLowerCase());
     }
-}
\ No newline at end of file
+}
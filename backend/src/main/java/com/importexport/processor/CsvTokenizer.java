@@ -0,0 +1,318 @@
+package com.importexport.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-level CSV tokenizer: comma delimiter, double-quote quoting with ""
+ * escapes, quoted fields may span lines, \n, \r\n or \r line endings and a
+ * leading UTF-8 BOM is skipped.
+ *
+ * Records are parsed in place over a ByteBuffer (a mapped file or a reusable
+ * direct buffer refilled from a stream). Fields are kept as byte ranges and
+ * only decoded from UTF-8 into a String when {@link #field(int)} is called.
+ */
+class CsvTokenizer {
+
+    private static final int STREAM_BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private static final int QUOTED = 1;
+    private static final int ESCAPED = 2;
+    private static final int TAILED = 4;
+
+    private ByteBuffer buffer;
+    private final ReadableByteChannel channel;
+    private boolean eof;
+    private int position;
+    private int limit;
+    private long discarded;
+
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int[] tailEnds = new int[16];
+    private int[] flags = new int[16];
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Tokenize a buffer holding the whole file, typically memory-mapped
+     */
+    CsvTokenizer(ByteBuffer content) {
+        this(content, 0, content.limit(), null, true);
+        skipByteOrderMark();
+    }
+
+    /**
+     * Tokenize the records in [start, end) of a shared buffer, which must begin
+     * on a record boundary. Only absolute reads are used, so several tokenizers
+     * can work on slices of the same buffer concurrently.
+     */
+    CsvTokenizer(ByteBuffer content, int start, int end) {
+        this(content, start, end, null, true);
+    }
+
+    /**
+     * Tokenize a stream through a reusable direct buffer
+     */
+    CsvTokenizer(InputStream inputStream) throws IOException {
+        this(ByteBuffer.allocateDirect(STREAM_BUFFER_SIZE), 0, 0, Channels.newChannel(inputStream), false);
+        // A short first read may end inside the BOM
+        do {
+            fill();
+        } while (limit < 3 && !eof);
+        skipByteOrderMark();
+    }
+
+    private CsvTokenizer(ByteBuffer buffer, int position, int limit, ReadableByteChannel channel, boolean eof) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+        this.channel = channel;
+        this.eof = eof;
+    }
+
+    /**
+     * Advance to the next record
+     * @return false once the input is exhausted
+     */
+    boolean next() throws IOException {
+        while (true) {
+            if (position >= limit && eof) {
+                return false;
+            }
+            int end = parseRecord(position);
+            if (end >= 0) {
+                position = end;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Offset just past the current record
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * Bytes of input consumed up to the end of the current record
+     */
+    long bytesConsumed() {
+        return discarded + position;
+    }
+
+    /**
+     * Map the current record onto the header schema, only fields that map to a header are decoded
+     */
+    CompactRow toRow(RowSchema schema) {
+        int count = Math.min(schema.getColumnCount(), fieldCount);
+        Object[] values = new Object[schema.size()];
+        for (int i = 0; i < count; i++) {
+            values[schema.columnSlot(i)] = field(i);
+        }
+        return new CompactRow(schema, values, schema.slotsCovered(count));
+    }
+
+    /**
+     * Decode a field of the current record, unescaped and trimmed like {@link String#trim()}
+     */
+    String field(int index) {
+        int flag = flags[index];
+        int length = 0;
+
+        if ((flag & ESCAPED) == 0) {
+            length = copy(starts[index], ends[index], 0);
+        } else {
+            ensureScratch(ends[index] - starts[index]);
+            for (int i = starts[index]; i < ends[index]; i++) {
+                byte b = buffer.get(i);
+                scratch[length++] = b;
+                if (b == QUOTE) {
+                    i++; // skip the second quote of an escaped pair
+                }
+            }
+        }
+        if ((flag & TAILED) != 0) {
+            // characters between the closing quote and the delimiter are kept as-is
+            length = copy(ends[index] + 1, tailEnds[index], length);
+        }
+
+        int from = 0;
+        int to = length;
+        while (from < to && (scratch[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (scratch[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        return new String(scratch, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private int copy(int from, int to, int offset) {
+        int length = to - from;
+        ensureScratch(offset + length);
+        buffer.get(from, scratch, offset, length);
+        return offset + length;
+    }
+
+    private void ensureScratch(int size) {
+        if (scratch.length < size) {
+            byte[] grown = new byte[Math.max(size, scratch.length * 2)];
+            System.arraycopy(scratch, 0, grown, 0, scratch.length);
+            scratch = grown;
+        }
+    }
+
+    /**
+     * @return the offset just past the record, or -1 if more input is needed
+     */
+    private int parseRecord(int start) {
+        fieldCount = 0;
+        int i = start;
+
+        while (true) {
+            int k = i;
+            while (k < limit && (buffer.get(k) == ' ' || buffer.get(k) == '\t')) {
+                k++;
+            }
+            if (k >= limit && !eof) {
+                return -1;
+            }
+
+            if (k < limit && buffer.get(k) == QUOTE) {
+                int contentStart = k + 1;
+                int flag = QUOTED;
+                k = contentStart;
+                while (true) {
+                    if (k >= limit) {
+                        if (!eof) {
+                            return -1;
+                        }
+                        throw new IllegalArgumentException("CSV file has an unterminated quoted field");
+                    }
+                    if (buffer.get(k) == QUOTE) {
+                        if (k + 1 >= limit && !eof) {
+                            return -1;
+                        }
+                        if (k + 1 < limit && buffer.get(k + 1) == QUOTE) {
+                            flag |= ESCAPED;
+                            k += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    k++;
+                }
+                int contentEnd = k;
+                k = skipToDelimiter(k + 1);
+                if (k < 0) {
+                    return -1;
+                }
+                if (k > contentEnd + 1) {
+                    flag |= TAILED;
+                }
+                addField(contentStart, contentEnd, k, flag);
+            } else {
+                k = skipToDelimiter(i);
+                if (k < 0) {
+                    return -1;
+                }
+                addField(i, k, k, 0);
+            }
+
+            if (k >= limit) {
+                return k;
+            }
+            byte b = buffer.get(k);
+            if (b == COMMA) {
+                i = k + 1;
+                continue;
+            }
+            if (b == CR) {
+                if (k + 1 >= limit && !eof) {
+                    return -1;
+                }
+                return k + 1 < limit && buffer.get(k + 1) == LF ? k + 2 : k + 1;
+            }
+            return k + 1;
+        }
+    }
+
+    private int skipToDelimiter(int from) {
+        int k = from;
+        while (k < limit) {
+            byte b = buffer.get(k);
+            if (b == COMMA || b == LF || b == CR) {
+                return k;
+            }
+            k++;
+        }
+        return eof ? k : -1;
+    }
+
+    private void addField(int start, int end, int tailEnd, int flag) {
+        if (fieldCount == starts.length) {
+            int size = fieldCount * 2;
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            tailEnds = Arrays.copyOf(tailEnds, size);
+            flags = Arrays.copyOf(flags, size);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        tailEnds[fieldCount] = tailEnd;
+        flags[fieldCount] = flag;
+        fieldCount++;
+    }
+
+    /**
+     * Move the unparsed tail to the front of the buffer and read more input,
+     * growing the buffer when a single record does not fit.
+     */
+    private void fill() throws IOException {
+        if (channel == null || eof) {
+            eof = true;
+            return;
+        }
+        buffer.limit(limit).position(position);
+        if (position == 0 && limit == buffer.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            grown.put(buffer);
+            buffer = grown;
+        } else {
+            discarded += position;
+            buffer.compact();
+        }
+        position = 0;
+        if (channel.read(buffer) < 0) {
+            eof = true;
+        }
+        limit = buffer.position();
+        buffer.clear();
+    }
+
+    private void skipByteOrderMark() {
+        if (limit - position >= 3
+                && (buffer.get(position) & 0xFF) == 0xEF
+                && (buffer.get(position + 1) & 0xFF) == 0xBB
+                && (buffer.get(position + 2) & 0xFF) == 0xBF) {
+            position += 3;
+        }
+    }
+}
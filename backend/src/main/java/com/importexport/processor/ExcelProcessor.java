@@ -3,21 +3,89 @@ package com.importexport.processor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 @Component
 public class ExcelProcessor implements FileProcessor {
 
     private static final String[] SUPPORTED_EXTENSIONS = {"xlsx", "xls"};
+    private static final int DOM_MAX_FILE_SIZE = 64 * 1024;
 
     @Override
-    public List<Map<String, Object>> processFile(InputStream inputStream) throws Exception {
-        List<Map<String, Object>> result = new ArrayList<>();
-        
-        try (Workbook workbook = createWorkbook(inputStream)) {
+    public int processFile(InputStream inputStream, RowSink sink) throws Exception {
+        byte[] head = inputStream.readNBytes(DOM_MAX_FILE_SIZE + 1);
+        FileMagic magic = checkMagic(head);
+
+        if (head.length <= DOM_MAX_FILE_SIZE) {
+            // Tiny workbook: the DOM model is cheaper than spooling it to disk
+            return processWorkbook(createWorkbook(magic, new ByteArrayInputStream(head)), sink);
+        }
+
+        // Both containers need random access, so spool to disk and stream the sheet records
+        Path spoolFile = Files.createTempFile("excel-import-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(spoolFile)) {
+                out.write(head);
+                inputStream.transferTo(out);
+            }
+            return processSpooledFile(magic, spoolFile, sink);
+        } finally {
+            Files.deleteIfExists(spoolFile);
+        }
+    }
+
+    @Override
+    public int processFile(Path file, RowSink sink) throws Exception {
+        FileMagic magic;
+        try (InputStream in = Files.newInputStream(file)) {
+            magic = checkMagic(in.readNBytes(8));
+        }
+
+        if (Files.size(file) <= DOM_MAX_FILE_SIZE) {
+            try (InputStream in = Files.newInputStream(file)) {
+                return processWorkbook(createWorkbook(magic, in), sink);
+            }
+        }
+        return processSpooledFile(magic, file, sink);
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        // Both containers are read by random access
+        return false;
+    }
+
+    private FileMagic checkMagic(byte[] head) {
+        FileMagic magic = FileMagic.valueOf(head);
+        if (magic != FileMagic.OOXML && magic != FileMagic.OLE2) {
+            throw new IllegalArgumentException("Excel file is not a valid .xlsx or .xls workbook");
+        }
+        return magic;
+    }
+
+    private Workbook createWorkbook(FileMagic magic, InputStream inputStream) throws Exception {
+        return magic == FileMagic.OOXML ? new XSSFWorkbook(inputStream) : new HSSFWorkbook(inputStream);
+    }
+
+    private int processSpooledFile(FileMagic magic, Path file, RowSink sink) throws Exception {
+        if (magic == FileMagic.OOXML) {
+            return new XlsxStreamingReader(file).read(sink);
+        }
+        return new XlsStreamingReader(file).read(sink);
+    }
+
+    private int processWorkbook(Workbook source, RowSink sink) throws Exception {
+        int count = 0;
+
+        try (Workbook workbook = source) {
             Sheet sheet = workbook.getSheetAt(0); // Process first sheet
             
             if (sheet.getPhysicalNumberOfRows() == 0) {
@@ -34,32 +102,27 @@ public class ExcelProcessor implements FileProcessor {
             for (Cell cell : headerRow) {
                 headers.add(getCellValueAsString(cell).trim());
             }
+            RowSchema schema = new RowSchema(headers);
 
             // Process data rows
             for (int i = 1; i <= sheet.getLastRowNum(); i++) {
                 Row row = sheet.getRow(i);
                 if (row == null) continue;
 
-                Map<String, Object> rowData = new LinkedHashMap<>();
+                Object[] values = new Object[schema.size()];
                 for (int j = 0; j < headers.size(); j++) {
                     Cell cell = row.getCell(j);
                     String value = cell != null ? getCellValueAsString(cell).trim() : "";
-                    rowData.put(headers.get(j), value);
+                    values[schema.columnSlot(j)] = value;
+                }
+                count++;
+                if (!sink.accept(new CompactRow(schema, values), i + 1)) {
+                    break;
                 }
-                result.add(rowData);
             }
         }
         
-        return result;
-    }
-
-    private Workbook createWorkbook(InputStream inputStream) throws Exception {
-        try {
-            return new XSSFWorkbook(inputStream);
-        } catch (Exception e) {
-            inputStream.reset();
-            return new HSSFWorkbook(inputStream);
-        }
+        return count;
     }
 
     private String getCellValueAsString(Cell cell) {
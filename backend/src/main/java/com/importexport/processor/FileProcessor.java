@@ -1,18 +1,64 @@
 package com.importexport.processor;
 
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public interface FileProcessor {
 
     /**
-     * Process the input stream and return list of data maps
+     * Stream the rows of the input stream into the sink one at a time.
+     * Reading stops as soon as the sink returns false, and any resources
+     * opened by the processor are released before this method returns.
+     * @param inputStream The file input stream
+     * @param sink The consumer of parsed rows
+     * @return Number of rows delivered to the sink
+     * @throws Exception if processing fails
+     */
+    int processFile(InputStream inputStream, RowSink sink) throws Exception;
+
+    /**
+     * Stream the rows of a file already spooled to disk into the sink.
+     * Processors override this when random access beats a sequential stream.
+     * @param file Path of the file
+     * @param sink The consumer of parsed rows
+     * @return Number of rows delivered to the sink
+     * @throws Exception if processing fails
+     */
+    default int processFile(Path file, RowSink sink) throws Exception {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return processFile(inputStream, sink);
+        }
+    }
+
+    /**
+     * Whether rows can be parsed while the stream is still arriving. Formats
+     * that need the whole file before the first row, such as zip containers,
+     * return false and are imported once the upload is complete.
+     * @return true if {@link #processFile(InputStream, RowSink)} reads sequentially
+     */
+    default boolean supportsStreaming() {
+        return true;
+    }
+
+    /**
+     * Process the input stream and return list of data maps.
+     * Holds the whole file in memory, prefer the streaming variant for imports.
      * @param inputStream The file input stream
      * @return List of data maps representing rows
      * @throws Exception if processing fails
      */
-    List<Map<String, Object>> processFile(InputStream inputStream) throws Exception;
+    default List<Map<String, Object>> processFile(InputStream inputStream) throws Exception {
+        List<Map<String, Object>> result = new ArrayList<>();
+        processFile(inputStream, (row, rowNumber) -> {
+            result.add(row);
+            return true;
+        });
+        return result;
+    }
 
     /**
      * Get supported file extensions
@@ -26,4 +72,4 @@ public interface FileProcessor {
      * @return true if supported, false otherwise
      */
     boolean supports(String fileType);
-}
\ No newline at end of file
+}
@@ -1,41 +1,140 @@
 package com.importexport.processor;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 
 @Component
 public class JsonProcessor implements FileProcessor {
 
-    private static final String[] SUPPORTED_EXTENSIONS = {"json"};
+    private static final String[] SUPPORTED_EXTENSIONS = {"json", "ndjson", "jsonl"};
+    private static final int PROGRESS_INTERVAL_ROWS = 1024;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
-    public List<Map<String, Object>> processFile(InputStream inputStream) throws Exception {
-        List<Map<String, Object>> result = new ArrayList<>();
-        
-        JsonNode rootNode = objectMapper.readTree(inputStream);
-        
-        if (rootNode.isArray()) {
-            // Handle array of objects
-            for (JsonNode node : rootNode) {
-                if (node.isObject()) {
-                    Map<String, Object> rowData = objectMapper.convertValue(node, Map.class);
-                    result.add(rowData);
+    public int processFile(InputStream inputStream, RowSink sink) throws Exception {
+        int count = 0;
+        RowReader rows = new RowReader();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+
+            if (token == JsonToken.START_ARRAY) {
+                // Handle array of objects, one element at a time
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new IllegalArgumentException("JSON array is not terminated");
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    count++;
+                    if (!sink.accept(rows.read(parser), count + 1)) {
+                        break;
+                    }
+                    reportBytesRead(parser, sink, count);
                 }
+            } else if (token == JsonToken.START_OBJECT) {
+                // Handle a single object, or newline-delimited objects (NDJSON)
+                do {
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new IllegalArgumentException("Each line of an NDJSON file must contain an object");
+                    }
+                    count++;
+                    if (!sink.accept(rows.read(parser), count + 1)) {
+                        break;
+                    }
+                    reportBytesRead(parser, sink, count);
+                } while ((token = parser.nextToken()) != null);
+            } else {
+                throw new IllegalArgumentException("JSON file must contain an object or array of objects");
+            }
+        }
+
+        return count;
+    }
+
+    private void reportBytesRead(JsonParser parser, RowSink sink, int count) {
+        if (count % PROGRESS_INTERVAL_ROWS == 0) {
+            sink.bytesRead(parser.currentLocation().getByteOffset());
+        }
+    }
+
+    /**
+     * Reads top-level objects into compact rows. Consecutive objects with the
+     * same keys in the same order share one schema, which is the common case
+     * for exported data; a differently shaped object starts a new schema.
+     */
+    private class RowReader {
+
+        private RowSchema schema;
+        private final List<String> names = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+
+        CompactRow read(JsonParser parser) throws IOException {
+            names.clear();
+            values.clear();
+            String fieldName;
+            while ((fieldName = parser.nextFieldName()) != null) {
+                names.add(fieldName);
+                values.add(readValue(parser, parser.nextToken()));
+            }
+
+            if (schema == null || !schema.matches(names)) {
+                schema = new RowSchema(names);
             }
-        } else if (rootNode.isObject()) {
-            // Handle single object
-            Map<String, Object> rowData = objectMapper.convertValue(rootNode, Map.class);
-            result.add(rowData);
-        } else {
-            throw new IllegalArgumentException("JSON file must contain an object or array of objects");
+            Object[] rowValues = new Object[schema.size()];
+            for (int i = 0; i < values.size(); i++) {
+                rowValues[schema.columnSlot(i)] = values.get(i);
+            }
+            return new CompactRow(schema, rowValues);
+        }
+    }
+
+    /**
+     * Read the object the parser is positioned on, producing the same value
+     * types as {@code ObjectMapper.convertValue(node, Map.class)}
+     */
+    private Map<String, Object> readObject(JsonParser parser) throws IOException {
+        Map<String, Object> rowData = new LinkedHashMap<>();
+        String fieldName;
+        while ((fieldName = parser.nextFieldName()) != null) {
+            rowData.put(fieldName, readValue(parser, parser.nextToken()));
+        }
+        return rowData;
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            case START_OBJECT:
+                return readObject(parser);
+            case START_ARRAY:
+                List<Object> values = new ArrayList<>();
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    values.add(readValue(parser, token));
+                }
+                return values;
+            default:
+                return parser.getEmbeddedObject();
         }
-        
-        return result;
     }
 
     @Override
@@ -47,4 +146,4 @@ public class JsonProcessor implements FileProcessor {
     public boolean supports(String fileType) {
         return Arrays.asList(SUPPORTED_EXTENSIONS).contains(fileType.toLowerCase());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.importexport.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The column layout shared by every {@link CompactRow} of a file.
+ *
+ * Source columns are mapped onto slots. A header that repeats maps onto the
+ * slot of its first occurrence, so a later column overwrites an earlier one,
+ * the same way repeated puts into a LinkedHashMap behave.
+ */
+public final class RowSchema {
+
+    private final String[] columns;
+    private final String[] names;
+    private final int[] columnSlots;
+    private final int[] slotsCovered;
+    private final Map<String, Integer> slots;
+
+    public RowSchema(List<String> columns) {
+        this.columns = new String[columns.size()];
+        this.columnSlots = new int[columns.size()];
+        this.slotsCovered = new int[columns.size() + 1];
+        this.slots = new HashMap<>(columns.size() * 2);
+
+        List<String> uniqueNames = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            String name = columns.get(i).intern();
+            this.columns[i] = name;
+            Integer slot = slots.get(name);
+            if (slot == null) {
+                slot = uniqueNames.size();
+                slots.put(name, slot);
+                uniqueNames.add(name);
+            }
+            columnSlots[i] = slot;
+            slotsCovered[i + 1] = uniqueNames.size();
+        }
+        this.names = uniqueNames.toArray(new String[0]);
+    }
+
+    public RowSchema(String[] columns) {
+        this(Arrays.asList(columns));
+    }
+
+    /**
+     * Number of distinct column names, the length of each row's value array
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String getName(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * @return the slot holding the named column, or -1 if the file has no such column
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Slot that the value of a source column is stored in
+     */
+    public int columnSlot(int column) {
+        return columnSlots[column];
+    }
+
+    /**
+     * Number of leading slots filled by a row that only has the first {@code columnCount} columns
+     */
+    public int slotsCovered(int columnCount) {
+        return slotsCovered[columnCount];
+    }
+
+    /**
+     * Whether this schema was built from exactly these source columns
+     */
+    public boolean matches(List<String> columnNames) {
+        if (columnNames.size() != columns.length) {
+            return false;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (!columns[i].equals(columnNames.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
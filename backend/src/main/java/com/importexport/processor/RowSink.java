@@ -0,0 +1,24 @@
+package com.importexport.processor;
+
+import java.util.Map;
+
+@FunctionalInterface
+public interface RowSink {
+
+    /**
+     * Accept a single row as soon as it has been parsed
+     * @param row The row data keyed by column header
+     * @param rowNumber The row number in the source file (the header row is row 1)
+     * @return true to keep reading, false to abort and release the file
+     * @throws Exception if the row cannot be consumed
+     */
+    boolean accept(Map<String, Object> row, int rowNumber) throws Exception;
+
+    /**
+     * Told every so often how far into the file the processor has read.
+     * Processors that cannot tell never call it.
+     * @param bytesRead Bytes of the file consumed so far
+     */
+    default void bytesRead(long bytesRead) {
+    }
+}
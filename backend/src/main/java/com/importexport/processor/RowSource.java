@@ -0,0 +1,17 @@
+package com.importexport.processor;
+
+/**
+ * Where the rows of an import come from, a processor reading a saved file
+ * or a stream that is still arriving
+ */
+@FunctionalInterface
+public interface RowSource {
+
+    /**
+     * Stream every row into the sink
+     * @param sink The consumer of parsed rows
+     * @return Number of rows delivered to the sink
+     * @throws Exception if reading fails
+     */
+    int read(RowSink sink) throws Exception;
+}
@@ -0,0 +1,70 @@
+package com.importexport.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the cells of streamed spreadsheet rows into row maps with the same
+ * semantics as the DOM path of {@link ExcelProcessor}: the first row holds
+ * the headers in physical cell order, data cells are matched to headers by
+ * column index, and missing cells become empty strings.
+ */
+class SheetRowAssembler {
+
+    private final RowSink sink;
+    private RowSchema schema;
+    private int count;
+
+    SheetRowAssembler(RowSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Hand over a complete row
+     * @param rowIndex Zero-based sheet row index
+     * @param columns Zero-based column index of each present cell
+     * @param values Untrimmed cell value of each present cell
+     * @return false if the sink asked to stop reading
+     */
+    boolean row(int rowIndex, List<Integer> columns, List<String> values) throws Exception {
+        if (schema == null) {
+            if (rowIndex != 0) {
+                throw new IllegalArgumentException("Excel file has no header row");
+            }
+            List<String> headers = new ArrayList<>(values.size());
+            for (String header : values) {
+                headers.add(header.trim());
+            }
+            schema = new RowSchema(headers);
+            return true;
+        }
+
+        String[] cells = new String[schema.getColumnCount()];
+        for (int i = 0; i < columns.size(); i++) {
+            int column = columns.get(i);
+            if (column >= 0 && column < cells.length) {
+                cells[column] = values.get(i);
+            }
+        }
+
+        Object[] rowValues = new Object[schema.size()];
+        for (int j = 0; j < cells.length; j++) {
+            rowValues[schema.columnSlot(j)] = cells[j] != null ? cells[j].trim() : "";
+        }
+        count++;
+        return sink.accept(new CompactRow(schema, rowValues), rowIndex + 1);
+    }
+
+    /**
+     * Fail the same way the DOM path does when the sheet had no rows at all
+     */
+    void finish() {
+        if (schema == null) {
+            throw new IllegalArgumentException("Excel file is empty");
+        }
+    }
+
+    int getCount() {
+        return count;
+    }
+}
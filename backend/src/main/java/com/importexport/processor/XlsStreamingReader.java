@@ -0,0 +1,252 @@
+package com.importexport.processor;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder.SheetRecordCollectingListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.model.HSSFFormulaParser;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.formula.ptg.ExpPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads the first sheet of a legacy .xls file with the HSSF record event model,
+ * so the workbook is never materialised as HSSFWorkbook/HSSFRow/HSSFCell objects.
+ * Cell values are rendered exactly like {@code ExcelProcessor.getCellValueAsString}.
+ */
+class XlsStreamingReader {
+
+    private static final short CONTINUE = 0;
+    private static final short ABORT = 1;
+
+    private final Path file;
+
+    XlsStreamingReader(Path file) {
+        this.file = file;
+    }
+
+    int read(RowSink sink) throws Exception {
+        SheetRowAssembler rows = new SheetRowAssembler(sink);
+        RecordListener listener = new RecordListener(rows);
+
+        try (POIFSFileSystem fs = new POIFSFileSystem(file.toFile(), true)) {
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(listener);
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+        } catch (HSSFUserException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+
+        if (!listener.aborted) {
+            rows.finish();
+        }
+        return rows.getCount();
+    }
+
+    private static class RecordListener extends AbortableHSSFListener {
+
+        private final SheetRowAssembler rows;
+        private final SheetRecordCollectingListener workbookBuilder =
+                new SheetRecordCollectingListener(record -> { });
+        private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(workbookBuilder);
+
+        private SSTRecord sst;
+        private boolean date1904;
+        private boolean inFirstSheet;
+        private boolean firstSheetSeen;
+        private int depth;
+        private boolean aborted;
+
+        // Rows announced by ROW records that have not been emitted yet, ascending
+        private final Deque<Integer> pendingRows = new ArrayDeque<>();
+        private int currentRow = -1;
+        private final List<Integer> rowColumns = new ArrayList<>();
+        private final List<String> rowValues = new ArrayList<>();
+        private final List<SharedFormulaRecord> sharedFormulas = new ArrayList<>();
+        private final List<PendingFormula> pendingFormulas = new ArrayList<>();
+
+        RecordListener(SheetRowAssembler rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public short abortableProcessRecord(org.apache.poi.hssf.record.Record record) throws HSSFUserException {
+            formats.processRecord(record);
+            try {
+                return handle(record) ? CONTINUE : abort();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new HSSFUserException(e);
+            }
+        }
+
+        private short abort() {
+            aborted = true;
+            return ABORT;
+        }
+
+        private boolean handle(org.apache.poi.hssf.record.Record record) throws Exception {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    depth++;
+                    if (depth == 1 && ((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET && !firstSheetSeen) {
+                        inFirstSheet = true;
+                        firstSheetSeen = true;
+                    }
+                    return true;
+                case EOFRecord.sid:
+                    depth--;
+                    if (depth == 0 && inFirstSheet) {
+                        // Only the first sheet is imported, skip the rest of the file
+                        if (!finishRow() || !emitPendingRowsBelow(Integer.MAX_VALUE)) {
+                            return false;
+                        }
+                        rows.finish();
+                        return false;
+                    }
+                    return true;
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    return true;
+                case DateWindow1904Record.sid:
+                    date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    return true;
+                case RowRecord.sid:
+                    if (inFirstSheet) {
+                        int rowNumber = ((RowRecord) record).getRowNumber();
+                        if (rowNumber != currentRow) {
+                            pendingRows.addLast(rowNumber);
+                        }
+                    }
+                    return true;
+                case SharedFormulaRecord.sid:
+                    if (inFirstSheet) {
+                        resolveSharedFormula((SharedFormulaRecord) record);
+                    }
+                    return true;
+                default:
+                    break;
+            }
+
+            if (!inFirstSheet || !(record instanceof CellValueRecordInterface)) {
+                return true;
+            }
+            CellValueRecordInterface cell = (CellValueRecordInterface) record;
+            if (cell.getRow() != currentRow) {
+                if (!finishRow() || !emitPendingRowsBelow(cell.getRow())) {
+                    return false;
+                }
+                currentRow = cell.getRow();
+                if (!pendingRows.isEmpty() && pendingRows.peekFirst() == currentRow) {
+                    pendingRows.removeFirst();
+                }
+            }
+            rowColumns.add((int) cell.getColumn());
+            rowValues.add(getCellValueAsString(record));
+            return true;
+        }
+
+        private String getCellValueAsString(org.apache.poi.hssf.record.Record record) {
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid:
+                    return sst.getString(((LabelSSTRecord) record).getSSTIndex()).getString();
+                case LabelRecord.sid:
+                    return ((LabelRecord) record).getValue();
+                case NumberRecord.sid:
+                    NumberRecord number = (NumberRecord) record;
+                    if (DateUtil.isValidExcelDate(number.getValue())
+                            && DateUtil.isADateFormat(formats.getFormatIndex(number), formats.getFormatString(number))) {
+                        return DateUtil.getJavaDate(number.getValue(), date1904).toString();
+                    }
+                    return String.valueOf(number.getValue());
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    return boolErr.isBoolean() ? String.valueOf(boolErr.getBooleanValue()) : "";
+                case FormulaRecord.sid:
+                    return getFormula((FormulaRecord) record);
+                default:
+                    return "";
+            }
+        }
+
+        private String getFormula(FormulaRecord formula) {
+            Ptg[] tokens = formula.getParsedExpression();
+            if (tokens.length == 1 && tokens[0] instanceof ExpPtg) {
+                ExpPtg master = (ExpPtg) tokens[0];
+                for (SharedFormulaRecord shared : sharedFormulas) {
+                    if (shared.isFirstCell(master.getRow(), master.getColumn())) {
+                        return toFormulaString(shared.getFormulaTokens(formula));
+                    }
+                }
+                // The SHRFMLA record follows the first cell of its range, resolve it then
+                pendingFormulas.add(new PendingFormula(rowValues.size(), master, formula));
+                return "";
+            }
+            return toFormulaString(tokens);
+        }
+
+        private void resolveSharedFormula(SharedFormulaRecord shared) {
+            sharedFormulas.add(shared);
+            Iterator<PendingFormula> pending = pendingFormulas.iterator();
+            while (pending.hasNext()) {
+                PendingFormula formula = pending.next();
+                if (shared.isFirstCell(formula.master.getRow(), formula.master.getColumn())) {
+                    rowValues.set(formula.index, toFormulaString(shared.getFormulaTokens(formula.record)));
+                    pending.remove();
+                }
+            }
+        }
+
+        private String toFormulaString(Ptg[] tokens) {
+            return HSSFFormulaParser.toFormulaString(workbookBuilder.getStubHSSFWorkbook(), tokens);
+        }
+
+        private boolean finishRow() throws Exception {
+            pendingFormulas.clear();
+            if (currentRow < 0) {
+                return true;
+            }
+            boolean keepReading = rows.row(currentRow, rowColumns, rowValues);
+            rowColumns.clear();
+            rowValues.clear();
+            return keepReading;
+        }
+
+        // ROW records without any cells still produce (empty) rows in the DOM model
+        private boolean emitPendingRowsBelow(int rowIndex) throws Exception {
+            List<Integer> none = List.of();
+            while (!pendingRows.isEmpty() && pendingRows.peekFirst() < rowIndex) {
+                int row = pendingRows.removeFirst();
+                if (row > currentRow && !rows.row(row, none, List.of())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class PendingFormula {
+
+        private final int index;
+        private final ExpPtg master;
+        private final FormulaRecord record;
+
+        PendingFormula(int index, ExpPtg master, FormulaRecord record) {
+            this.index = index;
+            this.master = master;
+            this.record = record;
+        }
+    }
+}
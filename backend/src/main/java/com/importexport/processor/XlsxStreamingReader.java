@@ -0,0 +1,280 @@
+package com.importexport.processor;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the first sheet of an .xlsx file with SAX over the raw sheet XML,
+ * so only the current row is held in memory instead of the whole workbook.
+ * Cell values are rendered exactly like {@code ExcelProcessor.getCellValueAsString}.
+ */
+class XlsxStreamingReader {
+
+    private final Path file;
+
+    XlsxStreamingReader(Path file) {
+        this.file = file;
+    }
+
+    int read(RowSink sink) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+            boolean date1904 = isDate1904(reader);
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IllegalArgumentException("Excel file is empty");
+            }
+
+            SheetRowAssembler rows = new SheetRowAssembler(sink);
+            SheetHandler handler = new SheetHandler(sharedStrings, styles, date1904, rows);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(sheet));
+                rows.finish();
+            } catch (StopReading e) {
+                // Sink asked to stop, rows delivered so far are kept
+            }
+            return rows.getCount();
+        }
+    }
+
+    private boolean isDate1904(XSSFReader reader) throws Exception {
+        WorkbookPropertiesHandler handler = new WorkbookPropertiesHandler();
+        try (InputStream workbook = reader.getWorkbookData()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(workbook));
+        } catch (StopReading e) {
+            // workbookPr found
+        }
+        return handler.date1904;
+    }
+
+    static int columnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static class StopReading extends SAXException {
+        StopReading() {
+            super("Reading stopped");
+        }
+    }
+
+    private static class WorkbookPropertiesHandler extends DefaultHandler {
+
+        private boolean date1904;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if ("workbookPr".equals(localName)) {
+                String value = attributes.getValue("date1904");
+                date1904 = "1".equals(value) || "true".equalsIgnoreCase(value);
+                throw new StopReading();
+            } else if ("sheets".equals(localName)) {
+                throw new StopReading();
+            }
+        }
+    }
+
+    private static class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final boolean date1904;
+        private final SheetRowAssembler rows;
+
+        private int rowIndex = -1;
+        private int columnIndex;
+        private final List<String> rowValues = new ArrayList<>();
+        private final List<Integer> rowColumns = new ArrayList<>();
+
+        private String cellType;
+        private int cellStyle;
+        private boolean hasFormula;
+        private final Map<String, String> sharedFormulas = new HashMap<>();
+        private String sharedFormulaIndex;
+        private final StringBuilder value = new StringBuilder();
+        private final StringBuilder formula = new StringBuilder();
+        private final StringBuilder inlineText = new StringBuilder();
+        private StringBuilder capture;
+        private boolean inPhonetic;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, boolean date1904, SheetRowAssembler rows) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.date1904 = date1904;
+            this.rows = rows;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                    columnIndex = -1;
+                    rowValues.clear();
+                    rowColumns.clear();
+                    break;
+                case "c":
+                    String reference = attributes.getValue("r");
+                    columnIndex = reference != null ? columnIndex(reference) : columnIndex + 1;
+                    cellType = attributes.getValue("t");
+                    String style = attributes.getValue("s");
+                    cellStyle = style != null ? Integer.parseInt(style) : 0;
+                    hasFormula = false;
+                    sharedFormulaIndex = null;
+                    value.setLength(0);
+                    formula.setLength(0);
+                    inlineText.setLength(0);
+                    break;
+                case "f":
+                    hasFormula = true;
+                    if ("shared".equals(attributes.getValue("t"))) {
+                        sharedFormulaIndex = attributes.getValue("si");
+                    }
+                    capture = formula;
+                    break;
+                case "v":
+                    capture = value;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                case "t":
+                    if (!inPhonetic) {
+                        capture = inlineText;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (capture != null) {
+                capture.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "f":
+                case "v":
+                case "t":
+                    capture = null;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "c":
+                    rowColumns.add(columnIndex);
+                    rowValues.add(getCellValueAsString());
+                    break;
+                case "row":
+                    endRow();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void endRow() throws SAXException {
+            try {
+                if (!rows.row(rowIndex, rowColumns, rowValues)) {
+                    throw new StopReading();
+                }
+            } catch (SAXException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new SAXException(e);
+            }
+        }
+
+        private String getCellValueAsString() {
+            if (hasFormula) {
+                String text = formula.toString();
+                if (sharedFormulaIndex != null) {
+                    if (!text.isEmpty()) {
+                        sharedFormulas.put(sharedFormulaIndex, text);
+                    } else {
+                        // Dependent cell of a shared formula: the DOM model shifts the
+                        // master formula, which needs the full workbook, so use the master text
+                        text = sharedFormulas.getOrDefault(sharedFormulaIndex, "");
+                    }
+                }
+                return text;
+            }
+
+            if (cellType == null || "n".equals(cellType)) {
+                if (value.length() == 0) {
+                    return "";
+                }
+                double number = Double.parseDouble(value.toString());
+                if (isDateFormatted(number)) {
+                    return DateUtil.getJavaDate(number, date1904).toString();
+                }
+                return String.valueOf(number);
+            }
+
+            switch (cellType) {
+                case "s":
+                    if (value.length() == 0) {
+                        return "";
+                    }
+                    return sharedStrings.getItemAt(Integer.parseInt(value.toString())).getString();
+                case "inlineStr":
+                    return inlineText.toString();
+                case "b":
+                    return String.valueOf("1".equals(value.toString()));
+                case "e":
+                    return "";
+                default:
+                    return value.toString();
+            }
+        }
+
+        private boolean isDateFormatted(double number) {
+            if (styles == null || cellStyle >= styles.getNumCellStyles()) {
+                return false;
+            }
+            XSSFCellStyle style = styles.getStyleAt(cellStyle);
+            return style != null
+                    && DateUtil.isValidExcelDate(number)
+                    && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        }
+    }
+}
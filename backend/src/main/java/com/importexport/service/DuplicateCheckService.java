@@ -0,0 +1,257 @@
+package com.importexport.service;
+
+import com.importexport.config.ValidationConfig;
+import com.importexport.dto.ValidationError;
+import com.importexport.export.ExportColumn;
+import com.importexport.export.ExportSchema;
+import com.importexport.validation.BloomFilter;
+import com.importexport.validation.DeferredCheck;
+import com.importexport.validation.FirstRowIndex;
+import com.importexport.validation.ValidationPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds values of unique fields that repeat within an import or already
+ * exist in the table, so they are reported as DUPLICATE_VALUE instead of
+ * failing a batch insert.
+ *
+ * Within the file, only two independent 64-bit hashes of each value are
+ * kept, in a {@link FirstRowIndex} per unique field, about 36 bytes per row
+ * and unique field however long the values are. The first occurrence of a
+ * value is queued for the table, and the queue is looked up with one IN
+ * query per {@link ValidationConfig#getLookupSize()} values. With
+ * the Bloom filter enabled, the existing keys are read once when the import
+ * starts and only values the filter may contain are queued. An empty table
+ * is never queried.
+ *
+ * Values are compared trimmed and case-sensitively, as they are stored.
+ * Two different values would have to collide on all 128 bits to be
+ * reported as duplicates.
+ */
+@Service
+public class DuplicateCheckService {
+
+    @Autowired
+    private KeyLookup keyLookup;
+
+    @Autowired
+    private ValidationConfig validationConfig;
+
+    /**
+     * @return a detector for one import, or null if the plan declares no unique fields
+     */
+    public Detector newDetector(String moduleType, ValidationPlan plan) {
+        ExportSchema schema = ExportSchema.forModule(moduleType);
+        if (plan == null || schema == null || plan.getUniqueFields().length == 0) {
+            return null;
+        }
+        String[] fields = plan.getUniqueFields();
+        UniqueKey[] keys = new UniqueKey[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            ExportColumn column = schema.getColumn(fields[i]);
+            if (column == null) {
+                throw new IllegalStateException("Unique field " + fields[i] + " is not a field of " + moduleType);
+            }
+            keys[i] = new UniqueKey(column, readExistingKeys(schema.getEntityClass(), column.getField()));
+        }
+        return new Detector(schema.getEntityClass(), keys);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars, finished with the MurmurHash3
+     * mixer so that every bit depends on every char. Both the hash map slots
+     * and the Bloom filter probes take bits of it directly.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Second hash to confirm a match on the first: a polynomial hash with an
+     * odd 64-bit multiplier, finished with a different mixer (Stafford's
+     * variant 13), so values colliding on one are not expected to collide on both
+     */
+    static long checkHash(String value) {
+        long hash = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash + value.charAt(i)) * 0xd6e8feb86659fd93L;
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return hash;
+    }
+
+    /**
+     * Read the existing values of a unique field into a Bloom filter, or
+     * only count them if the filter is disabled or the table is too large
+     */
+    private ExistingKeys readExistingKeys(Class<?> entityClass, String field) {
+        long rows = keyLookup.count(entityClass);
+        if (rows == 0) {
+            return ExistingKeys.NONE;
+        }
+        if (!validationConfig.isDuplicateBloomFilter() || rows > validationConfig.getBloomMaxKeys()) {
+            return ExistingKeys.UNKNOWN;
+        }
+
+        BloomFilter filter = new BloomFilter(rows, validationConfig.getBloomFalsePositiveRate());
+        keyLookup.forEachValue(entityClass, field, validationConfig.getLookupSize(), value -> filter.add(hash(value)));
+        return new ExistingKeys(filter);
+    }
+
+    /**
+     * What is known up front about the keys already in the table
+     */
+    private static final class ExistingKeys {
+
+        static final ExistingKeys NONE = new ExistingKeys(null);
+        static final ExistingKeys UNKNOWN = new ExistingKeys(null);
+
+        private final BloomFilter filter;
+
+        ExistingKeys(BloomFilter filter) {
+            this.filter = filter;
+        }
+
+        /**
+         * @return false if the value is certainly not in the table
+         */
+        boolean mightContain(long hash) {
+            return this != NONE && (filter == null || filter.mightContain(hash));
+        }
+    }
+
+    private static final class UniqueKey {
+
+        private final ExportColumn column;
+        private final ExistingKeys existing;
+        private final FirstRowIndex firstRows = new FirstRowIndex(1024);
+        // First occurrences still to be looked up in the table
+        private final List<String> pendingValues = new ArrayList<>();
+        private int[] pendingRows = new int[64];
+
+        UniqueKey(ExportColumn column, ExistingKeys existing) {
+            this.column = column;
+            this.existing = existing;
+        }
+
+        void queue(String value, int rowNumber) {
+            int index = pendingValues.size();
+            if (index == pendingRows.length) {
+                pendingRows = Arrays.copyOf(pendingRows, index * 2);
+            }
+            pendingRows[index] = rowNumber;
+            pendingValues.add(value);
+        }
+
+        void unqueue(int rowNumber) {
+            int last = pendingValues.size() - 1;
+            if (last >= 0 && pendingRows[last] == rowNumber) {
+                pendingValues.remove(last);
+            }
+        }
+    }
+
+    /**
+     * Duplicate detection for the rows of one import
+     */
+    public class Detector implements DeferredCheck {
+
+        private final Class<?> entityClass;
+        private final UniqueKey[] keys;
+        private int pending;
+
+        Detector(Class<?> entityClass, UniqueKey[] keys) {
+            this.entityClass = entityClass;
+            this.keys = keys;
+        }
+
+        /**
+         * Report a value seen on an earlier row, and queue the first
+         * occurrence of a value to be looked up in the table
+         */
+        @Override
+        public void check(Map<String, Object> row, int rowNumber, List<ValidationError> errors) {
+            for (UniqueKey key : keys) {
+                String value = KeyLookup.keyValue(row, key.column);
+                if (value == null) {
+                    continue;
+                }
+                long hash = hash(value);
+                int firstRow = key.firstRows.putIfAbsent(value, hash, checkHash(value), rowNumber);
+                if (firstRow != 0) {
+                    String field = key.column.getField();
+                    errors.add(new ValidationError(rowNumber, field, "DUPLICATE_VALUE",
+                            "Duplicate of row " + firstRow, value, "unique " + field));
+                } else if (key.existing.mightContain(hash)) {
+                    key.queue(value, rowNumber);
+                    pending++;
+                }
+            }
+        }
+
+        /**
+         * The values still count as seen within the file
+         */
+        @Override
+        public void discard(int rowNumber) {
+            for (UniqueKey key : keys) {
+                int before = key.pendingValues.size();
+                key.unqueue(rowNumber);
+                pending -= before - key.pendingValues.size();
+            }
+        }
+
+        @Override
+        public boolean isFull() {
+            return pending >= validationConfig.getLookupSize();
+        }
+
+        /**
+         * Look up the queued values in the table and report the ones found
+         */
+        @Override
+        public void resolve(List<ValidationError> errors) {
+            if (pending == 0) {
+                return;
+            }
+            int lookupSize = Math.max(1, validationConfig.getLookupSize());
+            for (UniqueKey key : keys) {
+                List<String> values = key.pendingValues;
+                String field = key.column.getField();
+                for (int from = 0; from < values.size(); from += lookupSize) {
+                    int to = Math.min(values.size(), from + lookupSize);
+                    Set<String> existing = keyLookup.findExisting(entityClass, field, values.subList(from, to));
+                    for (int i = from; i < to && !existing.isEmpty(); i++) {
+                        if (existing.contains(values.get(i))) {
+                            errors.add(new ValidationError(key.pendingRows[i], field, "DUPLICATE_VALUE",
+                                    "Value already exists", values.get(i), "unique " + field));
+                        }
+                    }
+                }
+                values.clear();
+            }
+            pending = 0;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.importexport.service;
+
+import com.importexport.dto.ValidationError;
+import com.importexport.entity.Camera;
+import com.importexport.entity.Robot;
+import com.importexport.entity.Task;
+import com.importexport.entity.User;
+import com.importexport.util.DateUtil;
+import jakarta.persistence.Column;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps validated rows onto module entities. Each field is looked up by its
+ * property name (JSON, camelCase headers) and then by its column name (the
+ * snake_case headers of the CSV templates). Blank values become null, and
+ * a missing active flag defaults to true.
+ *
+ * A mapped entity is then checked against its table and bean constraints,
+ * text longer than its column and values the entity's constraints reject,
+ * so that a row the insert would fail on is reported as a row error
+ * instead of failing its whole batch.
+ */
+@Component
+public class EntityRowMapper {
+
+    // Longer values are cut in error reports
+    private static final int MAX_REPORTED_LENGTH = 50;
+
+    @Autowired
+    private Validator validator;
+
+    // String fields and their column lengths, read from the mapping once per entity class
+    private final Map<Class<?>, List<TextColumn>> textColumns = new ConcurrentHashMap<>();
+
+    /**
+     * @return the entity for the row, or null if a value could not be converted
+     *         or violates a constraint, in which case the errors have been added
+     */
+    public Object toEntity(String moduleType, Map<String, Object> row, int rowNum, List<ValidationError> errors) {
+        Object entity;
+        try {
+            switch (moduleType.toLowerCase()) {
+                case "camera":
+                    entity = toCamera(row);
+                    break;
+                case "robot":
+                    entity = toRobot(row);
+                    break;
+                case "task":
+                    entity = toTask(row);
+                    break;
+                case "user":
+                    entity = toUser(row);
+                    break;
+                case "map":
+                    entity = toMap(row);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported module type: " + moduleType);
+            }
+        } catch (InvalidValueException e) {
+            errors.add(e.toValidationError(rowNum));
+            return null;
+        }
+
+        int errorCount = errors.size();
+        checkLengths(entity, rowNum, errors);
+        checkConstraints(entity, rowNum, errors);
+        return errors.size() == errorCount ? entity : null;
+    }
+
+    private void checkLengths(Object entity, int rowNum, List<ValidationError> errors) {
+        for (TextColumn column : textColumns.computeIfAbsent(entity.getClass(), EntityRowMapper::textColumns)) {
+            String value = column.get(entity);
+            // Column lengths count characters, a surrogate pair is one
+            if (value != null && value.length() > column.length
+                    && value.codePointCount(0, value.length()) > column.length) {
+                errors.add(new ValidationError(rowNum, column.field.getName(), "INVALID_LENGTH",
+                        "Value is longer than " + column.length + " characters", reported(value),
+                        "maximum " + column.length + " characters"));
+            }
+        }
+    }
+
+    private void checkConstraints(Object entity, int rowNum, List<ValidationError> errors) {
+        for (ConstraintViolation<Object> violation : validator.validate(entity)) {
+            Class<? extends Annotation> constraint =
+                    violation.getConstraintDescriptor().getAnnotation().annotationType();
+            String errorCode;
+            String expectedValue;
+            if (constraint == NotBlank.class || constraint == NotNull.class) {
+                errorCode = "REQUIRED";
+                expectedValue = "non-empty value";
+            } else if (constraint == Email.class) {
+                errorCode = "INVALID_EMAIL";
+                expectedValue = "valid email format";
+            } else {
+                errorCode = "INVALID_VALUE";
+                expectedValue = null;
+            }
+            Object value = violation.getInvalidValue();
+            errors.add(new ValidationError(rowNum, violation.getPropertyPath().toString(), errorCode,
+                    violation.getMessage(), value != null ? reported(value.toString()) : null, expectedValue));
+        }
+    }
+
+    private static String reported(String value) {
+        return value.length() > MAX_REPORTED_LENGTH ? value.substring(0, MAX_REPORTED_LENGTH) + "..." : value;
+    }
+
+    private static List<TextColumn> textColumns(Class<?> entityClass) {
+        List<TextColumn> columns = new ArrayList<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            Column column = field.getAnnotation(Column.class);
+            if (field.getType() == String.class && column != null) {
+                field.setAccessible(true);
+                columns.add(new TextColumn(field, column.length()));
+            }
+        }
+        return columns;
+    }
+
+    private Camera toCamera(Map<String, Object> row) {
+        Camera camera = new Camera();
+        camera.setName(text(row, "name", "name"));
+        camera.setType(text(row, "type", "type"));
+        camera.setIpAddress(text(row, "ipAddress", "ip_address"));
+        camera.setLocation(text(row, "location", "location"));
+        camera.setIsActive(active(row));
+        camera.setDescription(text(row, "description", "description"));
+        return camera;
+    }
+
+    private Robot toRobot(Map<String, Object> row) {
+        Robot robot = new Robot();
+        robot.setName(text(row, "name", "name"));
+        robot.setModel(text(row, "model", "model"));
+        robot.setSerialNumber(text(row, "serialNumber", "serial_number"));
+        robot.setManufacturer(text(row, "manufacturer", "manufacturer"));
+        robot.setIsActive(active(row));
+        robot.setDescription(text(row, "description", "description"));
+        return robot;
+    }
+
+    private Task toTask(Map<String, Object> row) {
+        Task task = new Task();
+        task.setName(text(row, "name", "name"));
+        task.setType(text(row, "type", "type"));
+        task.setPriority(integer(row, "priority", "priority"));
+        task.setStatus(text(row, "status", "status"));
+        task.setAssignedTo(text(row, "assignedTo", "assigned_to"));
+        task.setDueDate(date(row, "dueDate", "due_date"));
+        task.setIsActive(active(row));
+        task.setDescription(text(row, "description", "description"));
+        return task;
+    }
+
+    private User toUser(Map<String, Object> row) {
+        User user = new User();
+        user.setUsername(text(row, "username", "username"));
+        user.setEmail(text(row, "email", "email"));
+        user.setFirstName(text(row, "firstName", "first_name"));
+        user.setLastName(text(row, "lastName", "last_name"));
+        user.setRole(text(row, "role", "role"));
+        user.setDepartment(text(row, "department", "department"));
+        user.setIsActive(active(row));
+        return user;
+    }
+
+    private com.importexport.entity.Map toMap(Map<String, Object> row) {
+        com.importexport.entity.Map map = new com.importexport.entity.Map();
+        map.setName(text(row, "name", "name"));
+        map.setType(text(row, "type", "type"));
+        map.setResolution(decimal(row, "resolution", "resolution"));
+        map.setWidth(integer(row, "width", "width"));
+        map.setHeight(integer(row, "height", "height"));
+        map.setOriginX(decimal(row, "originX", "origin_x"));
+        map.setOriginY(decimal(row, "originY", "origin_y"));
+        map.setIsActive(active(row));
+        map.setDescription(text(row, "description", "description"));
+        return map;
+    }
+
+    private String text(Map<String, Object> row, String property, String column) {
+        Object value = row.get(property);
+        if (value == null && !property.equals(column)) {
+            value = row.get(column);
+        }
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private Integer integer(Map<String, Object> row, String property, String column) {
+        String value = text(row, property, column);
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new InvalidValueException(property, "INVALID_INTEGER", "Invalid integer value", value, "valid integer");
+        }
+    }
+
+    private Double decimal(Map<String, Object> row, String property, String column) {
+        String value = text(row, property, column);
+        try {
+            return value != null ? Double.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new InvalidValueException(property, "INVALID_DOUBLE", "Invalid decimal value", value, "valid decimal number");
+        }
+    }
+
+    private LocalDateTime date(Map<String, Object> row, String property, String column) {
+        String value = text(row, property, column);
+        try {
+            return DateUtil.parseDate(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidValueException(property, "INVALID_DATE", "Invalid date value", value, "2024-01-15 14:30:00");
+        }
+    }
+
+    private Boolean active(Map<String, Object> row) {
+        String value = text(row, "isActive", "is_active");
+        if (value == null) {
+            return Boolean.TRUE;
+        }
+        switch (value.toLowerCase()) {
+            case "true":
+            case "1":
+            case "yes":
+                return Boolean.TRUE;
+            case "false":
+            case "0":
+            case "no":
+                return Boolean.FALSE;
+            default:
+                throw new InvalidValueException("isActive", "INVALID_BOOLEAN", "Invalid boolean value", value,
+                        "true, false, 1, or 0");
+        }
+    }
+
+    private static final class TextColumn {
+
+        private final Field field;
+        private final int length;
+
+        TextColumn(Field field, int length) {
+            this.field = field;
+            this.length = length;
+        }
+
+        String get(Object entity) {
+            try {
+                return (String) field.get(entity);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class InvalidValueException extends IllegalArgumentException {
+
+        private final String field;
+        private final String errorCode;
+        private final String actualValue;
+        private final String expectedValue;
+
+        InvalidValueException(String field, String errorCode, String message, String actualValue, String expectedValue) {
+            super(message);
+            this.field = field;
+            this.errorCode = errorCode;
+            this.actualValue = actualValue;
+            this.expectedValue = expectedValue;
+        }
+
+        ValidationError toValidationError(int rowNum) {
+            return new ValidationError(rowNum, field, errorCode, getMessage(), actualValue, expectedValue);
+        }
+    }
+}
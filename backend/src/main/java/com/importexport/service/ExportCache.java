@@ -0,0 +1,334 @@
+package com.importexport.service;
+
+import com.importexport.config.ExportCacheConfig;
+import com.importexport.export.ExportPlan;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Keeps finished export files keyed by the normalized export request.
+ * Small files stay in heap, larger ones are spilled to disk while they are
+ * being written, and the least recently used entries are evicted once
+ * either budget is exceeded.
+ *
+ * Every module has a generation that an import bumps around each batch it
+ * writes. The bump drops the module's entries, an export is only cached
+ * if the generation did not move while it ran, and ETags include the
+ * generation, so neither the cache nor a client revalidation can serve
+ * rows from before an import.
+ */
+@Component
+public class ExportCache {
+
+    // The cache path may be shared, only files named like this belong to the cache
+    private static final String FILE_PREFIX = "export-";
+    private static final String FILE_SUFFIX = ".tmp";
+
+    // ETags from before a restart must not match, the generations start over
+    private final String epoch = UUID.randomUUID().toString();
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize;
+    private long diskSize;
+    private Path directory;
+
+    @Autowired
+    private ExportCacheConfig exportCacheConfig;
+
+    @PostConstruct
+    void createDirectory() throws IOException {
+        directory = Paths.get(exportCacheConfig.getCachePath());
+        Files.createDirectories(directory);
+        deleteFiles();
+    }
+
+    @PreDestroy
+    synchronized void clear() throws IOException {
+        entries.clear();
+        memorySize = 0;
+        diskSize = 0;
+        deleteFiles();
+    }
+
+    /**
+     * @return a strong ETag for what the plan exports at the current generation of its module
+     */
+    public String eTag(ExportPlan plan) {
+        String version = epoch + ':' + generation(plan.getRequest().getModuleType()).get() + ':' + plan.getCacheKey();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(version.getBytes(StandardCharsets.UTF_8));
+            return '"' + HexFormat.of().formatHex(hash, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Write the cached file of the plan, if there is one
+     * @return the number of rows in the file, or -1 if it is not cached
+     */
+    public long serve(ExportPlan plan, OutputStream outputStream) throws IOException {
+        Entry entry;
+        InputStream content;
+        synchronized (this) {
+            entry = entries.get(plan.getCacheKey());
+            if (entry == null) {
+                return -1;
+            }
+            // Opened under the lock, so eviction cannot delete the file first
+            content = entry.open();
+        }
+        try (InputStream in = content) {
+            in.transferTo(outputStream);
+        }
+        return entry.rowCount;
+    }
+
+    /**
+     * Wrap the response stream so that the bytes of the export are also
+     * recorded for the cache. The recording is only stored on commit.
+     */
+    public Recorder record(ExportPlan plan, OutputStream outputStream) {
+        return new Recorder(plan, outputStream);
+    }
+
+    /**
+     * Drop the cached exports of a module and move it to a new generation.
+     * Imports call this before and after every batch they write.
+     */
+    public void invalidate(String moduleType) {
+        generation(moduleType).incrementAndGet();
+        synchronized (this) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.moduleType.equals(moduleType)) {
+                    iterator.remove();
+                    release(entry);
+                }
+            }
+        }
+    }
+
+    private AtomicLong generation(String moduleType) {
+        return generations.computeIfAbsent(moduleType, key -> new AtomicLong());
+    }
+
+    private synchronized void store(String key, Entry entry, long generation) {
+        if (generation(entry.moduleType).get() != generation) {
+            // An import wrote to the module while the export ran
+            entry.delete();
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            release(previous);
+        }
+        if (entry.file != null) {
+            diskSize += entry.size;
+        } else {
+            memorySize += entry.size;
+        }
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((memorySize > exportCacheConfig.getMaxMemorySize() || diskSize > exportCacheConfig.getMaxDiskSize())
+                && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            release(evicted);
+        }
+    }
+
+    private void release(Entry entry) {
+        if (entry.file != null) {
+            diskSize -= entry.size;
+        } else {
+            memorySize -= entry.size;
+        }
+        entry.delete();
+    }
+
+    private void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String moduleType;
+        private final byte[] content;
+        private final Path file;
+        private final long size;
+        private final long rowCount;
+
+        Entry(String moduleType, byte[] content, Path file, long size, long rowCount) {
+            this.moduleType = moduleType;
+            this.content = content;
+            this.file = file;
+            this.size = size;
+            this.rowCount = rowCount;
+        }
+
+        InputStream open() throws IOException {
+            return file != null ? Files.newInputStream(file) : new ByteArrayInputStream(content);
+        }
+
+        void delete() {
+            if (file != null) {
+                try {
+                    // Readers that already opened the file keep reading it on POSIX file systems
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    file.toFile().deleteOnExit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the export through to the client and keeps a copy, in memory
+     * up to the spill threshold and in a file beyond it. A recording that
+     * grows past the maximum entry size is dropped and the export just
+     * continues to the client.
+     */
+    public final class Recorder extends OutputStream {
+
+        private final String key;
+        private final String moduleType;
+        private final long generation;
+        private final OutputStream target;
+        private ByteArrayOutputStream buffer;
+        private Path file;
+        private OutputStream fileOutput;
+        private long size;
+        private boolean recording;
+
+        private Recorder(ExportPlan plan, OutputStream target) {
+            this.key = plan.getCacheKey();
+            this.moduleType = plan.getRequest().getModuleType();
+            this.generation = generation(moduleType).get();
+            this.target = target;
+            this.recording = exportCacheConfig.isEnabled();
+            this.buffer = recording ? new ByteArrayOutputStream(8192) : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            target.write(bytes, offset, length);
+            if (!recording) {
+                return;
+            }
+            try {
+                size += length;
+                if (size > exportCacheConfig.getMaxEntrySize()) {
+                    discard();
+                } else if (fileOutput != null) {
+                    fileOutput.write(bytes, offset, length);
+                } else if (size > exportCacheConfig.getSpillThreshold()) {
+                    file = Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+                    fileOutput = Files.newOutputStream(file);
+                    buffer.writeTo(fileOutput);
+                    buffer = null;
+                    fileOutput.write(bytes, offset, length);
+                } else {
+                    buffer.write(bytes, offset, length);
+                }
+            } catch (IOException e) {
+                // The cache is best effort, the client still gets the export
+                discard();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        /**
+         * Store the recording once the export has been written completely
+         */
+        public void commit(long rowCount) {
+            if (!recording) {
+                return;
+            }
+            recording = false;
+            try {
+                Entry entry;
+                if (fileOutput != null) {
+                    fileOutput.close();
+                    entry = new Entry(moduleType, null, file, size, rowCount);
+                } else {
+                    entry = new Entry(moduleType, buffer.toByteArray(), null, size, rowCount);
+                }
+                file = null;
+                fileOutput = null;
+                buffer = null;
+                store(key, entry, generation);
+            } catch (IOException e) {
+                discard();
+            }
+        }
+
+        /**
+         * Drop the recording unless it has been committed. The target stream
+         * stays open, it belongs to the caller.
+         */
+        @Override
+        public void close() {
+            discard();
+        }
+
+        private void discard() {
+            recording = false;
+            buffer = null;
+            try {
+                if (fileOutput != null) {
+                    fileOutput.close();
+                }
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                if (file != null) {
+                    file.toFile().deleteOnExit();
+                }
+            }
+            fileOutput = null;
+            file = null;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.importexport.service;
+
+import com.importexport.config.ExportConfig;
+import com.importexport.dto.ExportJob;
+import com.importexport.export.ExportPlan;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports whose progress can be followed. A job is created from a checked
+ * plan, and the export runs on the thread that downloads the job's file,
+ * so the file still streams straight from the database to the client.
+ * Other requests poll the job or subscribe to its progress meanwhile.
+ *
+ * As for import jobs, a single publisher thread samples the jobs once per
+ * interval and sends SSE events only when something changed, so the
+ * exporting thread just stores counters.
+ */
+@Service
+public class ExportJobService {
+
+    private static final long EVENT_STREAM_TIMEOUT_MS = 30 * 60 * 1000;
+
+    @Autowired
+    private ExportConfig exportConfig;
+
+    @Autowired
+    private ImportExportService importExportService;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService progressPublisher;
+
+    @PostConstruct
+    void startPublisher() {
+        progressPublisher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "export-job-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(50, exportConfig.getProgressIntervalMs());
+        progressPublisher.scheduleAtFixedRate(this::publishProgress, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopPublisher() {
+        progressPublisher.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    public ExportJob create(ExportPlan plan) {
+        pruneExpiredJobs();
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), plan);
+        jobs.put(job.getJobId(), job);
+        return job;
+    }
+
+    public ExportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Write the file of a job started through {@link ExportJob#start()},
+     * recording its progress on the job
+     * @return Number of rows exported
+     * @throws IOException if the output cannot be written, the job has failed then
+     */
+    public long run(ExportJob job, OutputStream outputStream) throws IOException {
+        try {
+            long rows = importExportService.exportData(job.getPlan(), outputStream, new JobProgress(job));
+            job.complete(null);
+            return rows;
+        } catch (Throwable e) {
+            // Covers aborted downloads too, the client stopped reading
+            job.complete(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            throw e;
+        }
+    }
+
+    /**
+     * Stream "progress" events for the job until it finishes, then a final
+     * "complete" event
+     */
+    public SseEmitter subscribe(ExportJob job) {
+        SseEmitter emitter = new SseEmitter(EVENT_STREAM_TIMEOUT_MS);
+        Subscription subscription = new Subscription(job, emitter);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        // Send the current state right away instead of waiting for the next tick
+        progressPublisher.execute(() -> publish(subscription));
+        return emitter;
+    }
+
+    private void publishProgress() {
+        for (Subscription subscription : subscriptions) {
+            publish(subscription);
+        }
+    }
+
+    private void publish(Subscription subscription) {
+        ExportJob job = subscription.job;
+        try {
+            if (job.isFinished()) {
+                subscription.emitter.send(SseEmitter.event()
+                        .name("complete").id(job.getJobId()).data(job, MediaType.APPLICATION_JSON));
+                subscriptions.remove(subscription);
+                subscription.emitter.complete();
+                return;
+            }
+            String snapshot = job.getStage() + ':' + job.getRowsRead() + ':' + job.getRowsWritten() + ':'
+                    + job.getBytesWritten();
+            if (!snapshot.equals(subscription.lastSnapshot)) {
+                subscription.lastSnapshot = snapshot;
+                subscription.emitter.send(SseEmitter.event()
+                        .name("progress").id(job.getJobId()).data(job, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away
+            subscriptions.remove(subscription);
+        }
+    }
+
+    /**
+     * Finished jobs expire after the retention, and so do jobs whose file was never downloaded
+     */
+    private void pruneExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(exportConfig.getJobRetentionMinutes());
+        jobs.values().removeIf(job -> job.isFinished() ? job.getCompletedAt().isBefore(cutoff)
+                : job.getStartedAt() == null && job.getCreatedAt().isBefore(cutoff));
+    }
+
+    private static class Subscription {
+
+        private final ExportJob job;
+        private final SseEmitter emitter;
+        private String lastSnapshot;
+
+        Subscription(ExportJob job, SseEmitter emitter) {
+            this.job = job;
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Stores the counters on the job, the publisher picks them up on its next tick
+     */
+    private static class JobProgress implements ExportProgressListener {
+
+        private final ExportJob job;
+
+        JobProgress(ExportJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onStage(String stage) {
+            job.setStage(stage);
+        }
+
+        @Override
+        public void onRowsRead(long rowsRead) {
+            job.setRowsRead(rowsRead);
+        }
+
+        @Override
+        public void onRowsWritten(long rowsWritten) {
+            job.setRowsWritten(rowsWritten);
+        }
+
+        @Override
+        public void onBytesWritten(long bytesWritten) {
+            job.setBytesWritten(bytesWritten);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.importexport.service;
+
+/**
+ * Receives running counts while an export streams out of the database.
+ * Callbacks come from the exporting thread, most of them once per row or
+ * write, so implementations must only record the values and return.
+ */
+public interface ExportProgressListener {
+
+    ExportProgressListener NONE = new ExportProgressListener() { };
+
+    /**
+     * @param stage The pipeline stage now running, e.g. EXPORTING or FINISHING
+     */
+    default void onStage(String stage) {
+    }
+
+    /**
+     * @param rowsRead Rows fetched from the database so far
+     */
+    default void onRowsRead(long rowsRead) {
+    }
+
+    /**
+     * @param rowsWritten Rows handed to the file writer so far
+     */
+    default void onRowsWritten(long rowsWritten) {
+    }
+
+    /**
+     * @param bytesWritten Bytes of the file sent to the client so far
+     */
+    default void onBytesWritten(long bytesWritten) {
+    }
+}
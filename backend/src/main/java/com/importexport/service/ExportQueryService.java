@@ -0,0 +1,182 @@
+package com.importexport.service;
+
+import com.importexport.config.ExportConfig;
+import com.importexport.dto.ExportRequest;
+import com.importexport.export.ExportColumn;
+import com.importexport.export.ExportPlan;
+import com.importexport.export.RowWriter;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ExportQueryService {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExportConfig exportConfig;
+
+    /**
+     * Walk the rows of the export in keyset pages and hand each row to the
+     * writer. Rows are ordered by the sort field, nulls first, then by id,
+     * and every page continues after the (sort value, id) of the last row
+     * of the page before, so no page costs more than the first one, however
+     * deep into the table it is.
+     *
+     * Each page is read in its own short read-only transaction on a
+     * stateless session, and the rows are written after the connection has
+     * gone back to the pool. A slow client therefore never holds a
+     * connection or a snapshot, and memory stays at one page of rows.
+     * @return Number of rows written
+     */
+    public long export(ExportPlan plan, RowWriter writer) throws IOException {
+        return export(plan, writer, ExportProgressListener.NONE);
+    }
+
+    /**
+     * Export as above, reporting the rows read after each page and the rows
+     * written after each row
+     * @return Number of rows written
+     */
+    public long export(ExportPlan plan, RowWriter writer, ExportProgressListener listener) throws IOException {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        int columnCount = plan.getColumns().size();
+        int pageSize = Math.max(1, exportConfig.getPageSize());
+        String sortBy = sortField(plan.getRequest());
+
+        Object[] values = new Object[columnCount];
+        Keyset last = null;
+        long count = 0;
+        while (true) {
+            List<Tuple> page = readPage(sessionFactory, plan, sortBy, last, pageSize);
+            listener.onRowsRead(count + page.size());
+            for (Tuple row : page) {
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = row.get(i);
+                }
+                writer.writeRow(values);
+                listener.onRowsWritten(++count);
+            }
+            if (page.size() < pageSize) {
+                return count;
+            }
+            // The key columns are selected after the exported ones
+            Tuple lastRow = page.get(page.size() - 1);
+            last = new Keyset(lastRow.get(columnCount), (Long) lastRow.get(columnCount + 1));
+        }
+    }
+
+    private List<Tuple> readPage(SessionFactory sessionFactory, ExportPlan plan, String sortBy, Keyset after,
+                                 int pageSize) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                List<Tuple> page = session.createQuery(createQuery(session.getCriteriaBuilder(), plan, sortBy, after))
+                        .setMaxResults(pageSize)
+                        .setFetchSize(pageSize)
+                        .setReadOnly(true)
+                        .getResultList();
+                transaction.commit();
+                return page;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CriteriaQuery<Tuple> createQuery(HibernateCriteriaBuilder cb, ExportPlan plan, String sortBy,
+                                             Keyset after) {
+        ExportRequest request = plan.getRequest();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(plan.getSchema().getEntityClass());
+        Expression sortKey = root.get(sortBy);
+        Expression<Long> id = root.get("id");
+
+        List<Selection<?>> selections = new ArrayList<>(plan.getColumns().size() + 2);
+        for (ExportColumn column : plan.getColumns()) {
+            selections.add(root.get(column.getField()));
+        }
+        selections.add(sortKey);
+        selections.add(id);
+        query.multiselect(selections);
+
+        // Filtering runs in the database, where it can use indexes
+        List<Predicate> predicates = new ArrayList<>(3);
+        if (!request.isIncludeInactive()) {
+            predicates.add(cb.isTrue(root.get("isActive")));
+        }
+        if (plan.getFilter() != null) {
+            predicates.add(plan.getFilter().toPredicate(cb, root));
+        }
+
+        boolean descending = "DESC".equalsIgnoreCase(request.getSortOrder());
+        if (after != null) {
+            predicates.add(after(cb, sortKey, id, after, descending, "id".equals(sortBy)));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        // Nulls first in both directions, the keyset predicate relies on it
+        List<Order> orders = new ArrayList<>(2);
+        orders.add(descending ? cb.desc(sortKey, true) : cb.asc(sortKey, true));
+        if (!"id".equals(sortBy)) {
+            orders.add(cb.asc(id));
+        }
+        query.orderBy(orders);
+        return query;
+    }
+
+    /**
+     * Rows that come after the given key in (sort value nulls first, id) order
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate after(HibernateCriteriaBuilder cb, Expression sortKey, Expression<Long> id, Keyset after,
+                            boolean descending, boolean sortedById) {
+        if (sortedById) {
+            return descending ? cb.lessThan(id, after.id) : cb.greaterThan(id, after.id);
+        }
+        if (after.sortValue == null) {
+            return cb.or(cb.and(cb.isNull(sortKey), cb.greaterThan(id, after.id)), cb.isNotNull(sortKey));
+        }
+        Comparable sortValue = (Comparable) after.sortValue;
+        Predicate beyond = descending ? cb.lessThan(sortKey, sortValue) : cb.greaterThan(sortKey, sortValue);
+        return cb.or(beyond, cb.and(cb.equal(sortKey, sortValue), cb.greaterThan(id, after.id)));
+    }
+
+    private static String sortField(ExportRequest request) {
+        String sortBy = request.getSortBy();
+        return sortBy != null && !sortBy.isBlank() ? sortBy : "id";
+    }
+
+    private static final class Keyset {
+
+        private final Object sortValue;
+        private final Long id;
+
+        Keyset(Object sortValue, Long id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+    }
+}
@@ -2,28 +2,53 @@ package com.importexport.service;
 
 import com.importexport.config.FileUploadConfig;
 import com.importexport.dto.FileMetadata;
+import com.importexport.exception.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class FileService {
 
+    private static final Logger log = LoggerFactory.getLogger(FileService.class);
+
+    private static final int CHUNK_BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private FileUploadConfig fileUploadConfig;
 
+    // Content-addressed files are shared by the imports using them, each holds a reference
+    private final Map<String, Integer> references = new ConcurrentHashMap<>();
+
+    /**
+     * Save an upload under its content address. The content is hashed while
+     * it is copied, and an upload whose content is stored already is dropped
+     * in favour of the stored copy. The caller holds a reference on the
+     * stored file, see {@link #release(String)}.
+     */
     public FileMetadata saveFile(MultipartFile file, String moduleType, String uploadedBy) throws IOException {
-        // Generate unique filename
         String originalFilename = file.getOriginalFilename();
         String fileExtension = getFileExtension(originalFilename);
-        String uniqueFilename = UUID.randomUUID().toString() + "." + fileExtension;
 
         // Create upload directory if it doesn't exist
         Path uploadPath = Paths.get(fileUploadConfig.getUploadPath());
@@ -31,13 +56,19 @@ public class FileService {
             Files.createDirectories(uploadPath);
         }
 
-        // Save file
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Save file, hashing it on the way
+        Path tempFile = Files.createTempFile(uploadPath, "upload-", ".tmp");
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
 
         // Create file metadata
         FileMetadata metadata = new FileMetadata(
-                uniqueFilename,
+                tempFile.getFileName().toString(),
                 fileExtension,
                 file.getSize(),
                 file.getContentType(),
@@ -45,7 +76,144 @@ public class FileService {
                 moduleType
         );
 
-        return metadata;
+        return storeFile(metadata, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Move a file of the upload directory to its content address,
+     * {sha-256}.{extension}. If that content is stored already, the file is
+     * deleted and the stored copy is used. The caller holds a reference on
+     * the stored file, see {@link #release(String)}.
+     * @param checksum Hex SHA-256 of the file
+     * @return Metadata of the stored file
+     */
+    public FileMetadata storeFile(FileMetadata file, String checksum) throws IOException {
+        String storedFilename = file.getFileType().isEmpty() ? checksum : checksum + "." + file.getFileType();
+        Path source = getFilePath(file.getFileName());
+        Path target = getFilePath(storedFilename);
+        try {
+            // Serialized with release of the same name, so the stored copy cannot be deleted in between
+            references.compute(storedFilename, (name, count) -> {
+                try {
+                    if (Files.exists(target)) {
+                        Files.delete(source);
+                    } else {
+                        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count == null ? 1 : count + 1;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        FileMetadata stored = new FileMetadata(storedFilename, file.getFileType(), file.getFileSize(),
+                file.getContentType(), file.getUploadedBy(), file.getModuleType());
+        stored.setChecksum(checksum);
+        return stored;
+    }
+
+    /**
+     * Take another reference on a stored file
+     */
+    public void retain(String filename) {
+        references.merge(filename, 1, Integer::sum);
+    }
+
+    /**
+     * Give up a reference on a stored file. Once nothing references it
+     * anymore, the file is deleted, unless uploads are configured to be kept.
+     */
+    public void release(String filename) {
+        references.computeIfPresent(filename, (name, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            if (fileUploadConfig.isKeepUploads()) {
+                return null;
+            }
+            try {
+                Files.deleteIfExists(getFilePath(name));
+            } catch (IOException e) {
+                log.warn("Could not delete released upload {}: {}", name, e.toString());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Create an empty file of the given size in the upload directory, for
+     * chunks to be written into at their offsets
+     * @return Metadata of the file, under a new unique name
+     */
+    public FileMetadata createFile(String originalFilename, long fileSize, String moduleType) throws IOException {
+        String fileExtension = getFileExtension(originalFilename);
+        String uniqueFilename = UUID.randomUUID().toString() + "." + fileExtension;
+
+        Path uploadPath = Paths.get(fileUploadConfig.getUploadPath());
+        if (!Files.exists(uploadPath)) {
+            Files.createDirectories(uploadPath);
+        }
+
+        try (FileChannel channel = FileChannel.open(uploadPath.resolve(uniqueFilename),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (fileSize > 0) {
+                // Sizes the file up front, the file system does not have to fill the gap
+                channel.write(ByteBuffer.allocate(1), fileSize - 1);
+            }
+        }
+
+        return new FileMetadata(uniqueFilename, fileExtension, fileSize, null, null, moduleType);
+    }
+
+    /**
+     * Copy a chunk into a file created by {@link #createFile} at the given
+     * offset. Positional writes leave the rest of the file alone, so chunks
+     * can be written in any order and concurrently.
+     * @param maxLength The most bytes the chunk may have
+     * @return Number of bytes written. If reading the chunk fails, the bytes
+     *         written up to then are reported through the exception's
+     *         {@link ChunkWriteException#getBytesWritten()}
+     * @throws ValidationException if the chunk is longer
+     */
+    public long writeChunk(String filename, long offset, InputStream chunk, long maxLength) throws IOException {
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(getFilePath(filename), StandardOpenOption.WRITE)) {
+            byte[] bytes = new byte[CHUNK_BUFFER_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int read;
+            while ((read = chunk.read(bytes)) != -1) {
+                if (written + read > maxLength) {
+                    throw new ValidationException("Chunk is longer than " + maxLength + " bytes");
+                }
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, offset + written + buffer.position());
+                }
+                written += read;
+            }
+        } catch (IOException e) {
+            throw new ChunkWriteException(e.getMessage(), written);
+        }
+        return written;
+    }
+
+    /**
+     * @return the lowercase hex SHA-256 of a file in the upload directory
+     */
+    public String checksum(String filename) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(getFilePath(filename), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
     public void deleteFile(String filename) throws IOException {
@@ -59,10 +227,41 @@ public class FileService {
         return Paths.get(fileUploadConfig.getUploadPath()).resolve(filename);
     }
 
+    /**
+     * @return a new SHA-256 digest
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private String getFileExtension(String filename) {
         if (filename == null || !filename.contains(".")) {
             return "";
         }
         return filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
     }
-}
\ No newline at end of file
+
+    /**
+     * A chunk could not be written completely
+     */
+    public static class ChunkWriteException extends IOException {
+
+        private final long bytesWritten;
+
+        ChunkWriteException(String message, long bytesWritten) {
+            super(message);
+            this.bytesWritten = bytesWritten;
+        }
+
+        /**
+         * @return the bytes at the start of the chunk that did reach the file
+         */
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+}
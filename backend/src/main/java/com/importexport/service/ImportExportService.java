@@ -1,11 +1,16 @@
 package com.importexport.service;
 
 import com.importexport.dto.ExportRequest;
+import com.importexport.dto.FileMetadata;
 import com.importexport.dto.ImportRequest;
 import com.importexport.dto.ImportResponse;
+import com.importexport.exception.ValidationException;
+import com.importexport.export.ExportPlan;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 public interface ImportExportService {
 
@@ -18,19 +23,74 @@ public interface ImportExportService {
     ImportResponse importData(MultipartFile file, ImportRequest request);
 
     /**
-     * Export data to specified format
+     * Import an upload that has already been saved through FileService.
+     * The caller keeps its reference on the saved file and releases it
+     * once the import returns or fails.
+     * @param upload Metadata of the saved upload
+     * @param request Import request parameters
+     * @param listener Receives running counts while rows are processed
+     * @return Import response with results
+     */
+    ImportResponse importFile(FileMetadata upload, ImportRequest request, ImportProgressListener listener);
+
+    /**
+     * Import a file while it is still being received. Rows are parsed and
+     * validated as the bytes arrive, and the bytes are saved through
+     * FileService as they are read. Formats that need the whole file are
+     * received first and imported afterwards.
+     * @param body The raw file content
+     * @param contentLength Size of the body if the client declared it, otherwise -1
+     * @param request Import request parameters, the file name selects the format
+     * @return Import response with results
+     */
+    ImportResponse importStream(InputStream body, long contentLength, ImportRequest request);
+
+    /**
+     * Check an export request and resolve its columns and file format
      * @param request Export request parameters
-     * @return InputStream of the exported file
+     * @return The plan to pass to exportData
+     * @throws ValidationException if the request cannot be exported
+     */
+    ExportPlan planExport(ExportRequest request);
+
+    /**
+     * Get the strong ETag of the file an export plan produces. It changes
+     * whenever an import writes to the module.
+     * @param plan The checked export request
+     * @return The quoted ETag
+     */
+    String getExportETag(ExportPlan plan);
+
+    /**
+     * Export data to the specified format, streaming rows into the output
+     * as they are read from the database, or from the export cache when
+     * the same export has been produced since the last import
+     * @param plan The checked export request
+     * @param outputStream The stream to write the file to, left open
+     * @return Number of rows exported
+     * @throws IOException if the output cannot be written
+     */
+    long exportData(ExportPlan plan, OutputStream outputStream) throws IOException;
+
+    /**
+     * Export as above, reporting the stage, the rows read and written and
+     * the bytes sent as the export runs
+     * @param plan The checked export request
+     * @param outputStream The stream to write the file to, left open
+     * @param listener Receives the progress of the export
+     * @return Number of rows exported
+     * @throws IOException if the output cannot be written
      */
-    InputStream exportData(ExportRequest request);
+    long exportData(ExportPlan plan, OutputStream outputStream, ExportProgressListener listener) throws IOException;
 
     /**
-     * Get template file for the specified module
+     * Get template file for the specified module, rendered at startup
      * @param moduleType The module type
-     * @param fileFormat The file format
-     * @return InputStream of the template file
+     * @param fileFormat The file format, csv or xlsx
+     * @return The template file
+     * @throws com.importexport.exception.ValidationException if there is no such template
      */
-    InputStream getTemplate(String moduleType, String fileFormat);
+    TemplateRegistry.Template getTemplate(String moduleType, String fileFormat);
 
     /**
      * Validate file format and size
@@ -0,0 +1,273 @@
+package com.importexport.service;
+
+import com.importexport.config.ImportJobConfig;
+import com.importexport.dto.FileMetadata;
+import com.importexport.dto.ImportJob;
+import com.importexport.dto.ImportRequest;
+import com.importexport.dto.ImportResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs imports in the background. The upload is saved on the request thread,
+ * because the multipart file does not outlive the request, and everything else
+ * happens on a bounded worker pool. Jobs stay pollable by id until they have
+ * been finished for longer than the configured retention.
+ *
+ * Progress is streamed to SSE subscribers by a single publisher thread that
+ * samples the jobs once per interval and only sends when something changed.
+ * The import thread just stores counters, so it is never slowed by clients.
+ */
+@Service
+public class ImportJobService {
+
+    private static final long EVENT_STREAM_TIMEOUT_MS = 30 * 60 * 1000;
+
+    @Autowired
+    private ImportJobConfig importJobConfig;
+
+    @Autowired
+    private ImportExportService importExportService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ImportResultStore importResultStore;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService progressPublisher;
+
+    @PostConstruct
+    void startExecutor() {
+        int poolSize = Math.max(1, importJobConfig.getPoolSize());
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, importJobConfig.getQueueCapacity())),
+                task -> new Thread(task, "import-job-" + threadCount.incrementAndGet()));
+
+        progressPublisher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "import-job-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(50, importJobConfig.getProgressIntervalMs());
+        progressPublisher.scheduleAtFixedRate(this::publishProgress, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+        progressPublisher.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    public ImportJob submit(MultipartFile file, ImportRequest request) {
+        pruneFinishedJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), request.getModuleType(),
+                file.getOriginalFilename(), file.getSize());
+        jobs.put(job.getJobId(), job);
+
+        if (!importExportService.validateFile(file)) {
+            job.complete(new ImportResponse("ERROR", "Invalid file format or size", 0, 0, 0));
+            return job;
+        }
+
+        FileMetadata upload;
+        try {
+            upload = fileService.saveFile(file, request.getModuleType(), null);
+        } catch (IOException e) {
+            job.complete(new ImportResponse("ERROR", "Import failed: " + e.getMessage(), 0, 0, 0));
+            return job;
+        }
+
+        return execute(job, upload, request);
+    }
+
+    /**
+     * Queue the import of a file stored through FileService. The job takes
+     * over the caller's reference on the file.
+     */
+    public ImportJob submit(FileMetadata upload, ImportRequest request) {
+        pruneFinishedJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), request.getModuleType(),
+                request.getFileName(), upload.getFileSize());
+        jobs.put(job.getJobId(), job);
+        return execute(job, upload, request);
+    }
+
+    /**
+     * Queue the import, unless the same file was submitted with the same
+     * options before. Then the job of that import is returned if it can
+     * still be polled, otherwise this job takes over its response.
+     */
+    private ImportJob execute(ImportJob job, FileMetadata upload, ImportRequest request) {
+        if (!request.isForce()) {
+            ImportResultStore.Record previous = importResultStore.begin(upload, request, job);
+            if (previous != null) {
+                fileService.release(upload.getFileName());
+                if (previous.getJob() != null && jobs.containsKey(previous.getJob().getJobId())) {
+                    jobs.remove(job.getJobId());
+                    return previous.getJob();
+                }
+                previous.getResult().thenAccept(job::complete);
+                return job;
+            }
+        }
+
+        try {
+            executor.execute(() -> {
+                ImportResponse response;
+                try {
+                    job.start();
+                    response = importExportService.importFile(upload, request, new JobProgress(job));
+                } catch (Throwable e) {
+                    // The job and submissions waiting on the same file still need an answer
+                    response = new ImportResponse("ERROR", "Import failed: " + e.getMessage(), 0, 0, 0);
+                } finally {
+                    fileService.release(upload.getFileName());
+                }
+                importResultStore.finish(upload, request, response);
+                job.complete(response);
+            });
+        } catch (RejectedExecutionException e) {
+            ImportResponse response = new ImportResponse("ERROR", "Import queue is full, try again later", 0, 0, 0);
+            importResultStore.finish(upload, request, response);
+            fileService.release(upload.getFileName());
+            job.complete(response);
+        }
+        return job;
+    }
+
+    public ImportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Stream "progress" events for the job until it finishes, then a final
+     * "complete" event carrying the import response
+     */
+    public SseEmitter subscribe(ImportJob job) {
+        SseEmitter emitter = new SseEmitter(EVENT_STREAM_TIMEOUT_MS);
+        Subscription subscription = new Subscription(job, emitter);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        // Send the current state right away instead of waiting for the next tick
+        progressPublisher.execute(() -> publish(subscription));
+        return emitter;
+    }
+
+    private void publishProgress() {
+        for (Subscription subscription : subscriptions) {
+            publish(subscription);
+        }
+    }
+
+    private void publish(Subscription subscription) {
+        ImportJob job = subscription.job;
+        try {
+            if (job.isFinished()) {
+                subscription.emitter.send(SseEmitter.event()
+                        .name("complete").id(job.getJobId()).data(job, MediaType.APPLICATION_JSON));
+                subscriptions.remove(subscription);
+                subscription.emitter.complete();
+                return;
+            }
+            String snapshot = progressSnapshot(job);
+            if (!snapshot.equals(subscription.lastSnapshot)) {
+                subscription.lastSnapshot = snapshot;
+                subscription.emitter.send(SseEmitter.event()
+                        .name("progress").id(job.getJobId()).data(job, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private String progressSnapshot(ImportJob job) {
+        return job.getStage() + ':' + job.getProcessedRecords() + ':' + job.getValidatedRecords() + ':'
+                + job.getPersistedRecords() + ':' + job.getErrorCount() + ':' + job.getBytesRead();
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(importJobConfig.getRetentionMinutes());
+        jobs.values().removeIf(job -> job.isFinished() && job.getCompletedAt().isBefore(cutoff));
+    }
+
+    private static class Subscription {
+
+        private final ImportJob job;
+        private final SseEmitter emitter;
+        private String lastSnapshot;
+
+        Subscription(ImportJob job, SseEmitter emitter) {
+            this.job = job;
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Stores the counters on the job, the publisher picks them up on its next tick
+     */
+    private static class JobProgress implements ImportProgressListener {
+
+        private final ImportJob job;
+
+        JobProgress(ImportJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onStage(String stage) {
+            job.setStage(stage);
+        }
+
+        @Override
+        public void onRowsParsed(int rowsParsed) {
+            job.setProcessedRecords(rowsParsed);
+        }
+
+        @Override
+        public void onBytesRead(long bytesRead) {
+            job.setBytesRead(bytesRead);
+        }
+
+        @Override
+        public void onRowsValidated(int rowsValidated, int failedRecords, int errorCount) {
+            job.setValidatedRecords(rowsValidated, failedRecords, errorCount);
+        }
+
+        @Override
+        public void onRowsPersisted(int rowsPersisted) {
+            job.setPersistedRecords(rowsPersisted);
+        }
+    }
+}
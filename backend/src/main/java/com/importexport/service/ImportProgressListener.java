@@ -0,0 +1,43 @@
+package com.importexport.service;
+
+/**
+ * Receives running counts while an import or validation streams through a file.
+ * Callbacks come from the importing thread, most of them once per row, so
+ * implementations must only record the values and return.
+ */
+public interface ImportProgressListener {
+
+    ImportProgressListener NONE = new ImportProgressListener() { };
+
+    /**
+     * @param stage The pipeline stage now running, e.g. VALIDATING or IMPORTING
+     */
+    default void onStage(String stage) {
+    }
+
+    /**
+     * @param rowsParsed Rows read from the file so far
+     */
+    default void onRowsParsed(int rowsParsed) {
+    }
+
+    /**
+     * @param bytesRead Bytes of the file consumed so far
+     */
+    default void onBytesRead(long bytesRead) {
+    }
+
+    /**
+     * @param rowsValidated Rows that have been through validation
+     * @param failedRecords Rows rejected so far
+     * @param errorCount Validation errors reported so far
+     */
+    default void onRowsValidated(int rowsValidated, int failedRecords, int errorCount) {
+    }
+
+    /**
+     * @param rowsPersisted Rows written to the database so far
+     */
+    default void onRowsPersisted(int rowsPersisted) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.importexport.service;
+
+import com.importexport.config.ImportJobConfig;
+import com.importexport.dto.FileMetadata;
+import com.importexport.dto.ImportJob;
+import com.importexport.dto.ImportRequest;
+import com.importexport.dto.ImportResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Results of imports keyed by module, content hash and import options, so
+ * that the same file submitted again with the same options gets the earlier
+ * result, or joins the import still running, instead of being imported
+ * twice. A result holds a reference on its stored file and both are
+ * forgotten once the result is older than the job retention. Only results
+ * of imports that wrote rows are kept. Failed imports (status ERROR) and
+ * imports rejected before writing anything can simply be retried, and
+ * validation-only runs are never kept either: like a rejection, their
+ * result depends on the rows already in the tables, which the next import
+ * may change.
+ */
+@Service
+public class ImportResultStore {
+
+    @Autowired
+    private ImportJobConfig importJobConfig;
+
+    @Autowired
+    private FileService fileService;
+
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+
+    /**
+     * Register an import about to run. If it is registered, the caller has
+     * to report its response through {@link #finish}. Validation-only runs
+     * are not registered and always run.
+     * @param job The job running the import, or null for a synchronous import
+     * @return null if the import should run, otherwise the record of an
+     *         identical import, finished or still running
+     */
+    public Record begin(FileMetadata upload, ImportRequest request, ImportJob job) {
+        pruneExpiredRecords();
+        if (request.isValidateOnly()) {
+            return null;
+        }
+
+        Record record = new Record(upload.getFileName(), job);
+        Record existing = records.putIfAbsent(key(upload, request), record);
+        if (existing != null) {
+            return existing;
+        }
+        fileService.retain(upload.getFileName());
+        return null;
+    }
+
+    /**
+     * Record the response of an import registered by {@link #begin}
+     */
+    public void finish(FileMetadata upload, ImportRequest request, ImportResponse response) {
+        String key = key(upload, request);
+        Record record = records.get(key);
+        if (record == null) {
+            return;
+        }
+        if ("ERROR".equals(response.getStatus()) || response.getSuccessfulRecords() == 0) {
+            records.remove(key, record);
+            fileService.release(record.fileName);
+        } else {
+            record.completedAt = LocalDateTime.now();
+        }
+        record.result.complete(response);
+    }
+
+    /**
+     * Wait for the response of an identical import, for at most the
+     * configured wait
+     * @return the response, or an ERROR response if the import is still running
+     */
+    public ImportResponse await(Record record) throws InterruptedException, ExecutionException {
+        try {
+            return record.result.get(importJobConfig.getWaitMinutes(), TimeUnit.MINUTES);
+        } catch (TimeoutException e) {
+            return new ImportResponse("ERROR", "The same file is still being imported, try again later", 0, 0, 0);
+        }
+    }
+
+    /**
+     * Record the response of an import that could not be registered before
+     * it ran, because its content was only known at the end
+     */
+    public void record(FileMetadata upload, ImportRequest request, ImportResponse response) {
+        if (begin(upload, request, null) == null) {
+            finish(upload, request, response);
+        }
+    }
+
+    private void pruneExpiredRecords() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(importJobConfig.getRetentionMinutes());
+        records.values().removeIf(record -> {
+            boolean expired = record.completedAt != null && record.completedAt.isBefore(cutoff);
+            if (expired) {
+                fileService.release(record.fileName);
+            }
+            return expired;
+        });
+    }
+
+    private static String key(FileMetadata upload, ImportRequest request) {
+        return request.getModuleType() + '|' + upload.getChecksum() + '|' + request.isSkipErrors() + '|'
+                + request.getBatchSize();
+    }
+
+    /**
+     * An import of a file with given options, running or finished
+     */
+    public static class Record {
+
+        private final String fileName;
+        private final ImportJob job;
+        private final CompletableFuture<ImportResponse> result = new CompletableFuture<>();
+        private volatile LocalDateTime completedAt;
+
+        Record(String fileName, ImportJob job) {
+            this.fileName = fileName;
+            this.job = job;
+        }
+
+        /**
+         * @return the job running the import, or null if it was imported synchronously
+         */
+        public ImportJob getJob() {
+            return job;
+        }
+
+        /**
+         * @return the response, completed when the import finishes
+         */
+        public CompletableFuture<ImportResponse> getResult() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.importexport.service;
+
+import jakarta.persistence.Table;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells from the JDBC metadata whether a column leads an index, which is
+ * what a keyset walk ordered by that column needs to avoid sorting the
+ * whole table for every page. Answers are cached per table and column.
+ */
+@Component
+public class IndexInspector {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final Map<String, Boolean> indexedColumns = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if an index starts with the column, or if the metadata
+     *         cannot be read, in which case nothing is reported
+     */
+    public boolean isIndexed(Class<?> entityClass, String columnName) {
+        Table table = entityClass.getAnnotation(Table.class);
+        String tableName = table != null && !table.name().isEmpty() ? table.name() : entityClass.getSimpleName();
+        return indexedColumns.computeIfAbsent(tableName + '.' + columnName,
+                key -> leadsIndex(tableName, columnName));
+    }
+
+    private boolean leadsIndex(String tableName, String columnName) {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? tableName.toUpperCase()
+                    : metaData.storesLowerCaseIdentifiers() ? tableName.toLowerCase() : tableName;
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, name, false, true)) {
+                while (indexes.next()) {
+                    if (indexes.getShort("ORDINAL_POSITION") == 1
+                            && columnName.equalsIgnoreCase(indexes.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+}
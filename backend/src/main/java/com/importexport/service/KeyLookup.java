@@ -0,0 +1,112 @@
+package com.importexport.service;
+
+import com.importexport.export.ExportColumn;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Set-based reads of a single key field of an entity, for the checks that
+ * compare imported values with the table. Each read runs in its own short
+ * read-only transaction on a stateless session, so nothing is loaded into a
+ * persistence context and no connection is held between batches.
+ */
+@Component
+public class KeyLookup {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    public long count(Class<?> entityClass) {
+        return inReadOnlyTransaction(session -> {
+            HibernateCriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<Long> query = cb.createQuery(Long.class);
+            query.select(cb.count(query.from(entityClass)));
+            return session.createQuery(query).getSingleResult();
+        });
+    }
+
+    /**
+     * Stream every non-null value of the field to the consumer
+     */
+    public void forEachValue(Class<?> entityClass, String field, int fetchSize, Consumer<String> consumer) {
+        inReadOnlyTransaction(session -> {
+            CriteriaQuery<String> query = session.getCriteriaBuilder().createQuery(String.class);
+            Root<?> root = query.from(entityClass);
+            query.select(root.get(field));
+            try (ScrollableResults<String> results = session.createQuery(query)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    String value = results.get();
+                    if (value != null) {
+                        consumer.accept(value);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return the given values that exist in the field's column, with one IN query
+     */
+    public Set<String> findExisting(Class<?> entityClass, String field, Collection<String> values) {
+        return inReadOnlyTransaction(session -> {
+            CriteriaQuery<String> query = session.getCriteriaBuilder().createQuery(String.class);
+            Root<?> root = query.from(entityClass);
+            query.select(root.get(field)).where(root.get(field).in(values));
+            return new HashSet<>(session.createQuery(query).setReadOnly(true).getResultList());
+        });
+    }
+
+    /**
+     * @return the trimmed value of the field in an imported row, looked up
+     *         by property name and then by column name like the entity
+     *         mapper does, or null if it is blank
+     */
+    static String keyValue(Map<String, Object> row, ExportColumn column) {
+        Object value = row.get(column.getField());
+        if (value == null && !column.getField().equals(column.getColumnName())) {
+            value = row.get(column.getColumnName());
+        }
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private <T> T inReadOnlyTransaction(Function<StatelessSession, T> work) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                T result = work.apply(session);
+                transaction.commit();
+                return result;
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.importexport.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class PersistenceService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Insert one batch of entities in its own short transaction. The inserts
+     * go out as JDBC batches of batchSize statements, and the persistence
+     * context is flushed and cleared afterwards so it never outgrows a batch.
+     * Entity ids come from pooled sequences, since IDENTITY columns would
+     * force Hibernate to execute every insert on its own.
+     * @return Number of entities written
+     */
+    @Transactional
+    public int persistBatch(List<Object> entities, int batchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        for (Object entity : entities) {
+            entityManager.persist(entity);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return entities.size();
+    }
+}
@@ -0,0 +1,216 @@
+package com.importexport.service;
+
+import com.importexport.config.ValidationConfig;
+import com.importexport.dto.ValidationError;
+import com.importexport.export.ExportColumn;
+import com.importexport.export.ExportSchema;
+import com.importexport.validation.DeferredCheck;
+import com.importexport.validation.ValidationPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that the references a plan declares point at existing rows of
+ * their target module, and reports the ones that do not as
+ * INVALID_REFERENCE.
+ *
+ * A target table of at most {@link ValidationConfig#getReferenceCacheSize()}
+ * rows is read whole when the import starts, and every row is then checked
+ * in memory. Larger targets are checked through a cache of looked-up
+ * values that evicts the least recently used ones: values not in it are
+ * queued, and the distinct queued values are looked up with one IN query
+ * per {@link ValidationConfig#getLookupSize()}, usually once per batch.
+ * Either way, rows referencing a few thousand keys cost a few queries
+ * however many rows there are. The cache lives as long as the import, so
+ * target rows written by others during the import may not be seen.
+ */
+@Service
+public class ReferenceCheckService {
+
+    @Autowired
+    private ValidationConfig validationConfig;
+
+    @Autowired
+    private KeyLookup keyLookup;
+
+    /**
+     * @return a checker for one import, or null if the plan declares no references
+     */
+    public Checker newChecker(String moduleType, ValidationPlan plan) {
+        ExportSchema schema = ExportSchema.forModule(moduleType);
+        if (plan == null || schema == null || plan.getReferences().length == 0) {
+            return null;
+        }
+        ValidationPlan.Reference[] references = plan.getReferences();
+        Link[] links = new Link[references.length];
+        for (int i = 0; i < references.length; i++) {
+            links[i] = link(schema, references[i]);
+        }
+        return new Checker(links);
+    }
+
+    private Link link(ExportSchema schema, ValidationPlan.Reference reference) {
+        ExportColumn column = schema.getColumn(reference.getField());
+        ExportSchema targetSchema = ExportSchema.forModule(reference.getTargetModule());
+        ExportColumn targetColumn = targetSchema != null ? targetSchema.getColumn(reference.getTargetField()) : null;
+        if (column == null || targetColumn == null || targetColumn.getType() != String.class) {
+            throw new IllegalStateException("Reference from " + reference.getField() + " to "
+                    + reference.getTargetModule() + "." + reference.getTargetField() + " is not between known fields");
+        }
+
+        Class<?> targetEntity = targetSchema.getEntityClass();
+        int cacheSize = Math.max(1, validationConfig.getReferenceCacheSize());
+        Set<String> allKeys = null;
+        if (keyLookup.count(targetEntity) <= cacheSize) {
+            Set<String> keys = new HashSet<>();
+            keyLookup.forEachValue(targetEntity, targetColumn.getField(), validationConfig.getLookupSize(), keys::add);
+            allKeys = keys;
+        }
+        return new Link(column, reference.getTargetModule(), targetEntity, targetColumn.getField(), allKeys,
+                cacheSize);
+    }
+
+    private static final class Link {
+
+        private final ExportColumn column;
+        private final String targetModule;
+        private final Class<?> targetEntity;
+        private final String targetField;
+        // Every key of the target when it is small enough, otherwise null
+        private final Set<String> allKeys;
+        // Looked-up values and whether they exist, least recently used first
+        private final Map<String, Boolean> cache;
+        private final List<String> pendingValues = new ArrayList<>();
+        private int[] pendingRows = new int[64];
+
+        Link(ExportColumn column, String targetModule, Class<?> targetEntity, String targetField,
+             Set<String> allKeys, int cacheSize) {
+            this.column = column;
+            this.targetModule = targetModule;
+            this.targetEntity = targetEntity;
+            this.targetField = targetField;
+            this.allKeys = allKeys;
+            this.cache = allKeys != null ? null : new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        }
+
+        /**
+         * @return whether the value exists, or null if it has to be looked up
+         */
+        Boolean exists(String value) {
+            return allKeys != null ? Boolean.valueOf(allKeys.contains(value)) : cache.get(value);
+        }
+
+        ValidationError error(int rowNumber, String value) {
+            return new ValidationError(rowNumber, column.getField(), "INVALID_REFERENCE",
+                    "Referenced " + targetModule + " does not exist", value, "valid " + targetField);
+        }
+
+        void queue(String value, int rowNumber) {
+            int index = pendingValues.size();
+            if (index == pendingRows.length) {
+                pendingRows = Arrays.copyOf(pendingRows, index * 2);
+            }
+            pendingRows[index] = rowNumber;
+            pendingValues.add(value);
+        }
+    }
+
+    /**
+     * Reference checks for the rows of one import
+     */
+    public class Checker implements DeferredCheck {
+
+        private final Link[] links;
+        private int pending;
+
+        Checker(Link[] links) {
+            this.links = links;
+        }
+
+        /**
+         * Report a value known to be missing, and queue one that is not known
+         */
+        @Override
+        public void check(Map<String, Object> row, int rowNumber, List<ValidationError> errors) {
+            for (Link link : links) {
+                String value = KeyLookup.keyValue(row, link.column);
+                if (value == null) {
+                    continue;
+                }
+                Boolean exists = link.exists(value);
+                if (exists == null) {
+                    link.queue(value, rowNumber);
+                    pending++;
+                } else if (!exists) {
+                    errors.add(link.error(rowNumber, value));
+                }
+            }
+        }
+
+        @Override
+        public void discard(int rowNumber) {
+            for (Link link : links) {
+                int last = link.pendingValues.size() - 1;
+                if (last >= 0 && link.pendingRows[last] == rowNumber) {
+                    link.pendingValues.remove(last);
+                    pending--;
+                }
+            }
+        }
+
+        @Override
+        public boolean isFull() {
+            return pending >= validationConfig.getLookupSize();
+        }
+
+        /**
+         * Look up the distinct queued values, remember the answers and
+         * report the rows whose value does not exist
+         */
+        @Override
+        public void resolve(List<ValidationError> errors) {
+            if (pending == 0) {
+                return;
+            }
+            int lookupSize = Math.max(1, validationConfig.getLookupSize());
+            for (Link link : links) {
+                if (link.pendingValues.isEmpty()) {
+                    continue;
+                }
+                List<String> distinct = new ArrayList<>(new LinkedHashSet<>(link.pendingValues));
+                // Answers are taken from here, the cache may evict some of them before they are reported
+                Set<String> found = new HashSet<>();
+                for (int from = 0; from < distinct.size(); from += lookupSize) {
+                    List<String> values = distinct.subList(from, Math.min(distinct.size(), from + lookupSize));
+                    Set<String> existing = keyLookup.findExisting(link.targetEntity, link.targetField, values);
+                    for (String value : values) {
+                        link.cache.put(value, existing.contains(value));
+                    }
+                    found.addAll(existing);
+                }
+                for (int i = 0; i < link.pendingValues.size(); i++) {
+                    String value = link.pendingValues.get(i);
+                    if (!found.contains(value)) {
+                        errors.add(link.error(link.pendingRows[i], value));
+                    }
+                }
+                link.pendingValues.clear();
+            }
+            pending = 0;
+        }
+    }
+}
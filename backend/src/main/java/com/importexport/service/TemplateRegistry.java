@@ -0,0 +1,178 @@
+package com.importexport.service;
+
+import com.importexport.exception.ValidationException;
+import com.importexport.export.ExportColumn;
+import com.importexport.export.ExportSchema;
+import com.importexport.export.FileExporter;
+import com.importexport.export.RowWriter;
+import com.importexport.processor.CsvProcessor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Import templates of every module, rendered once at startup. The columns
+ * come from the module's schema without the generated id, in the order the
+ * importer maps them. A module's templates/{module}_template.csv resource,
+ * if there is one, is served as the CSV template as is, and its sample rows
+ * are copied into the XLSX template. Without one, the templates only hold
+ * the header row.
+ */
+@Component
+public class TemplateRegistry {
+
+    private static final String[] FORMATS = {"csv", "xlsx"};
+
+    private final Map<String, Template> templates = new HashMap<>();
+
+    @Autowired
+    private CsvProcessor csvProcessor;
+
+    @Autowired
+    private List<FileExporter> fileExporters;
+
+    @PostConstruct
+    void render() throws Exception {
+        for (String moduleType : ExportSchema.getModuleTypes()) {
+            List<ExportColumn> columns = templateColumns(ExportSchema.forModule(moduleType));
+            byte[] csv = readResource(moduleType);
+            List<Object[]> samples = csv != null ? readSamples(moduleType, csv, columns) : List.of();
+
+            for (String format : FORMATS) {
+                FileExporter exporter = findExporter(format);
+                byte[] content = "csv".equals(format) && csv != null ? csv : write(exporter, columns, samples);
+                templates.put(key(moduleType, format), new Template(content, exporter.getContentType()));
+            }
+        }
+    }
+
+    /**
+     * @return the rendered template
+     * @throws ValidationException if the module or format has no template
+     */
+    public Template getTemplate(String moduleType, String fileFormat) {
+        Template template = moduleType != null && fileFormat != null
+                ? templates.get(key(moduleType.toLowerCase(), fileFormat.toLowerCase())) : null;
+        if (template == null) {
+            throw new ValidationException("No " + fileFormat + " template for module " + moduleType
+                    + ", templates are available as " + String.join(", ", FORMATS));
+        }
+        return template;
+    }
+
+    private static String key(String moduleType, String fileFormat) {
+        return moduleType + '.' + fileFormat;
+    }
+
+    private static List<ExportColumn> templateColumns(ExportSchema schema) {
+        List<ExportColumn> columns = new ArrayList<>(schema.getColumns());
+        columns.removeIf(column -> "id".equals(column.getField()));
+        return columns;
+    }
+
+    private FileExporter findExporter(String format) {
+        return fileExporters.stream()
+                .filter(exporter -> exporter.supports(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No exporter for template format " + format));
+    }
+
+    private static byte[] readResource(String moduleType) throws IOException {
+        ClassPathResource resource = new ClassPathResource("templates/" + moduleType + "_template.csv");
+        if (!resource.exists()) {
+            return null;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Read the sample rows of a CSV template, which has to head exactly the
+     * columns the importer maps, so it cannot drift from the entities
+     */
+    private List<Object[]> readSamples(String moduleType, byte[] csv, List<ExportColumn> columns) throws Exception {
+        String header = new String(csv, StandardCharsets.UTF_8).lines().findFirst().orElse("").replace("\uFEFF", "");
+        List<String> expected = columns.stream().map(ExportColumn::getColumnName).toList();
+        if (!Arrays.asList(header.trim().split(",")).equals(expected)) {
+            throw new IllegalStateException("The " + moduleType + " template has the columns " + header
+                    + ", expected " + String.join(",", expected));
+        }
+
+        List<Object[]> samples = new ArrayList<>();
+        csvProcessor.processFile(new ByteArrayInputStream(csv), (row, rowNumber) -> {
+            // Sample values stay text, as in the CSV template, so the XLSX template imports the same way
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = row.get(columns.get(i).getColumnName());
+            }
+            samples.add(values);
+            return true;
+        });
+        return samples;
+    }
+
+    private static byte[] write(FileExporter exporter, List<ExportColumn> columns, List<Object[]> rows)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try (RowWriter writer = exporter.open(out, columns)) {
+            for (Object[] row : rows) {
+                writer.writeRow(row);
+            }
+            writer.finish();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A rendered template, with a strong ETag of its content
+     */
+    public static final class Template {
+
+        private final byte[] content;
+        private final String contentType;
+        private final String eTag;
+
+        Template(byte[] content, String contentType) {
+            this.content = content;
+            this.contentType = contentType;
+            this.eTag = eTag(content);
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        private static String eTag(byte[] content) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+                return '"' + HexFormat.of().formatHex(hash, 0, 16) + '"';
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
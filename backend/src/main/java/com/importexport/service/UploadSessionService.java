@@ -0,0 +1,194 @@
+package com.importexport.service;
+
+import com.importexport.config.FileUploadConfig;
+import com.importexport.dto.FileMetadata;
+import com.importexport.dto.ImportJob;
+import com.importexport.dto.ImportRequest;
+import com.importexport.dto.UploadSession;
+import com.importexport.exception.ValidationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable uploads for files too large, or links too flaky, for a single
+ * multipart request. The client creates a session with the size and SHA-256
+ * of the file, sends it in chunks at their offsets, and after a disconnect
+ * asks which ranges arrived and sends the rest. The target file is sized up
+ * front in the upload directory and chunks are written straight into place,
+ * so nothing is buffered or reassembled. Completing the session verifies
+ * the checksum, stores the file by content and queues its import.
+ *
+ * Sessions idle for longer than the upload expiry are discarded with their
+ * file, checked once a minute and whenever an upload is created.
+ */
+@Service
+public class UploadSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionService.class);
+
+    private static final Pattern SHA_256 = Pattern.compile("[0-9a-fA-F]{64}");
+    private static final long PRUNE_INTERVAL_SECONDS = 60;
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService pruner;
+
+    @PostConstruct
+    void startPruner() {
+        pruner = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "upload-session-pruner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pruner.scheduleAtFixedRate(this::pruneExpiredSessions, PRUNE_INTERVAL_SECONDS, PRUNE_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stopPruner() {
+        pruner.shutdownNow();
+    }
+
+    /**
+     * @param checksum Hex SHA-256 of the whole file, checked on completion
+     * @throws ValidationException if the file type, size or checksum is not acceptable
+     */
+    public UploadSession create(String moduleType, String fileName, long fileSize, String checksum)
+            throws IOException {
+        pruneExpiredSessions();
+
+        String fileExtension = fileName != null && fileName.contains(".")
+                ? fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase() : "";
+        if (!Arrays.asList(fileUploadConfig.getAllowedFileTypes()).contains(fileExtension)) {
+            throw new ValidationException("Unsupported file format: " + fileExtension);
+        }
+        if (fileSize <= 0 || fileSize > fileUploadConfig.getMaxUploadSize()) {
+            throw new ValidationException("File size must be between 1 and " + fileUploadConfig.getMaxUploadSize()
+                    + " bytes");
+        }
+        if (checksum == null || !SHA_256.matcher(checksum).matches()) {
+            throw new ValidationException("Checksum must be the hex SHA-256 of the file");
+        }
+
+        FileMetadata file = fileService.createFile(fileName, fileSize, moduleType);
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), moduleType, fileName, fileSize,
+                checksum.toLowerCase(), file);
+        sessions.put(session.getUploadId(), session);
+        return session;
+    }
+
+    public UploadSession getSession(String uploadId) {
+        return sessions.get(uploadId);
+    }
+
+    /**
+     * Write a chunk at its offset. Chunks may overlap, arrive in any order
+     * and be sent concurrently. If the chunk breaks off, the bytes that did
+     * arrive still count as received.
+     * @throws ValidationException if the chunk does not fit into the file or the upload is complete
+     */
+    public UploadSession writeChunk(UploadSession session, long offset, InputStream chunk) throws IOException {
+        if (offset < 0 || offset >= session.getFileSize()) {
+            throw new ValidationException("Offset must be between 0 and " + (session.getFileSize() - 1));
+        }
+        if (!session.beginChunk()) {
+            throw new ValidationException("Upload " + session.getUploadId() + " is already complete");
+        }
+
+        long maxLength = Math.min(fileUploadConfig.getMaxChunkSize(), session.getFileSize() - offset);
+        long written = 0;
+        try {
+            written = fileService.writeChunk(session.getFile().getFileName(), offset, chunk, maxLength);
+        } catch (FileService.ChunkWriteException e) {
+            written = e.getBytesWritten();
+            throw e;
+        } finally {
+            session.endChunk(offset, written);
+        }
+        return session;
+    }
+
+    /**
+     * Verify the file against its checksum and queue its import. On a
+     * mismatch the received ranges are forgotten, so the client sends the
+     * file again into the same session. If the file cannot be read or
+     * stored, the session takes chunks again and completing can be retried.
+     * @throws ValidationException if bytes are missing or the checksum does not match
+     */
+    public ImportJob complete(UploadSession session, ImportRequest request) throws IOException {
+        if (!session.complete()) {
+            throw new ValidationException("Upload " + session.getUploadId() + " has received "
+                    + session.getReceivedBytes() + " of " + session.getFileSize()
+                    + " bytes, or chunks are still being written");
+        }
+
+        FileMetadata stored;
+        try {
+            String checksum = fileService.checksum(session.getFile().getFileName());
+            if (!checksum.equals(session.getChecksum())) {
+                session.reset();
+                throw new ValidationException("Checksum mismatch, expected " + session.getChecksum()
+                        + " but the upload has " + checksum + ". The received ranges have been reset");
+            }
+            stored = fileService.storeFile(session.getFile(), checksum);
+        } catch (IOException e) {
+            session.reopen();
+            throw e;
+        }
+
+        // Stored by content from here, the import takes over the reference
+        sessions.remove(session.getUploadId());
+        request.setFileName(session.getFileName());
+        return importJobService.submit(stored, request);
+    }
+
+    public void cancel(UploadSession session) {
+        if (sessions.remove(session.getUploadId()) != null) {
+            deleteFile(session);
+        }
+    }
+
+    void pruneExpiredSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(fileUploadConfig.getUploadExpiryMinutes());
+        sessions.values().removeIf(session -> {
+            boolean expired = session.isIdleSince(cutoff);
+            if (expired) {
+                deleteFile(session);
+            }
+            return expired;
+        });
+    }
+
+    private void deleteFile(UploadSession session) {
+        try {
+            fileService.deleteFile(session.getFile().getFileName());
+        } catch (IOException e) {
+            log.warn("Could not delete the file of upload {}: {}", session.getUploadId(), e.toString());
+        }
+    }
+}
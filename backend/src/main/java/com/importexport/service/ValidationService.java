@@ -2,26 +2,142 @@ package com.importexport.service;
 
 import com.importexport.dto.ImportResponse;
 import com.importexport.dto.ValidationError;
+import com.importexport.config.ValidationConfig;
+import com.importexport.processor.FileProcessor;
+import com.importexport.processor.RowSink;
+import com.importexport.processor.RowSource;
+import com.importexport.validation.DeferredCheck;
+import com.importexport.validation.ValidationPlan;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static com.importexport.validation.FieldRule.*;
 
 @Service
 public class ValidationService {
 
-    public ImportResponse validateData(List<Map<String, Object>> data, String moduleType) {
-        List<ValidationError> errors = new ArrayList<>();
+    private static final Map<String, ValidationPlan> PLANS = Map.of(
+            "camera", ValidationPlan.builder()
+                    .check("name", REQUIRED)
+                    .check("type", REQUIRED)
+                    .check("isActive", BOOLEAN)
+                    .build(),
+            "robot", ValidationPlan.builder()
+                    .check("name", REQUIRED)
+                    .check("model", REQUIRED)
+                    .check("isActive", BOOLEAN)
+                    .build(),
+            "task", ValidationPlan.builder()
+                    .check("name", REQUIRED)
+                    .check("type", REQUIRED)
+                    .check("priority", INTEGER)
+                    .check("isActive", BOOLEAN)
+                    .references("assignedTo", "user", "username")
+                    .build(),
+            "user", ValidationPlan.builder()
+                    .check("username", REQUIRED)
+                    .check("email", REQUIRED, EMAIL)
+                    .check("isActive", BOOLEAN)
+                    .unique("username")
+                    .unique("email")
+                    .build(),
+            "map", ValidationPlan.builder()
+                    .check("name", REQUIRED)
+                    .check("type", REQUIRED)
+                    .check("resolution", DOUBLE)
+                    .check("isActive", BOOLEAN)
+                    .build());
+
+    @Autowired
+    private ValidationConfig validationConfig;
+
+    @Autowired
+    private DuplicateCheckService duplicateCheckService;
+
+    @Autowired
+    private ReferenceCheckService referenceCheckService;
+
+    @Autowired
+    private EntityRowMapper entityRowMapper;
+
+    private ForkJoinPool validationPool;
+
+    @PostConstruct
+    void startValidationPool() {
+        validationPool = new ForkJoinPool(Math.max(1, validationConfig.getParallelism()));
+    }
+
+    @PreDestroy
+    void stopValidationPool() {
+        validationPool.shutdownNow();
+    }
+
+    public ImportResponse validateData(List<Map<String, Object>> data, String moduleType) throws Exception {
+        SegmentedValidator validator = new SegmentedValidator(moduleType, ImportProgressListener.NONE);
         int rowNum = 1; // Start from 1 (excluding header)
 
-        for (Map<String, Object> row : data) {
-            rowNum++;
-            validateRow(row, moduleType, rowNum, errors);
+        try {
+            for (Map<String, Object> row : data) {
+                rowNum++;
+                validator.accept(row, rowNum);
+            }
+            return buildResponse(data.size(), validator.finish());
+        } finally {
+            validator.cancel();
         }
+    }
 
-        int totalRecords = data.size();
-        int failedRecords = errors.size();
+    /**
+     * Validate rows while they are streamed out of the file, so only the
+     * current row, the segments in flight and the collected errors are held in memory.
+     */
+    public ImportResponse validateData(FileProcessor processor, Path file, String moduleType) throws Exception {
+        return validateData(processor, file, moduleType, ImportProgressListener.NONE);
+    }
+
+    public ImportResponse validateData(FileProcessor processor, Path file, String moduleType,
+                                       ImportProgressListener listener) throws Exception {
+        return validateData(sink -> processor.processFile(file, sink), moduleType, listener);
+    }
+
+    public ImportResponse validateData(RowSource source, String moduleType, ImportProgressListener listener)
+            throws Exception {
+        SegmentedValidator validator = new SegmentedValidator(moduleType, listener);
+
+        try {
+            int totalRecords = source.read(validator);
+            return buildResponse(totalRecords, validator.finish());
+        } finally {
+            validator.cancel();
+        }
+    }
+
+    /**
+     * @param errors Errors in row order, a row with several errors counts as one failed record
+     */
+    public ImportResponse buildResponse(int totalRecords, List<ValidationError> errors) {
+        int failedRecords = 0;
+        int lastRow = -1;
+        for (ValidationError error : errors) {
+            if (error.getRow() != lastRow) {
+                failedRecords++;
+                lastRow = error.getRow();
+            }
+        }
         int successfulRecords = totalRecords - failedRecords;
 
         ImportResponse response = new ImportResponse();
@@ -36,114 +152,203 @@ public class ValidationService {
         return response;
     }
 
-    private void validateRow(Map<String, Object> row, String moduleType, int rowNum, List<ValidationError> errors) {
-        switch (moduleType.toLowerCase()) {
-            case "camera":
-                validateCameraRow(row, rowNum, errors);
-                break;
-            case "robot":
-                validateRobotRow(row, rowNum, errors);
-                break;
-            case "task":
-                validateTaskRow(row, rowNum, errors);
-                break;
-            case "user":
-                validateUserRow(row, rowNum, errors);
-                break;
-            case "map":
-                validateMapRow(row, rowNum, errors);
-                break;
-            default:
-                errors.add(new ValidationError(rowNum, "moduleType", "INVALID_MODULE", 
-                          "Unsupported module type: " + moduleType));
-        }
+    /**
+     * Compiled plan for the module, or null if the module type is not supported
+     */
+    public ValidationPlan getPlan(String moduleType) {
+        return moduleType != null ? PLANS.get(moduleType.toLowerCase()) : null;
     }
 
-    private void validateCameraRow(Map<String, Object> row, int rowNum, List<ValidationError> errors) {
-        validateRequired(row, "name", rowNum, errors);
-        validateRequired(row, "type", rowNum, errors);
-        validateBoolean(row, "isActive", rowNum, errors);
+    /**
+     * @return the checks of the plan that need the database, for one import
+     */
+    public List<DeferredCheck> newDeferredChecks(String moduleType, ValidationPlan plan) {
+        List<DeferredCheck> checks = new ArrayList<>(2);
+        DeferredCheck duplicates = duplicateCheckService.newDetector(moduleType, plan);
+        if (duplicates != null) {
+            checks.add(duplicates);
+        }
+        DeferredCheck references = referenceCheckService.newChecker(moduleType, plan);
+        if (references != null) {
+            checks.add(references);
+        }
+        return checks;
     }
 
-    private void validateRobotRow(Map<String, Object> row, int rowNum, List<ValidationError> errors) {
-        validateRequired(row, "name", rowNum, errors);
-        validateRequired(row, "model", rowNum, errors);
-        validateBoolean(row, "isActive", rowNum, errors);
+    public void validateRow(Map<String, Object> row, String moduleType, int rowNum, List<ValidationError> errors) {
+        validateRow(row, getPlan(moduleType), moduleType, rowNum, errors);
     }
 
-    private void validateTaskRow(Map<String, Object> row, int rowNum, List<ValidationError> errors) {
-        validateRequired(row, "name", rowNum, errors);
-        validateRequired(row, "type", rowNum, errors);
-        validateInteger(row, "priority", rowNum, errors);
-        validateBoolean(row, "isActive", rowNum, errors);
+    public void validateRow(Map<String, Object> row, ValidationPlan plan, String moduleType, int rowNum,
+                            List<ValidationError> errors) {
+        if (plan == null) {
+            errors.add(new ValidationError(rowNum, "moduleType", "INVALID_MODULE", 
+                      "Unsupported module type: " + moduleType));
+            return;
+        }
+        plan.validate(row, rowNum, errors);
     }
 
-    private void validateUserRow(Map<String, Object> row, int rowNum, List<ValidationError> errors) {
-        validateRequired(row, "username", rowNum, errors);
-        validateRequired(row, "email", rowNum, errors);
-        validateEmail(row, "email", rowNum, errors);
-        validateBoolean(row, "isActive", rowNum, errors);
+    /**
+     * Check the row like an import would: the plan first, then converting a
+     * row that passed it to its entity, which reports values the insert
+     * would fail on
+     */
+    private void validateRecord(Map<String, Object> row, ValidationPlan plan, String moduleType, int rowNum,
+                                List<ValidationError> errors) {
+        int errorCount = errors.size();
+        validateRow(row, plan, moduleType, rowNum, errors);
+        if (plan != null && errors.size() == errorCount) {
+            entityRowMapper.toEntity(moduleType, row, rowNum, errors);
+        }
     }
 
-    private void validateMapRow(Map<String, Object> row, int rowNum, List<ValidationError> errors) {
-        validateRequired(row, "name", rowNum, errors);
-        validateRequired(row, "type", rowNum, errors);
-        validateDouble(row, "resolution", rowNum, errors);
-        validateBoolean(row, "isActive", rowNum, errors);
-    }
+    /**
+     * Validates the first rows inline. Past the configured threshold, rows are
+     * grouped into segments that are validated concurrently on the validation
+     * pool. Segment errors are appended in submission order, so the merged
+     * list is identical to a serial run. Duplicate and reference checks keep
+     * state across rows, so they run inline for every row, and their errors
+     * are merged into row order at the end.
+     */
+    private class SegmentedValidator implements RowSink {
+
+        private final String moduleType;
+        private final ImportProgressListener listener;
+        private final ValidationPlan plan;
+        private final int parallelThreshold;
+        private final int segmentSize;
+        private final int maxInFlight;
+        private final List<ValidationError> errors = new ArrayList<>();
+        private final List<DeferredCheck> deferredChecks;
+        private final List<ValidationError> deferredErrors = new ArrayList<>();
+        private final Deque<Future<List<ValidationError>>> inFlight = new ArrayDeque<>();
+        private final Deque<Integer> inFlightSizes = new ArrayDeque<>();
+        // Rows with at least one error so far, a row is reported as failed once however many errors it has
+        private final BitSet failedRows = new BitSet();
+        private int failedCount;
+        private int deferredErrorsCounted;
+
+        private List<Map<String, Object>> segmentRows;
+        private int[] segmentRowNumbers;
+        private int count;
+        private int validated;
 
-    private void validateRequired(Map<String, Object> row, String field, int rowNum, List<ValidationError> errors) {
-        Object value = row.get(field);
-        if (value == null || value.toString().trim().isEmpty()) {
-            errors.add(new ValidationError(rowNum, field, "REQUIRED", 
-                      "Field '" + field + "' is required", value != null ? value.toString() : "null", "non-empty value"));
+        SegmentedValidator(String moduleType, ImportProgressListener listener) {
+            this.moduleType = moduleType;
+            this.listener = listener;
+            this.plan = getPlan(moduleType);
+            this.deferredChecks = newDeferredChecks(moduleType, plan);
+            this.parallelThreshold = validationPool.getParallelism() > 1
+                    ? validationConfig.getParallelThreshold() : Integer.MAX_VALUE;
+            this.segmentSize = Math.max(1, validationConfig.getSegmentSize());
+            this.maxInFlight = validationPool.getParallelism() * 2;
         }
-    }
 
-    private void validateEmail(Map<String, Object> row, String field, int rowNum, List<ValidationError> errors) {
-        Object value = row.get(field);
-        if (value != null && !value.toString().trim().isEmpty()) {
-            String email = value.toString().trim();
-            if (!email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$")) {
-                errors.add(new ValidationError(rowNum, field, "INVALID_EMAIL", 
-                          "Invalid email format", email, "valid email format"));
+        @Override
+        public boolean accept(Map<String, Object> row, int rowNumber) throws Exception {
+            listener.onRowsParsed(++count);
+            for (DeferredCheck check : deferredChecks) {
+                check.check(row, rowNumber, deferredErrors);
+                if (check.isFull()) {
+                    check.resolve(deferredErrors);
+                }
+            }
+            if (count <= parallelThreshold) {
+                int errorCount = errors.size();
+                validateRecord(row, plan, moduleType, rowNumber, errors);
+                validated++;
+                countFailedRows(errors, errorCount);
+                reportProgress();
+                return true;
             }
+
+            if (segmentRows == null) {
+                segmentRows = new ArrayList<>(segmentSize);
+                segmentRowNumbers = new int[segmentSize];
+            }
+            segmentRowNumbers[segmentRows.size()] = rowNumber;
+            segmentRows.add(row);
+            if (segmentRows.size() == segmentSize) {
+                submitSegment();
+            }
+            return true;
+        }
+
+        @Override
+        public void bytesRead(long bytesRead) {
+            listener.onBytesRead(bytesRead);
+        }
+
+        List<ValidationError> finish() throws Exception {
+            submitSegment();
+            while (!inFlight.isEmpty()) {
+                mergeOldest();
+            }
+            for (DeferredCheck check : deferredChecks) {
+                check.resolve(deferredErrors);
+            }
+            reportProgress();
+            if (!deferredErrors.isEmpty()) {
+                // Stable, so the errors of a row keep their order
+                errors.addAll(deferredErrors);
+                errors.sort(Comparator.comparingInt(ValidationError::getRow));
+            }
+            return errors;
         }
-    }
 
-    private void validateBoolean(Map<String, Object> row, String field, int rowNum, List<ValidationError> errors) {
-        Object value = row.get(field);
-        if (value != null && !value.toString().trim().isEmpty()) {
-            String boolValue = value.toString().trim().toLowerCase();
-            if (!boolValue.equals("true") && !boolValue.equals("false") && 
-                !boolValue.equals("1") && !boolValue.equals("0")) {
-                errors.add(new ValidationError(rowNum, field, "INVALID_BOOLEAN", 
-                          "Invalid boolean value", value.toString(), "true, false, 1, or 0"));
+        void cancel() {
+            inFlight.forEach(segment -> segment.cancel(true));
+        }
+
+        private void submitSegment() throws Exception {
+            if (segmentRows == null || segmentRows.isEmpty()) {
+                return;
+            }
+            List<Map<String, Object>> rows = segmentRows;
+            int[] rowNumbers = segmentRowNumbers;
+            segmentRows = null;
+
+            inFlight.addLast(validationPool.submit(() -> {
+                List<ValidationError> segmentErrors = new ArrayList<>();
+                for (int i = 0; i < rows.size(); i++) {
+                    validateRecord(rows.get(i), plan, moduleType, rowNumbers[i], segmentErrors);
+                }
+                return segmentErrors;
+            }));
+            inFlightSizes.addLast(rows.size());
+            if (inFlight.size() > maxInFlight) {
+                mergeOldest();
             }
         }
-    }
 
-    private void validateInteger(Map<String, Object> row, String field, int rowNum, List<ValidationError> errors) {
-        Object value = row.get(field);
-        if (value != null && !value.toString().trim().isEmpty()) {
+        private void mergeOldest() throws Exception {
             try {
-                Integer.parseInt(value.toString().trim());
-            } catch (NumberFormatException e) {
-                errors.add(new ValidationError(rowNum, field, "INVALID_INTEGER", 
-                          "Invalid integer value", value.toString(), "valid integer"));
+                int errorCount = errors.size();
+                errors.addAll(inFlight.removeFirst().get());
+                validated += inFlightSizes.removeFirst();
+                countFailedRows(errors, errorCount);
+                reportProgress();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
             }
         }
-    }
 
-    private void validateDouble(Map<String, Object> row, String field, int rowNum, List<ValidationError> errors) {
-        Object value = row.get(field);
-        if (value != null && !value.toString().trim().isEmpty()) {
-            try {
-                Double.parseDouble(value.toString().trim());
-            } catch (NumberFormatException e) {
-                errors.add(new ValidationError(rowNum, field, "INVALID_DOUBLE", 
-                          "Invalid decimal value", value.toString(), "valid decimal number"));
+        private void reportProgress() {
+            // Deferred errors may land on rows that already failed, or on rows validated earlier
+            countFailedRows(deferredErrors, deferredErrorsCounted);
+            deferredErrorsCounted = deferredErrors.size();
+            listener.onRowsValidated(validated, failedCount, errors.size() + deferredErrors.size());
+        }
+
+        private void countFailedRows(List<ValidationError> added, int from) {
+            for (int i = from; i < added.size(); i++) {
+                int row = added.get(i).getRow();
+                if (!failedRows.get(row)) {
+                    failedRows.set(row);
+                    failedCount++;
+                }
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -1,66 +1,272 @@
 package com.importexport.service.impl;
 
 import com.importexport.config.FileUploadConfig;
+import com.importexport.dto.ExportJob;
 import com.importexport.dto.ExportRequest;
+import com.importexport.dto.FileMetadata;
+import com.importexport.dto.ImportJob;
 import com.importexport.dto.ImportRequest;
 import com.importexport.dto.ImportResponse;
+import com.importexport.dto.ValidationError;
+import com.importexport.exception.ValidationException;
+import com.importexport.export.ExportColumn;
+import com.importexport.export.ExportPlan;
+import com.importexport.export.ExportSchema;
+import com.importexport.export.FileExporter;
+import com.importexport.export.FilterCompiler;
+import com.importexport.export.FilterExpression;
+import com.importexport.export.RowWriter;
 import com.importexport.processor.FileProcessor;
+import com.importexport.processor.RowSink;
+import com.importexport.processor.RowSource;
+import com.importexport.service.EntityRowMapper;
+import com.importexport.service.ExportCache;
+import com.importexport.service.ExportProgressListener;
+import com.importexport.service.ExportQueryService;
+import com.importexport.service.FileService;
+import com.importexport.service.ImportProgressListener;
+import com.importexport.service.ImportResultStore;
+import com.importexport.service.IndexInspector;
 import com.importexport.service.ImportExportService;
+import com.importexport.service.PersistenceService;
+import com.importexport.service.TemplateRegistry;
 import com.importexport.service.ValidationService;
+import com.importexport.validation.DeferredCheck;
+import com.importexport.validation.ValidationPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ImportExportServiceImpl implements ImportExportService {
 
+    private static final Logger log = LoggerFactory.getLogger(ImportExportServiceImpl.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
     @Autowired
     private FileUploadConfig fileUploadConfig;
 
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private EntityRowMapper entityRowMapper;
+
+    @Autowired
+    private PersistenceService persistenceService;
+
+    @Autowired
+    private ExportQueryService exportQueryService;
+
+    @Autowired
+    private FilterCompiler filterCompiler;
+
+    @Autowired
+    private IndexInspector indexInspector;
+
+    @Autowired
+    private ExportCache exportCache;
+
+    @Autowired
+    private TemplateRegistry templateRegistry;
+
+    @Autowired
+    private ImportResultStore importResultStore;
+
     @Autowired
     private List<FileProcessor> fileProcessors;
 
+    @Autowired
+    private List<FileExporter> fileExporters;
+
     @Override
     public ImportResponse importData(MultipartFile file, ImportRequest request) {
-        long startTime = System.currentTimeMillis();
-        
         try {
             // Validate file
             if (!validateFile(file)) {
                 return new ImportResponse("ERROR", "Invalid file format or size", 0, 0, 0);
             }
 
-            // Find appropriate processor
             String fileExtension = getFileExtension(file.getOriginalFilename());
-            FileProcessor processor = findProcessor(fileExtension);
-            
-            if (processor == null) {
+            if (findProcessor(fileExtension) == null) {
                 return new ImportResponse("ERROR", "Unsupported file format: " + fileExtension, 0, 0, 0);
             }
 
-            // Process file
-            List<Map<String, Object>> data = processor.processFile(file.getInputStream());
-            
-            // Validate data if not validation-only mode
+            // Spool the upload to disk so processors can map it
+            FileMetadata metadata = fileService.saveFile(file, request.getModuleType(), null);
+            try {
+                if (request.isForce()) {
+                    return importFile(metadata, request, ImportProgressListener.NONE);
+                }
+
+                // The same file with the same options gets the earlier response, or waits for the running import
+                ImportResultStore.Record previous = importResultStore.begin(metadata, request, null);
+                if (previous != null) {
+                    return importResultStore.await(previous);
+                }
+                ImportResponse response;
+                try {
+                    response = importFile(metadata, request, ImportProgressListener.NONE);
+                } catch (Throwable e) {
+                    // Submissions waiting on the same file still need an answer
+                    response = new ImportResponse("ERROR", "Import failed: " + e.getMessage(), 0, 0, 0);
+                }
+                importResultStore.finish(metadata, request, response);
+                return response;
+            } finally {
+                fileService.release(metadata.getFileName());
+            }
+
+        } catch (Exception e) {
+            return new ImportResponse("ERROR", "Import failed: " + e.getMessage(), 0, 0, 0);
+        }
+    }
+
+    @Override
+    public ImportResponse importFile(FileMetadata upload, ImportRequest request, ImportProgressListener listener) {
+        long startTime = System.currentTimeMillis();
+
+        // Find appropriate processor
+        FileProcessor processor = findProcessor(upload.getFileType());
+        if (processor == null) {
+            return new ImportResponse("ERROR", "Unsupported file format: " + upload.getFileType(), 0, 0, 0);
+        }
+
+        // Stream rows out of the saved file
+        Path uploadedFile = fileService.getFilePath(upload.getFileName());
+        RowSource rows = sink -> processor.processFile(uploadedFile, sink);
+        ImportResponse response = runImport(rows, rows, request, listener, startTime);
+        listener.onBytesRead(upload.getFileSize());
+        return response;
+    }
+
+    @Override
+    public ImportResponse importStream(InputStream body, long contentLength, ImportRequest request) {
+        long startTime = System.currentTimeMillis();
+
+        String fileExtension = getFileExtension(request.getFileName());
+        FileProcessor processor = findProcessor(fileExtension);
+        if (processor == null || !Arrays.asList(fileUploadConfig.getAllowedFileTypes()).contains(fileExtension)) {
+            return new ImportResponse("ERROR", "Unsupported file format: " + fileExtension, 0, 0, 0);
+        }
+        long maxSize = fileUploadConfig.getMaxUploadSize();
+        if (contentLength > maxSize) {
+            return new ImportResponse("ERROR", "File is larger than " + maxSize + " bytes", 0, 0, 0);
+        }
+
+        FileMetadata upload;
+        try {
+            upload = fileService.createFile(request.getFileName(), 0, request.getModuleType());
+        } catch (IOException e) {
+            return new ImportResponse("ERROR", "Import failed: " + e.getMessage(), 0, 0, 0);
+        }
+
+        Path uploadedFile = fileService.getFilePath(upload.getFileName());
+        RowSource savedRows = sink -> processor.processFile(uploadedFile, sink);
+        boolean stored = false;
+        try (OutputStream copy = Files.newOutputStream(uploadedFile)) {
+            TeeInputStream tee = new TeeInputStream(body, copy, maxSize);
             ImportResponse response;
-            if (request.isValidateOnly()) {
-                response = validationService.validateData(data, request.getModuleType());
+            if (!processor.supportsStreaming()) {
+                // The processor needs the whole file, receive it first
+                tee.finish();
+                response = runImport(savedRows, savedRows, request, ImportProgressListener.NONE, startTime);
             } else {
-                response = processImportData(data, request);
+                // Parse and validate while the body arrives, everything read is also saved
+                RowSource bodyRows = sink -> {
+                    int rows = processor.processFile(tee, sink);
+                    tee.finish();
+                    return rows;
+                };
+                // A second pass reads the saved copy, the body can only be read once
+                response = runImport(bodyRows, savedRows, request, ImportProgressListener.NONE, startTime);
+                try {
+                    // An import that failed partway left the rest of the body unread
+                    tee.finish();
+                } catch (IOException e) {
+                    // The body broke off or is too large, only part of it could be kept
+                    return response;
+                }
             }
-            
+
+            // Only known now, the whole body is stored by content like any other upload, whatever the outcome
+            upload.setFileSize(tee.bytesRead);
+            FileMetadata storedUpload = fileService.storeFile(upload, tee.checksum());
+            stored = true;
+            if (!request.isForce() && !"ERROR".equals(response.getStatus())) {
+                importResultStore.record(storedUpload, request, response);
+            }
+            fileService.release(storedUpload.getFileName());
+            return response;
+        } catch (IOException e) {
+            ImportResponse response = new ImportResponse("ERROR", "Import failed: " + e.getMessage(), 0, 0, 0);
             response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
             return response;
-            
+        } finally {
+            if (!stored) {
+                deleteUpload(upload);
+            }
+        }
+    }
+
+    /**
+     * Validation-only or batched import of the rows of a source. Without
+     * skipErrors, no row may be written unless all of them are valid, so the
+     * rows are validated as a whole first and imported in a second pass.
+     * @param replay The same rows again, read for that second pass
+     */
+    private ImportResponse runImport(RowSource source, RowSource replay, ImportRequest request,
+                                     ImportProgressListener listener, long startTime) {
+        try {
+            ImportResponse response;
+            if (request.isValidateOnly()) {
+                listener.onStage(ImportJob.VALIDATING);
+                response = validationService.validateData(source, request.getModuleType(), listener);
+            } else if (request.isSkipErrors()) {
+                listener.onStage(ImportJob.IMPORTING);
+                response = processImportData(source, request, listener);
+            } else {
+                listener.onStage(ImportJob.VALIDATING);
+                ImportResponse validation = validationService.validateData(source, request.getModuleType(), listener);
+                if (validation.getErrors().isEmpty()) {
+                    listener.onStage(ImportJob.IMPORTING);
+                    response = processImportData(replay, request, listener);
+                } else {
+                    response = new ImportResponse("VALIDATION_ERRORS", "Import aborted with "
+                            + validation.getErrors().size() + " errors, no records were imported",
+                            validation.getTotalRecords(), 0, validation.getFailedRecords());
+                    response.setErrors(validation.getErrors());
+                }
+            }
+
+            long elapsedMs = System.currentTimeMillis() - startTime;
+            response.setProcessingTimeMs(elapsedMs);
+            response.setRowsPerSecond(response.getTotalRecords() * 1000.0 / Math.max(1, elapsedMs));
+            return response;
+
         } catch (Exception e) {
             ImportResponse response = new ImportResponse("ERROR", "Import failed: " + e.getMessage(), 0, 0, 0);
             response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
@@ -69,18 +275,78 @@ public class ImportExportServiceImpl implements ImportExportService {
     }
 
     @Override
-    public InputStream exportData(ExportRequest request) {
-        // TODO: Implement export functionality
-        // This would query data based on the request parameters and generate the output file
-        String sampleData = "id,name,type\n1,Sample Camera,IP Camera\n2,Sample Robot,AGV";
-        return new ByteArrayInputStream(sampleData.getBytes());
+    public ExportPlan planExport(ExportRequest request) {
+        ExportSchema schema = ExportSchema.forModule(request.getModuleType());
+        if (schema == null) {
+            throw new ValidationException("Unsupported module type: " + request.getModuleType());
+        }
+
+        FileExporter exporter = fileExporters.stream()
+                .filter(candidate -> candidate.supports(request.getFileFormat()))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("Unsupported export format: " + request.getFileFormat()));
+
+        String sortBy = request.getSortBy();
+        if (sortBy != null && !sortBy.isBlank() && schema.getColumn(sortBy) == null) {
+            throw new ValidationException("Unknown sort field: " + sortBy);
+        }
+        String sortOrder = request.getSortOrder();
+        if (sortOrder != null && !"ASC".equalsIgnoreCase(sortOrder) && !"DESC".equalsIgnoreCase(sortOrder)) {
+            throw new ValidationException("Sort order must be ASC or DESC");
+        }
+
+        // Only the selected columns are queried and written
+        List<ExportColumn> columns = schema.select(request.getFields());
+
+        FilterExpression filter = filterCompiler.compile(request.getModuleType(), schema, request.getFilter());
+
+        List<String> warnings = new ArrayList<>(1);
+        if (sortBy != null && !sortBy.isBlank() && !"id".equals(sortBy)) {
+            ExportColumn sortColumn = schema.getColumn(sortBy);
+            if (!indexInspector.isIndexed(schema.getEntityClass(), sortColumn.getColumnName())) {
+                warnings.add("Sort field '" + sortBy + "' has no index, every page of the export sorts the matching rows");
+            }
+        }
+
+        return new ExportPlan(request, schema, columns, exporter, filter, warnings);
+    }
+
+    @Override
+    public String getExportETag(ExportPlan plan) {
+        return exportCache.eTag(plan);
+    }
+
+    @Override
+    public long exportData(ExportPlan plan, OutputStream outputStream) throws IOException {
+        return exportData(plan, outputStream, ExportProgressListener.NONE);
+    }
+
+    @Override
+    public long exportData(ExportPlan plan, OutputStream outputStream, ExportProgressListener listener)
+            throws IOException {
+        listener.onStage(ExportJob.EXPORTING);
+        OutputStream counted = new ProgressOutputStream(outputStream, listener);
+        long cachedRows = exportCache.serve(plan, counted);
+        if (cachedRows >= 0) {
+            listener.onRowsRead(cachedRows);
+            listener.onRowsWritten(cachedRows);
+            return cachedRows;
+        }
+
+        try (ExportCache.Recorder recorder = exportCache.record(plan, counted);
+             RowWriter writer = plan.getExporter().open(recorder, plan.getColumns())) {
+            long count = exportQueryService.export(plan, writer, listener);
+            // Formats like xlsx only produce their bytes here
+            listener.onStage(ExportJob.FINISHING);
+            writer.finish();
+            recorder.commit(count);
+            return count;
+        }
     }
 
     @Override
-    public InputStream getTemplate(String moduleType, String fileFormat) {
-        // TODO: Load template from resources based on module type and format
-        String templateData = "name,type,description\n";
-        return new ByteArrayInputStream(templateData.getBytes());
+    public TemplateRegistry.Template getTemplate(String moduleType, String fileFormat) {
+        return templateRegistry.getTemplate(moduleType, fileFormat);
     }
 
     @Override
@@ -99,6 +365,23 @@ public class ImportExportServiceImpl implements ImportExportService {
         return Arrays.asList(fileUploadConfig.getAllowedFileTypes()).contains(fileExtension);
     }
 
+    private void deleteUpload(FileMetadata upload) {
+        try {
+            fileService.deleteFile(upload.getFileName());
+        } catch (IOException e) {
+            // A leftover file is not an import failure
+            log.warn("Could not delete upload {}: {}", upload.getFileName(), e.toString());
+        }
+    }
+
+    /**
+     * Requests that bypassed the controller may carry any batch size
+     */
+    private int clampBatchSize(int batchSize) {
+        int requested = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        return Math.min(requested, Math.max(1, fileUploadConfig.getMaxBatchSize()));
+    }
+
     private FileProcessor findProcessor(String fileExtension) {
         return fileProcessors.stream()
                 .filter(processor -> processor.supports(fileExtension))
@@ -113,10 +396,282 @@ public class ImportExportServiceImpl implements ImportExportService {
         return filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
     }
 
-    private ImportResponse processImportData(List<Map<String, Object>> data, ImportRequest request) {
-        // TODO: Implement actual data processing and persistence
-        // This would save the data to the database based on the module type
-        int totalRecords = data.size();
-        return new ImportResponse("SUCCESS", "Data imported successfully", totalRecords, totalRecords, 0);
+    private ImportResponse processImportData(RowSource source, ImportRequest request,
+                                             ImportProgressListener listener) throws Exception {
+        BatchingSink sink = new BatchingSink(request, listener);
+        int totalRecords = source.read(sink);
+        sink.flush();
+        if (!sink.deferredChecks.isEmpty()) {
+            // Rows failing a lookup are reported when their batch is looked up
+            sink.errors.sort(Comparator.comparingInt(ValidationError::getRow));
+        }
+
+        int failedRecords = totalRecords - sink.validRecords;
+        ImportResponse response;
+        if (sink.errors.isEmpty()) {
+            response = new ImportResponse("SUCCESS", "Data imported successfully", totalRecords, sink.importedRecords, 0);
+        } else if (request.isSkipErrors()) {
+            response = new ImportResponse("SUCCESS", "Data imported, skipped " + failedRecords + " invalid records",
+                    totalRecords, sink.importedRecords, failedRecords);
+        } else if (sink.importedRecords == 0) {
+            response = new ImportResponse("VALIDATION_ERRORS", "Import aborted with " + sink.errors.size()
+                    + " errors, no records were imported", totalRecords, 0, failedRecords);
+        } else {
+            // The rows were valid when they were validated, the table changed before all of them were written
+            response = new ImportResponse("VALIDATION_ERRORS", "Import stopped with " + sink.errors.size()
+                    + " errors after " + sink.importedRecords + " records were imported", totalRecords,
+                    sink.importedRecords, failedRecords);
+        }
+        response.setErrors(sink.errors);
+        return response;
+    }
+
+    /**
+     * Validates rows as they arrive, maps valid ones onto entities and writes
+     * them in batches of {@link ImportRequest#getBatchSize()}, so at most one
+     * batch is held in memory.
+     * Without skipErrors the rows have all been validated before, and a row
+     * failing now, because another import wrote the same unique value in the
+     * meantime, stops further batches from being written. The rest of the
+     * file is still validated for the error report.
+     * Unique values and references are checked against what is known so far
+     * and, before each batch is written, the rest is looked up together.
+     */
+    private class BatchingSink implements RowSink {
+
+        private final ImportRequest request;
+        private final ImportProgressListener listener;
+        private final ValidationPlan plan;
+        private final int batchSize;
+        private final List<Object> batch = new ArrayList<>();
+        // Grown as the batch fills, a large batchSize costs nothing until rows arrive
+        private int[] batchRows = new int[64];
+        private final List<DeferredCheck> deferredChecks;
+        private final List<ValidationError> errors = new ArrayList<>();
+        private int processedRecords;
+        private int validRecords;
+        private int importedRecords;
+
+        BatchingSink(ImportRequest request, ImportProgressListener listener) {
+            this.request = request;
+            this.listener = listener;
+            this.plan = validationService.getPlan(request.getModuleType());
+            this.batchSize = clampBatchSize(request.getBatchSize());
+            this.deferredChecks = validationService.newDeferredChecks(request.getModuleType(), plan);
+        }
+
+        @Override
+        public boolean accept(Map<String, Object> row, int rowNumber) {
+            listener.onRowsParsed(++processedRecords);
+            handle(row, rowNumber);
+            listener.onRowsValidated(processedRecords, processedRecords - validRecords, errors.size());
+            return true;
+        }
+
+        @Override
+        public void bytesRead(long bytesRead) {
+            listener.onBytesRead(bytesRead);
+        }
+
+        private void handle(Map<String, Object> row, int rowNumber) {
+            int errorCount = errors.size();
+            validationService.validateRow(row, plan, request.getModuleType(), rowNumber, errors);
+            for (DeferredCheck check : deferredChecks) {
+                check.check(row, rowNumber, errors);
+            }
+            Object entity = errors.size() == errorCount
+                    ? entityRowMapper.toEntity(request.getModuleType(), row, rowNumber, errors) : null;
+            if (entity == null) {
+                for (DeferredCheck check : deferredChecks) {
+                    check.discard(rowNumber);
+                }
+                if (!request.isSkipErrors()) {
+                    batch.clear();
+                }
+                return;
+            }
+
+            validRecords++;
+            if (request.isSkipErrors() || errors.isEmpty()) {
+                if (batch.size() == batchRows.length) {
+                    batchRows = Arrays.copyOf(batchRows, Math.min(batchSize, batchRows.length * 2));
+                }
+                batchRows[batch.size()] = rowNumber;
+                batch.add(entity);
+            }
+            for (DeferredCheck check : deferredChecks) {
+                if (check.isFull()) {
+                    resolveDeferredChecks();
+                    break;
+                }
+            }
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Resolve the queued lookups, all together so that a row is counted
+         * once. Every queued row was valid so far, failing ones are taken out
+         * of the batch, or without skipErrors the batch is dropped like for
+         * any other invalid row.
+         */
+        private void resolveDeferredChecks() {
+            int errorCount = errors.size();
+            for (DeferredCheck check : deferredChecks) {
+                check.resolve(errors);
+            }
+            if (errors.size() == errorCount) {
+                return;
+            }
+
+            Set<Integer> failedRows = new HashSet<>();
+            for (ValidationError error : errors.subList(errorCount, errors.size())) {
+                failedRows.add(error.getRow());
+            }
+            validRecords -= failedRows.size();
+            if (!request.isSkipErrors()) {
+                batch.clear();
+                return;
+            }
+            int kept = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                if (!failedRows.contains(batchRows[i])) {
+                    batchRows[kept] = batchRows[i];
+                    batch.set(kept++, batch.get(i));
+                }
+            }
+            batch.subList(kept, batch.size()).clear();
+        }
+
+        void flush() {
+            resolveDeferredChecks();
+            if (!batch.isEmpty()) {
+                // Before, so no export is cached while the batch commits, and after, for exports read meanwhile
+                exportCache.invalidate(request.getModuleType());
+                try {
+                    importedRecords += persistenceService.persistBatch(batch, batchSize);
+                } finally {
+                    exportCache.invalidate(request.getModuleType());
+                }
+                batch.clear();
+                listener.onRowsPersisted(importedRecords);
+            }
+        }
+    }
+
+    /**
+     * Reports the bytes written through it. The stream it wraps belongs to
+     * the caller and is not closed.
+     */
+    private static class ProgressOutputStream extends FilterOutputStream {
+
+        private final ExportProgressListener listener;
+        private long bytesWritten;
+
+        ProgressOutputStream(OutputStream out, ExportProgressListener listener) {
+            super(out);
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            listener.onBytesWritten(++bytesWritten);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            bytesWritten += length;
+            listener.onBytesWritten(bytesWritten);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * Copies every byte read from a request body into a file, and fails the
+     * read once more than the allowed size has arrived. Processors close the
+     * stream when they are done, which leaves both the body and the copy
+     * open: the rest of the body still has to reach the copy, which the
+     * caller closes.
+     */
+    private static class TeeInputStream extends FilterInputStream {
+
+        private final OutputStream copy;
+        private final long maxSize;
+        private final MessageDigest digest = FileService.sha256();
+        private long bytesRead;
+        private boolean closed;
+
+        TeeInputStream(InputStream in, OutputStream copy, long maxSize) {
+            super(in);
+            this.copy = copy;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = in.read(bytes, offset, length);
+            if (read > 0) {
+                bytesRead += read;
+                if (bytesRead > maxSize) {
+                    throw new IOException("File is larger than " + maxSize + " bytes");
+                }
+                copy.write(bytes, offset, read);
+                digest.update(bytes, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes have to reach the copy too
+            return read(new byte[(int) Math.min(n, 8192)]);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Read what the processor left, such as trailing whitespace, and
+         * close the copy, so the file is complete before the body is closed
+         */
+        void finish() throws IOException {
+            byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) != -1) {
+                // Copied by read
+            }
+            if (!closed) {
+                closed = true;
+                copy.close();
+            }
+        }
+
+        /**
+         * @return the hex SHA-256 of the bytes read
+         */
+        String checksum() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        /**
+         * Closes nothing, the request body belongs to the container and the copy to the caller
+         */
+        @Override
+        public void close() {
+        }
     }
-}
\ No newline at end of file
+}
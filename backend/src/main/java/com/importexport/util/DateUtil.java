@@ -1,5 +1,6 @@
 package com.importexport.util;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -8,12 +9,14 @@ public class DateUtil {
 
     private static final DateTimeFormatter[] COMMON_FORMATS = {
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME
+    };
+
+    private static final DateTimeFormatter[] DATE_ONLY_FORMATS = {
             DateTimeFormatter.ofPattern("yyyy-MM-dd"),
             DateTimeFormatter.ofPattern("MM/dd/yyyy"),
             DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-            DateTimeFormatter.ofPattern("yyyy/MM/dd"),
-            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
-            DateTimeFormatter.ISO_LOCAL_DATE
+            DateTimeFormatter.ofPattern("yyyy/MM/dd")
     };
 
     public static LocalDateTime parseDate(String dateString) {
@@ -30,6 +33,15 @@ public class DateUtil {
                 // Try next format
             }
         }
+
+        // Date-only values mean the start of that day
+        for (DateTimeFormatter formatter : DATE_ONLY_FORMATS) {
+            try {
+                return LocalDate.parse(trimmedDate, formatter).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // Try next format
+            }
+        }
         
         throw new IllegalArgumentException("Unable to parse date: " + dateString);
     }
@@ -0,0 +1,52 @@
+package com.importexport.validation;
+
+/**
+ * Bloom filter over 64-bit hashes, sized for an expected number of keys and
+ * false positive rate. The probe positions are derived from the two halves
+ * of the hash (Kirsch and Mitzenmacher), so a key is hashed once. A miss is
+ * certain, a hit only means the key may have been added. Not thread-safe.
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param falsePositiveRate Between 0 and 1 exclusive
+     */
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1");
+        }
+        long keys = Math.max(1, expectedKeys);
+        long optimalBits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (Math.max(64, optimalBits) + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / keys * Math.log(2))));
+    }
+
+    public void add(long hash) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(first + (long) i * second, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if the hash was certainly never added
+     */
+    public boolean mightContain(long hash) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(first + (long) i * second, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
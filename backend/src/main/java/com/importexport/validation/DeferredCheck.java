@@ -0,0 +1,34 @@
+package com.importexport.validation;
+
+import com.importexport.dto.ValidationError;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A check that needs the database. Rows are fed in row order from a single
+ * thread, what can be decided from the rows before is reported right away,
+ * and the rest is queued and looked up in bulk by {@link #resolve}, so rows
+ * cost queries per batch instead of per row. Errors of a resolve come after
+ * those of later rows, callers restore row order.
+ */
+public interface DeferredCheck {
+
+    void check(Map<String, Object> row, int rowNumber, List<ValidationError> errors);
+
+    /**
+     * Take the values of the row last checked off the queue, for a row
+     * that is rejected anyway
+     */
+    void discard(int rowNumber);
+
+    /**
+     * @return true once enough values are queued for a full lookup
+     */
+    boolean isFull();
+
+    /**
+     * Look up the queued values and report the rows that fail
+     */
+    void resolve(List<ValidationError> errors);
+}
@@ -0,0 +1,196 @@
+package com.importexport.validation;
+
+import com.importexport.dto.ValidationError;
+
+/**
+ * The checks a validation plan can apply to a field. Every rule except
+ * REQUIRED ignores blank values. Values are scanned in place between their
+ * trimmed bounds, so a valid value is checked without copying it.
+ */
+public enum FieldRule {
+
+    REQUIRED {
+        @Override
+        ValidationError check(String field, Object value, int rowNum) {
+            if (value == null || isBlank(value.toString())) {
+                return new ValidationError(rowNum, field, "REQUIRED", "Field '" + field + "' is required",
+                        value != null ? value.toString() : "null", "non-empty value");
+            }
+            return null;
+        }
+    },
+
+    EMAIL {
+        @Override
+        ValidationError check(String field, Object value, int rowNum) {
+            if (value == null) {
+                return null;
+            }
+            String text = value.toString();
+            int from = trimStart(text);
+            int to = trimEnd(text, from);
+            if (from == to || isEmail(text, from, to)) {
+                return null;
+            }
+            return new ValidationError(rowNum, field, "INVALID_EMAIL", "Invalid email format",
+                    text.substring(from, to), "valid email format");
+        }
+    },
+
+    BOOLEAN {
+        @Override
+        ValidationError check(String field, Object value, int rowNum) {
+            if (value == null) {
+                return null;
+            }
+            String text = value.toString();
+            int from = trimStart(text);
+            int to = trimEnd(text, from);
+            if (from == to || isBoolean(text, from, to)) {
+                return null;
+            }
+            return new ValidationError(rowNum, field, "INVALID_BOOLEAN", "Invalid boolean value",
+                    text, "true, false, 1, or 0");
+        }
+    },
+
+    INTEGER {
+        @Override
+        ValidationError check(String field, Object value, int rowNum) {
+            if (value == null) {
+                return null;
+            }
+            String text = value.toString();
+            int from = trimStart(text);
+            int to = trimEnd(text, from);
+            if (from == to) {
+                return null;
+            }
+            try {
+                Integer.parseInt(text, from, to, 10);
+                return null;
+            } catch (NumberFormatException e) {
+                return new ValidationError(rowNum, field, "INVALID_INTEGER", "Invalid integer value",
+                        text, "valid integer");
+            }
+        }
+    },
+
+    DOUBLE {
+        @Override
+        ValidationError check(String field, Object value, int rowNum) {
+            if (value == null) {
+                return null;
+            }
+            String text = value.toString();
+            if (isBlank(text)) {
+                return null;
+            }
+            try {
+                // parseDouble trims its input itself
+                Double.parseDouble(text);
+                return null;
+            } catch (NumberFormatException e) {
+                return new ValidationError(rowNum, field, "INVALID_DOUBLE", "Invalid decimal value",
+                        text, "valid decimal number");
+            }
+        }
+    };
+
+    /**
+     * @return the error for this value, or null if it passes
+     */
+    abstract ValidationError check(String field, Object value, int rowNum);
+
+    private static boolean isBlank(String text) {
+        return trimStart(text) == text.length();
+    }
+
+    // Same bounds as String.trim()
+    private static int trimStart(String text) {
+        int from = 0;
+        while (from < text.length() && text.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(String text, int from) {
+        int to = text.length();
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * "true", "false" in any case, "1" or "0"
+     */
+    private static boolean isBoolean(String text, int from, int to) {
+        int length = to - from;
+        if (length == 1) {
+            char c = text.charAt(from);
+            return c == '1' || c == '0';
+        }
+        return (length == 4 && equalsAsciiIgnoreCase(text, from, "true"))
+                || (length == 5 && equalsAsciiIgnoreCase(text, from, "false"));
+    }
+
+    private static boolean equalsAsciiIgnoreCase(String text, int from, String lowerCase) {
+        for (int i = 0; i < lowerCase.length(); i++) {
+            char c = text.charAt(from + i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != lowerCase.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scanner for {@code ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$}. Letters
+     * cannot contain a dot, so the top-level domain is whatever follows the last dot.
+     */
+    private static boolean isEmail(String text, int from, int to) {
+        int at = from;
+        while (at < to && isLocalChar(text.charAt(at))) {
+            at++;
+        }
+        if (at == from || at == to || text.charAt(at) != '@') {
+            return false;
+        }
+
+        int lastDot = -1;
+        for (int i = at + 1; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+            } else if (!isLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        if (lastDot <= at + 1 || to - lastDot - 1 < 2) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < to; i++) {
+            if (!isLetter(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isLetterOrDigit(c) || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+}
@@ -0,0 +1,63 @@
+package com.importexport.validation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The row each distinct value was first seen on, kept as two independent
+ * 64-bit hashes of the value instead of the value itself. A primitive hash
+ * map goes from the first hash to an entry holding the second hash and the
+ * row, and a value only matches an entry if both hashes do. A value whose
+ * first hash is taken by a different value is kept whole in an overflow
+ * map, so a collision on one hash never makes two values equal. About 36
+ * bytes per value however long the values are. Not thread-safe.
+ */
+public final class FirstRowIndex {
+
+    // From the first hash to the entry number plus one
+    private final LongIntHashMap entries;
+    private long[] checkHashes;
+    private int[] firstRows;
+    private int entryCount;
+    private final Map<String, Integer> collisions = new HashMap<>();
+
+    public FirstRowIndex(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.entries = new LongIntHashMap(capacity);
+        this.checkHashes = new long[capacity];
+        this.firstRows = new int[capacity];
+    }
+
+    /**
+     * @param hash First hash of the value
+     * @param checkHash Second hash of the value, independent of the first
+     * @param rowNumber A row number greater than 0
+     * @return the row the value was first seen on, or 0 if this is its
+     *         first occurrence and it has been recorded
+     */
+    public int putIfAbsent(String value, long hash, long checkHash, int rowNumber) {
+        int entry = entries.putIfAbsent(hash, entryCount + 1);
+        if (entry == 0) {
+            if (entryCount == firstRows.length) {
+                checkHashes = Arrays.copyOf(checkHashes, entryCount * 2);
+                firstRows = Arrays.copyOf(firstRows, entryCount * 2);
+            }
+            checkHashes[entryCount] = checkHash;
+            firstRows[entryCount++] = rowNumber;
+            return 0;
+        }
+        if (checkHashes[entry - 1] == checkHash) {
+            return firstRows[entry - 1];
+        }
+        Integer firstRow = collisions.putIfAbsent(value, rowNumber);
+        return firstRow != null ? firstRow : 0;
+    }
+
+    /**
+     * @return the number of distinct values recorded
+     */
+    public int size() {
+        return entryCount + collisions.size();
+    }
+}
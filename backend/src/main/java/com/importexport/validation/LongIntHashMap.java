@@ -0,0 +1,112 @@
+package com.importexport.validation;
+
+/**
+ * Map from long keys to positive int values in two primitive arrays, with
+ * open addressing and linear probing. Keys are expected to be well mixed
+ * hashes already, so they are used as slots without further spreading. An
+ * entry costs 12 bytes of table at most twice over, against several objects
+ * per entry in a HashMap of boxed keys. Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+    // Key 0 marks empty slots, so it is kept aside
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * @param value A value greater than 0
+     * @return the value already mapped to the key, or 0 if there was none
+     *         and the value has been put
+     */
+    public int putIfAbsent(long key, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Values must be greater than 0");
+        }
+        if (key == 0) {
+            if (zeroValue != 0) {
+                return zeroValue;
+            }
+            zeroValue = value;
+            size++;
+            return 0;
+        }
+
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            grow();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the value mapped to the key, or 0 if there is none
+     */
+    public int get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeAt = capacity * 3 / 4;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = (int) (key ^ (key >>> 32)) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.importexport.validation;
+
+import com.importexport.dto.ValidationError;
+import com.importexport.processor.CompactRow;
+import com.importexport.processor.RowSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The validation rules of one module, compiled into parallel field/rule
+ * arrays. Against a {@link CompactRow} the fields are resolved to slots once
+ * per file schema, so each row is checked by index without key lookups.
+ * Plans are immutable apart from that binding and safe to share across threads.
+ * Unique fields and references to other modules are only declared here,
+ * checking them takes the database, see DuplicateCheckService and
+ * ReferenceCheckService.
+ */
+public final class ValidationPlan {
+
+    private final String[] fields;
+    private final FieldRule[] rules;
+    private final String[] uniqueFields;
+    private final Reference[] references;
+    private volatile Binding binding;
+
+    public ValidationPlan(String[] fields, FieldRule[] rules) {
+        this(fields, rules, new String[0], new Reference[0]);
+    }
+
+    public ValidationPlan(String[] fields, FieldRule[] rules, String[] uniqueFields, Reference[] references) {
+        if (fields.length != rules.length) {
+            throw new IllegalArgumentException("Each field needs exactly one rule");
+        }
+        this.fields = fields.clone();
+        this.rules = rules.clone();
+        this.uniqueFields = uniqueFields.clone();
+        this.references = references.clone();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void validate(Map<String, Object> row, int rowNum, List<ValidationError> errors) {
+        if (row instanceof CompactRow) {
+            CompactRow compactRow = (CompactRow) row;
+            int[] slots = bind(compactRow.getSchema());
+            for (int i = 0; i < rules.length; i++) {
+                ValidationError error = rules[i].check(fields[i], compactRow.get(slots[i]), rowNum);
+                if (error != null) {
+                    errors.add(error);
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < rules.length; i++) {
+            ValidationError error = rules[i].check(fields[i], row.get(fields[i]), rowNum);
+            if (error != null) {
+                errors.add(error);
+            }
+        }
+    }
+
+    /**
+     * @return the fields whose values must be unique, empty if there are none
+     */
+    public String[] getUniqueFields() {
+        return uniqueFields.clone();
+    }
+
+    /**
+     * @return the references to rows of other modules, empty if there are none
+     */
+    public Reference[] getReferences() {
+        return references.clone();
+    }
+
+    private int[] bind(RowSchema schema) {
+        Binding current = binding;
+        if (current == null || current.schema != schema) {
+            int[] slots = new int[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                slots[i] = schema.slotOf(fields[i]);
+            }
+            current = new Binding(schema, slots);
+            binding = current;
+        }
+        return current.slots;
+    }
+
+    private static final class Binding {
+
+        private final RowSchema schema;
+        private final int[] slots;
+
+        Binding(RowSchema schema, int[] slots) {
+            this.schema = schema;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * A field holding the value of a field of another module, which has to
+     * exist there
+     */
+    public static final class Reference {
+
+        private final String field;
+        private final String targetModule;
+        private final String targetField;
+
+        public Reference(String field, String targetModule, String targetField) {
+            this.field = field;
+            this.targetModule = targetModule;
+            this.targetField = targetField;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getTargetModule() {
+            return targetModule;
+        }
+
+        public String getTargetField() {
+            return targetField;
+        }
+    }
+
+    public static class Builder {
+
+        private final List<String> fields = new ArrayList<>();
+        private final List<FieldRule> rules = new ArrayList<>();
+        private final List<String> uniqueFields = new ArrayList<>();
+        private final List<Reference> references = new ArrayList<>();
+
+        public Builder check(String field, FieldRule... fieldRules) {
+            for (FieldRule rule : fieldRules) {
+                fields.add(field);
+                rules.add(rule);
+            }
+            return this;
+        }
+
+        /**
+         * Declare a field whose values must not repeat within the file or
+         * match a row already in the table
+         */
+        public Builder unique(String field) {
+            uniqueFields.add(field);
+            return this;
+        }
+
+        /**
+         * Declare a field whose values, if not blank, must match the target
+         * field of an existing row of the target module
+         */
+        public Builder references(String field, String targetModule, String targetField) {
+            references.add(new Reference(field, targetModule, targetField));
+            return this;
+        }
+
+        public ValidationPlan build() {
+            return new ValidationPlan(fields.toArray(new String[0]), rules.toArray(new FieldRule[0]),
+                    uniqueFields.toArray(new String[0]), references.toArray(new Reference[0]));
+        }
+    }
+}
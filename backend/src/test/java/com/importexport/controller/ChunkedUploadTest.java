@@ -0,0 +1,149 @@
+package com.importexport.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.importexport.service.FileService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.file-upload.upload-path=target/test-uploads",
+        "app.file-upload.max-chunk-size=16"
+})
+@AutoConfigureMockMvc
+class ChunkedUploadTest {
+
+    private static final byte[] FILE = ("name,model\n"
+            + "U1,arm\n"
+            + "U2,arm\n"
+            + "U3,arm\n").getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void importsAFileSentInChunksOutOfOrder() throws Exception {
+        String uploadId = createUpload(checksum(FILE));
+
+        putChunk(uploadId, 20, 32).andExpect(status().isOk());
+        putChunk(uploadId, 0, 10)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedBytes").value(22));
+
+        mockMvc.perform(get("/api/robot/import/uploads/" + uploadId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UPLOADING"))
+                .andExpect(jsonPath("$.receivedRanges.length()").value(2))
+                .andExpect(jsonPath("$.receivedRanges[0][0]").value(0))
+                .andExpect(jsonPath("$.receivedRanges[0][1]").value(10))
+                .andExpect(jsonPath("$.receivedRanges[1][0]").value(20))
+                .andExpect(jsonPath("$.receivedRanges[1][1]").value(32));
+
+        // Bytes are missing still
+        mockMvc.perform(post("/api/robot/import/uploads/" + uploadId + "/complete"))
+                .andExpect(status().isBadRequest());
+
+        // Overlaps both received ranges
+        putChunk(uploadId, 8, 24).andExpect(status().isOk());
+        mockMvc.perform(get("/api/robot/import/uploads/" + uploadId))
+                .andExpect(jsonPath("$.receivedBytes").value(FILE.length))
+                .andExpect(jsonPath("$.receivedRanges.length()").value(1));
+
+        String response = mockMvc.perform(post("/api/robot/import/uploads/" + uploadId + "/complete")
+                        .param("validateOnly", "true"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(response).get("jobId").asText();
+
+        JsonNode job = awaitJob(jobId);
+        assertEquals("COMPLETED", job.get("status").asText(), job.toString());
+        assertEquals("VALID", job.get("result").get("status").asText(), job.toString());
+        assertEquals(3, job.get("result").get("totalRecords").asInt(), job.toString());
+
+        // The session is gone once its import is queued
+        mockMvc.perform(get("/api/robot/import/uploads/" + uploadId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void resetsTheUploadOnAChecksumMismatch() throws Exception {
+        byte[] other = FILE.clone();
+        other[other.length - 2] = 'x';
+        String uploadId = createUpload(checksum(other));
+
+        putChunk(uploadId, 0, 16).andExpect(status().isOk());
+        putChunk(uploadId, 16, FILE.length).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/robot/import/uploads/" + uploadId + "/complete"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/robot/import/uploads/" + uploadId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UPLOADING"))
+                .andExpect(jsonPath("$.receivedBytes").value(0))
+                .andExpect(jsonPath("$.receivedRanges.length()").value(0));
+    }
+
+    @Test
+    void rejectsChunksLongerThanTheChunkSize() throws Exception {
+        String uploadId = createUpload(checksum(FILE));
+
+        putChunk(uploadId, 0, 17).andExpect(status().isBadRequest());
+        // Past the end of the file
+        mockMvc.perform(put("/api/robot/import/uploads/" + uploadId).param("offset", String.valueOf(FILE.length))
+                        .contentType("application/octet-stream").content(new byte[1]))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/robot/import/uploads/" + uploadId))
+                .andExpect(jsonPath("$.receivedBytes").value(0));
+    }
+
+    private String createUpload(String checksum) throws Exception {
+        String response = mockMvc.perform(post("/api/robot/import/uploads")
+                        .param("fileName", "robots.csv")
+                        .param("fileSize", String.valueOf(FILE.length))
+                        .param("checksum", checksum))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("uploadId").asText();
+    }
+
+    private ResultActions putChunk(String uploadId, int from, int to) throws Exception {
+        return mockMvc.perform(put("/api/robot/import/uploads/" + uploadId).param("offset", String.valueOf(from))
+                .contentType("application/octet-stream").content(Arrays.copyOfRange(FILE, from, to)));
+    }
+
+    private JsonNode awaitJob(String jobId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String response = mockMvc.perform(get("/api/robot/import/jobs/" + jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(response);
+            if (job.get("completedAt") != null && !job.get("completedAt").isNull()) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Import job " + jobId + " did not finish");
+    }
+
+    private static String checksum(byte[] content) {
+        return HexFormat.of().formatHex(FileService.sha256().digest(content));
+    }
+}
@@ -0,0 +1,71 @@
+package com.importexport.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.file-upload.upload-path=target/test-uploads",
+        "app.export-cache.cache-path=target/test-export-cache"
+})
+@AutoConfigureMockMvc
+class ExportETagTest {
+
+    private static final String EXPORT = "{\"fileFormat\":\"csv\",\"fields\":[\"name\",\"type\"]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void answersNotModifiedUntilTheModuleIsImported() throws Exception {
+        String eTag = export(null);
+
+        mockMvc.perform(exportRequest(eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        mockMvc.perform(exportRequest("\"other\", W/" + eTag))
+                .andExpect(status().isNotModified());
+
+        MockMultipartFile file = new MockMultipartFile("file", "maps.csv", "text/csv",
+                "name,type,isActive\nFloor 1,grid,true\n".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(multipart("/api/map/import").file(file))
+                .andExpect(status().isOk());
+
+        assertNotEquals(eTag, export(eTag));
+    }
+
+    private String export(String ifNoneMatch) throws Exception {
+        MvcResult result = mockMvc.perform(exportRequest(ifNoneMatch))
+                .andExpect(status().isOk())
+                .andReturn();
+        // The body is streamed, wait for it so the export is complete
+        mockMvc.perform(asyncDispatch(result));
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+
+    private static MockHttpServletRequestBuilder exportRequest(String ifNoneMatch) {
+        MockHttpServletRequestBuilder request = post("/api/map/export")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(EXPORT);
+        return ifNoneMatch != null ? request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch) : request;
+    }
+}
@@ -0,0 +1,159 @@
+package com.importexport.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.importexport.dto.ExportJob;
+import com.importexport.dto.ExportRequest;
+import com.importexport.export.ExportPlan;
+import com.importexport.service.ExportProgressListener;
+import com.importexport.service.ImportExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.file-upload.upload-path=target/test-uploads",
+        "app.export-cache.cache-path=target/test-export-cache"
+})
+@AutoConfigureMockMvc
+class ExportJobTest {
+
+    private static final String TYPE = "export-job-test";
+    private static final String EXPORT = "{\"fileFormat\":\"csv\",\"fields\":[\"name\"],\"filter\":\"type = '"
+            + TYPE + "'\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImportExportService importExportService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void importTasks() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "tasks.csv", "text/csv",
+                ("name,type\nE1," + TYPE + "\nE2," + TYPE + "\nE3," + TYPE + "\n").getBytes(StandardCharsets.UTF_8));
+        // Later runs in the same context get the earlier response, the rows are there already
+        mockMvc.perform(multipart("/api/task/import").file(file))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void reportsTheProgressOfADownloadedExport() throws Exception {
+        String jobId = createJob();
+        mockMvc.perform(get("/api/task/export/jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.fileFormat").value("csv"));
+
+        MvcResult download = mockMvc.perform(get("/api/task/export/jobs/" + jobId + "/file"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(download))
+                .andExpect(status().isOk());
+        String content = download.getResponse().getContentAsString();
+        assertEquals("name\nE1\nE2\nE3\n", content.replace("\r\n", "\n"));
+
+        mockMvc.perform(get("/api/task/export/jobs/" + jobId))
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.stage").value("COMPLETED"))
+                .andExpect(jsonPath("$.rowsRead").value(3))
+                .andExpect(jsonPath("$.rowsWritten").value(3))
+                .andExpect(jsonPath("$.bytesWritten").value(content.getBytes(StandardCharsets.UTF_8).length));
+
+        // A job is downloaded once
+        mockMvc.perform(get("/api/task/export/jobs/" + jobId + "/file"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void streamsTheFinishedJob() throws Exception {
+        String jobId = createJob();
+        MvcResult download = mockMvc.perform(get("/api/task/export/jobs/" + jobId + "/file")).andReturn();
+        mockMvc.perform(asyncDispatch(download));
+
+        MvcResult events = mockMvc.perform(get("/api/task/export/jobs/" + jobId + "/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        events.getAsyncResult(5000);
+        String stream = events.getResponse().getContentAsString();
+        assertTrue(stream.startsWith("event:complete\nid:" + jobId + "\n"), stream);
+        JsonNode job = objectMapper.readTree(stream.substring(stream.indexOf("data:") + 5).trim());
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(3, job.get("rowsWritten").asInt());
+    }
+
+    @Test
+    void rejectsInvalidRequestsAndUnknownJobs() throws Exception {
+        mockMvc.perform(post("/api/task/export/jobs").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileFormat\":\"pdf\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/task/export/jobs/unknown"))
+                .andExpect(status().isNotFound());
+
+        String jobId = createJob();
+        mockMvc.perform(get("/api/robot/export/jobs/" + jobId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/robot/export/jobs/" + jobId + "/file"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void sendsXlsxBytesOnlyOnceTheWorkbookIsFinished() throws Exception {
+        ExportPlan plan = importExportService.planExport(new ExportRequest("task", "xlsx", List.of("name"),
+                "type = '" + TYPE + "'", null, null, false));
+        List<String> events = new ArrayList<>();
+        ExportProgressListener listener = new ExportProgressListener() {
+            @Override
+            public void onStage(String stage) {
+                events.add(stage);
+            }
+
+            @Override
+            public void onRowsWritten(long rowsWritten) {
+                events.add("row " + rowsWritten);
+            }
+
+            @Override
+            public void onBytesWritten(long bytesWritten) {
+                if (!events.get(events.size() - 1).equals("bytes")) {
+                    events.add("bytes");
+                }
+            }
+        };
+
+        importExportService.exportData(plan, new ByteArrayOutputStream(), listener);
+
+        assertEquals(List.of(ExportJob.EXPORTING, "row 1", "row 2", "row 3", ExportJob.FINISHING, "bytes"), events);
+    }
+
+    private String createJob() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/task/export/jobs").contentType(MediaType.APPLICATION_JSON)
+                        .content(EXPORT))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("jobId").asText();
+    }
+}
@@ -0,0 +1,40 @@
+package com.importexport.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.file-upload.upload-path=target/test-uploads",
+        "app.file-upload.max-batch-size=2"
+})
+@AutoConfigureMockMvc
+class ImportBatchSizeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void lowersOversizedBatchSize() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "cameras.csv", "text/csv",
+                ("name,type,ipAddress,isActive\n"
+                        + "Gate 1,ip,10.0.0.1,true\n"
+                        + "Gate 2,ip,10.0.0.2,true\n"
+                        + "Gate 3,ip,10.0.0.3,true\n").getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/camera/import").file(file)
+                        .param("batchSize", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.successfulRecords").value(3));
+    }
+}
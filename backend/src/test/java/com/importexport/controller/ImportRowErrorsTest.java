@@ -0,0 +1,121 @@
+package com.importexport.controller;
+
+import com.importexport.entity.Robot;
+import com.importexport.service.KeyLookup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.file-upload.upload-path=target/test-uploads")
+@AutoConfigureMockMvc
+class ImportRowErrorsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private KeyLookup keyLookup;
+
+    @Test
+    void reportsValuesTheInsertWouldRejectAsRowErrors() throws Exception {
+        MockMultipartFile file = csv("robots.csv", "name,model,description\n"
+                + "R1,arm,short\n"
+                + "R2,arm," + "d".repeat(256) + "\n"
+                + "R3,arm,short\n");
+
+        mockMvc.perform(multipart("/api/robot/import").file(file).param("skipErrors", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.successfulRecords").value(2))
+                .andExpect(jsonPath("$.failedRecords").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[0].field").value("description"))
+                .andExpect(jsonPath("$.errors[0].errorCode").value("INVALID_LENGTH"));
+    }
+
+    @Test
+    void importsNothingWhenALaterRowFailsAndErrorsAreNotSkipped() throws Exception {
+        long before = keyLookup.count(Robot.class);
+        MockMultipartFile file = csv("robots.csv", "name,model,description\n"
+                + "A1,arm,short\n"
+                + "A2,arm,short\n"
+                + "A3,,short\n");
+
+        mockMvc.perform(multipart("/api/robot/import").file(file).param("batchSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("VALIDATION_ERRORS"))
+                .andExpect(jsonPath("$.successfulRecords").value(0))
+                .andExpect(jsonPath("$.failedRecords").value(1))
+                .andExpect(jsonPath("$.message").value("Import aborted with 1 errors, no records were imported"))
+                .andExpect(jsonPath("$.errors[0].row").value(4));
+
+        assertEquals(before, keyLookup.count(Robot.class));
+    }
+
+    @Test
+    void importsNothingFromAStreamedBodyWithAFailingRow() throws Exception {
+        long before = keyLookup.count(Robot.class);
+        String body = "name,model,description\n"
+                + "S1,arm,short\n"
+                + "S2,arm," + "d".repeat(256) + "\n";
+
+        mockMvc.perform(post("/api/robot/import/stream").param("fileName", "robots.csv").param("batchSize", "1")
+                        .contentType("text/csv").content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("VALIDATION_ERRORS"))
+                .andExpect(jsonPath("$.successfulRecords").value(0))
+                .andExpect(jsonPath("$.errors[0].errorCode").value("INVALID_LENGTH"));
+
+        assertEquals(before, keyLookup.count(Robot.class));
+    }
+
+    @Test
+    void importsAValidStreamedBodyAfterValidatingIt() throws Exception {
+        long before = keyLookup.count(Robot.class);
+        String body = "name,model,description\n"
+                + "V1,arm,short\n"
+                + "V2,arm,short\n";
+
+        mockMvc.perform(post("/api/robot/import/stream").param("fileName", "robots.csv").param("batchSize", "1")
+                        .contentType("text/csv").content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.successfulRecords").value(2));
+
+        assertEquals(before + 2, keyLookup.count(Robot.class));
+    }
+
+    @Test
+    void rejectsTasksAssignedToUnknownUsers() throws Exception {
+        mockMvc.perform(multipart("/api/user/import").file(csv("users.csv", "username,email\n"
+                        + "ref-known,ref-known@example.com\n")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.successfulRecords").value(1));
+        MockMultipartFile file = csv("tasks.csv", "name,type,assignedTo\n"
+                + "T1,chore,ref-known\n"
+                + "T2,chore,ref-unknown\n");
+
+        mockMvc.perform(multipart("/api/task/import").file(file).param("validateOnly", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failedRecords").value(1))
+                .andExpect(jsonPath("$.errors.length()").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[0].field").value("assignedTo"))
+                .andExpect(jsonPath("$.errors[0].errorCode").value("INVALID_REFERENCE"));
+    }
+
+    private static MockMultipartFile csv(String name, String content) {
+        return new MockMultipartFile("file", name, "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,59 @@
+package com.importexport.controller;
+
+import com.importexport.service.FileService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.file-upload.upload-path=target/test-uploads")
+@AutoConfigureMockMvc
+class ImportStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void keepsTheBodyOfARejectedImport() throws Exception {
+        byte[] body = ("name,model,description\n"
+                + "K1,arm,short\n"
+                + "K2,,short\n").getBytes(StandardCharsets.UTF_8);
+
+        mockMvc.perform(post("/api/robot/import/stream").param("fileName", "robots.csv")
+                        .contentType("application/octet-stream").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("VALIDATION_ERRORS"));
+
+        assertArrayEquals(body, Files.readAllBytes(storedCopy(body, "csv")));
+    }
+
+    @Test
+    void keepsTheWholeBodyOfAFailedImport() throws Exception {
+        // The parser stops at the broken record, the rest of the body is still kept
+        byte[] body = ("[{\"name\": \"K3\", \"model\": \"arm\"}, {\"name\": ]"
+                + " ".repeat(100_000)).getBytes(StandardCharsets.UTF_8);
+
+        mockMvc.perform(post("/api/robot/import/stream").param("fileName", "robots.json")
+                        .contentType("application/octet-stream").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ERROR"));
+
+        assertArrayEquals(body, Files.readAllBytes(storedCopy(body, "json")));
+    }
+
+    private static Path storedCopy(byte[] body, String extension) {
+        String checksum = HexFormat.of().formatHex(FileService.sha256().digest(body));
+        return Path.of("target/test-uploads", checksum + "." + extension);
+    }
+}
@@ -0,0 +1,150 @@
+package com.importexport.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadSessionTest {
+
+    @Test
+    void mergesOverlappingChunks() {
+        UploadSession session = session(100);
+        receive(session, 0, 40);
+        receive(session, 30, 40);
+
+        assertRanges(session, new long[]{0, 70});
+        assertEquals(70, session.getReceivedBytes());
+    }
+
+    @Test
+    void mergesAdjacentChunks() {
+        UploadSession session = session(100);
+        receive(session, 0, 50);
+        receive(session, 50, 50);
+
+        assertRanges(session, new long[]{0, 100});
+        assertEquals(100, session.getReceivedBytes());
+    }
+
+    @Test
+    void keepsChunksArrivingOutOfOrderSorted() {
+        UploadSession session = session(100);
+        receive(session, 80, 20);
+        receive(session, 0, 10);
+        receive(session, 40, 20);
+
+        assertRanges(session, new long[]{0, 10}, new long[]{40, 60}, new long[]{80, 100});
+        assertEquals(50, session.getReceivedBytes());
+
+        // Fills both gaps at once
+        receive(session, 5, 80);
+        assertRanges(session, new long[]{0, 100});
+        assertEquals(100, session.getReceivedBytes());
+    }
+
+    @Test
+    void ignoresChunksInsideReceivedRanges() {
+        UploadSession session = session(100);
+        receive(session, 0, 60);
+        receive(session, 10, 20);
+
+        assertRanges(session, new long[]{0, 60});
+        assertEquals(60, session.getReceivedBytes());
+    }
+
+    @Test
+    void countsTheBytesOfAChunkThatBrokeOff() {
+        UploadSession session = session(100);
+        receive(session, 0, 30);
+        // Sent from 50, the connection dropped after 10 bytes
+        receive(session, 50, 10);
+        // Nothing reached the file
+        receive(session, 70, 0);
+
+        assertRanges(session, new long[]{0, 30}, new long[]{50, 60});
+        assertEquals(40, session.getReceivedBytes());
+    }
+
+    @Test
+    void completesOnlyOnceEveryByteArrived() {
+        UploadSession session = session(100);
+        receive(session, 0, 60);
+        assertFalse(session.complete());
+
+        receive(session, 60, 40);
+        assertTrue(session.beginChunk());
+        assertFalse(session.complete(), "a chunk is still being written");
+
+        session.endChunk(0, 0);
+        assertTrue(session.complete());
+        assertEquals(UploadSession.COMPLETED, session.getStatus());
+        assertFalse(session.beginChunk());
+        assertFalse(session.complete());
+    }
+
+    @Test
+    void forgetsTheRangesOnReset() {
+        UploadSession session = session(100);
+        receive(session, 0, 100);
+        assertTrue(session.complete());
+
+        session.reset();
+
+        assertEquals(UploadSession.UPLOADING, session.getStatus());
+        assertEquals(0, session.getReceivedBytes());
+        assertTrue(session.getReceivedRanges().isEmpty());
+        assertTrue(session.beginChunk());
+    }
+
+    @Test
+    void keepsTheRangesOnReopen() {
+        UploadSession session = session(100);
+        receive(session, 0, 100);
+        assertTrue(session.complete());
+
+        session.reopen();
+
+        assertEquals(UploadSession.UPLOADING, session.getStatus());
+        assertRanges(session, new long[]{0, 100});
+        assertTrue(session.complete());
+    }
+
+    @Test
+    void isIdleOnlyWithoutActivityOrChunksInFlight() {
+        UploadSession session = session(100);
+        LocalDateTime later = LocalDateTime.now().plusMinutes(1);
+        assertTrue(session.isIdleSince(later));
+        assertFalse(session.isIdleSince(session.getLastActivityAt().minusMinutes(1)));
+
+        assertTrue(session.beginChunk());
+        assertFalse(session.isIdleSince(later), "a chunk is still being written");
+
+        session.endChunk(0, 10);
+        assertTrue(session.isIdleSince(later));
+        assertFalse(session.isIdleSince(session.getLastActivityAt().minusNanos(1)));
+    }
+
+    private static UploadSession session(long fileSize) {
+        return new UploadSession("upload", "camera", "cameras.csv", fileSize, "checksum",
+                new FileMetadata("part.csv", "csv", fileSize, null, null, "camera"));
+    }
+
+    private static void receive(UploadSession session, long offset, long length) {
+        assertTrue(session.beginChunk());
+        session.endChunk(offset, length);
+    }
+
+    private static void assertRanges(UploadSession session, long[]... expected) {
+        List<long[]> ranges = session.getReceivedRanges();
+        assertEquals(expected.length, ranges.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], ranges.get(i));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.importexport.export;
+
+import com.importexport.entity.Task;
+import com.importexport.exception.ValidationException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Filters are run against a few tasks so the tests check which rows match,
+ * not how the expression tree happens to be built.
+ */
+@SpringBootTest
+@Transactional
+class FilterParserTest {
+
+    private static final String TYPE = "filter-parser-test";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ExportSchema schema = ExportSchema.forModule("task");
+
+    @BeforeEach
+    void createTasks() {
+        task("A", 1, "open", "alice", "urgent fix");
+        task("B", 2, "done", "bob", null);
+        task("C", 3, "open", null, "it's done");
+        task("D", 5, "blocked", "carol", "Urgent");
+        entityManager.flush();
+    }
+
+    @Test
+    void bindsAndTighterThanOr() {
+        assertEquals(List.of("A"), matching("priority = 1 OR status = 'done' AND priority > 2"));
+        assertEquals(List.of("A", "B"), matching("priority = 1 OR status = 'done' AND priority > 1"));
+        assertEquals(List.of("B"), matching("(priority = 1 OR status = 'done') AND priority > 1"));
+        assertEquals(List.of("B", "C", "D"), matching("status = 'done' or status = 'blocked' or priority = 3"));
+    }
+
+    @Test
+    void bindsNotTighterThanAnd() {
+        assertEquals(List.of("B", "D"), matching("NOT status = 'open'"));
+        assertEquals(List.of("D"), matching("NOT status = 'open' AND priority > 2"));
+        assertEquals(List.of("A", "B", "D"), matching("NOT (status = 'open' AND priority > 2)"));
+        assertEquals(List.of("A", "C"), matching("not not status = 'open'"));
+    }
+
+    @Test
+    void matchesInLists() {
+        assertEquals(List.of("A", "C", "D"), matching("status IN ('open', 'blocked')"));
+        assertEquals(List.of("B", "D"), matching("status NOT IN ('open')"));
+        assertEquals(List.of("A", "D"), matching("priority in (1, 5)"));
+    }
+
+    @Test
+    void matchesLikePatterns() {
+        assertEquals(List.of("C"), matching("description LIKE '%done'"));
+        assertEquals(List.of("C"), matching("description LIKE 'it''s%'"));
+        assertEquals(List.of("A"), matching("description LIKE 'u_gent%'"));
+        // Nulls match neither LIKE nor NOT LIKE
+        assertEquals(List.of("A", "D"), matching("assignedTo NOT LIKE 'b%'"));
+    }
+
+    @Test
+    void matchesNulls() {
+        assertEquals(List.of("C"), matching("assignedTo IS NULL"));
+        assertEquals(List.of("A", "C", "D"), matching("description IS NOT NULL"));
+    }
+
+    @Test
+    void acceptsNestingUpToTheDepthLimit() {
+        assertEquals(List.of("A"), matching("(".repeat(31) + "priority = 1" + ")".repeat(31)));
+        assertEquals(List.of("B", "C", "D"), matching("NOT ".repeat(31) + "priority = 1"));
+    }
+
+    @Test
+    void rejectsNestingBeyondTheDepthLimit() {
+        assertRejected("(".repeat(32) + "priority = 1" + ")".repeat(32), "nested too deeply");
+        assertRejected("NOT ".repeat(32) + "priority = 1", "nested too deeply");
+        // Stopped by the depth limit long before the stack runs out
+        assertRejected("(".repeat(4000), "nested too deeply");
+    }
+
+    @Test
+    void rejectsFiltersLongerThanTheLimit() {
+        assertRejected("name = '" + "x".repeat(4096) + "'", "longer than 4096 characters");
+    }
+
+    @Test
+    void rejectsMalformedFilters() {
+        assertRejected("secret = 1", "position 1: Unknown field 'secret'");
+        assertRejected("priority = 'high'", "'high' is not a valid integer for field 'priority'");
+        assertRejected("status IN ('open', 3)", "'3' is not a valid quoted string for field 'status'");
+        assertRejected("priority LIKE '1%'", "LIKE needs a text field");
+        assertRejected("isActive > true", "can only be compared with = or !=");
+        assertRejected("status = 'open' priority = 1", "position 17: Unexpected 'priority'");
+        assertRejected("(status = 'open'", "end of filter: Expected ')'");
+        assertRejected("status NOT = 'open'", "Expected LIKE or IN");
+        assertRejected("name = 'open", "Unterminated string");
+        assertRejected("and = 1", "Expected a field name");
+    }
+
+    private List<String> matching(String filter) {
+        FilterExpression expression = FilterParser.parse(filter, schema);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<Task> root = query.from(Task.class);
+        query.select(root.get("name"))
+                .where(cb.equal(root.get("type"), TYPE), expression.toPredicate(cb, root))
+                .orderBy(cb.asc(root.get("name")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private void assertRejected(String filter, String message) {
+        ValidationException e = assertThrows(ValidationException.class, () -> FilterParser.parse(filter, schema));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    private void task(String name, int priority, String status, String assignedTo, String description) {
+        entityManager.persist(new Task(name, TYPE, priority, status, assignedTo, null, true, description));
+    }
+}
@@ -0,0 +1,109 @@
+package com.importexport.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.importexport.config.ExportConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JsonExporter jsonExporter;
+
+    @BeforeEach
+    void createExporter() {
+        jsonExporter = new JsonExporter();
+        ReflectionTestUtils.setField(jsonExporter, "exportConfig", new ExportConfig());
+    }
+
+    @Test
+    void writesOnlyTheSelectedFieldsInTheirOrder() throws IOException {
+        List<ExportColumn> columns = ExportSchema.forModule("task").select(
+                List.of("priority", "name", "dueDate", "isActive", "id"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowWriter writer = jsonExporter.open(out, columns)) {
+            writer.writeRow(new Object[]{3, "Alpha", LocalDateTime.of(2024, 1, 15, 10, 30), true, 7L});
+            writer.writeRow(new Object[]{null, "Beta \"quoted\"\né", null, false, 8L});
+            writer.finish();
+        }
+
+        JsonNode rows = objectMapper.readTree(out.toByteArray());
+        assertTrue(rows.isArray());
+        assertEquals(2, rows.size());
+        assertEquals(List.of("priority", "name", "dueDate", "isActive", "id"), fieldNames(rows.get(0)));
+
+        JsonNode alpha = rows.get(0);
+        assertTrue(alpha.get("priority").isInt());
+        assertEquals(3, alpha.get("priority").asInt());
+        assertEquals("2024-01-15T10:30:00", alpha.get("dueDate").asText());
+        assertTrue(alpha.get("isActive").isBoolean());
+        assertTrue(alpha.get("id").isIntegralNumber());
+        assertEquals(7L, alpha.get("id").asLong());
+
+        JsonNode beta = rows.get(1);
+        assertTrue(beta.get("priority").isNull());
+        assertTrue(beta.get("dueDate").isNull());
+        assertEquals("Beta \"quoted\"\né", beta.get("name").asText());
+    }
+
+    @Test
+    void writesEveryFieldWithoutASelection() throws IOException {
+        List<ExportColumn> columns = ExportSchema.forModule("task").select(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowWriter writer = jsonExporter.open(out, columns)) {
+            writer.writeRow(new Object[columns.size()]);
+            writer.finish();
+        }
+
+        assertEquals(List.of("id", "name", "type", "priority", "status", "assignedTo", "dueDate", "isActive",
+                "description"), fieldNames(objectMapper.readTree(out.toByteArray()).get(0)));
+    }
+
+    @Test
+    void sendsTheStartOfTheArrayBeforeTheFirstRow() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowWriter writer = jsonExporter.open(out, ExportSchema.forModule("task").select(List.of("name")))) {
+            assertEquals("[", out.toString(StandardCharsets.UTF_8));
+            writer.finish();
+        }
+
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void leavesTheOutputOpenWhenClosed() throws IOException {
+        boolean[] closed = {false};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        // Closed without finishing, as after an aborted download
+        RowWriter writer = jsonExporter.open(out, ExportSchema.forModule("task").select(List.of("name")));
+        writer.writeRow(new Object[]{"Alpha"});
+        writer.close();
+
+        assertFalse(closed[0]);
+    }
+
+    private static List<String> fieldNames(JsonNode row) {
+        List<String> names = new ArrayList<>();
+        row.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -0,0 +1,91 @@
+package com.importexport.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.importexport.config.ExportConfig;
+import com.importexport.processor.JsonProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdjsonExporterTest {
+
+    private static final List<ExportColumn> COLUMNS = ExportSchema.forModule("task").select(
+            List.of("id", "name", "dueDate", "isActive"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private NdjsonExporter ndjsonExporter;
+
+    @BeforeEach
+    void createExporter() {
+        ndjsonExporter = new NdjsonExporter();
+        ReflectionTestUtils.setField(ndjsonExporter, "exportConfig", new ExportConfig());
+    }
+
+    @Test
+    void writesOneObjectPerLine() throws IOException {
+        String ndjson = export(
+                new Object[]{1L, "Alpha", LocalDateTime.of(2024, 1, 15, 10, 30), true},
+                new Object[]{2L, "Line one\nline two", null, false},
+                new Object[]{3L, "Gamma", null, null});
+
+        assertTrue(ndjson.endsWith("}\n"));
+        String[] lines = ndjson.split("\n", -1);
+        // Three rows and the empty rest after the last newline, no enclosing array or separators
+        assertEquals(4, lines.length);
+        assertEquals("", lines[3]);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(lines[i].startsWith("{\"id\":" + (i + 1) + ","), lines[i]);
+            assertTrue(lines[i].endsWith("}"), lines[i]);
+            JsonNode row = objectMapper.readTree(lines[i]);
+            assertTrue(row.isObject());
+        }
+        // The newline in a value is escaped and does not break the framing
+        assertEquals("Line one\nline two", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    void writesNothingForAnEmptyExport() throws IOException {
+        assertEquals("", export());
+    }
+
+    @Test
+    void readsBackThroughTheImporter() throws Exception {
+        String ndjson = export(
+                new Object[]{1L, "Alpha", LocalDateTime.of(2024, 1, 15, 10, 30), true},
+                new Object[]{2L, "Beta", null, false});
+
+        List<Map<String, Object>> rows = new JsonProcessor().processFile(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, rows.size());
+        assertEquals("Alpha", rows.get(0).get("name"));
+        assertEquals("2024-01-15T10:30:00", rows.get(0).get("dueDate"));
+        assertEquals(Boolean.TRUE, rows.get(0).get("isActive"));
+        assertEquals(2, rows.get(1).get("id"));
+        assertNull(rows.get(1).get("dueDate"));
+    }
+
+    private String export(Object[]... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowWriter writer = ndjsonExporter.open(out, COLUMNS)) {
+            for (Object[] row : rows) {
+                writer.writeRow(row);
+            }
+            writer.finish();
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,167 @@
+package com.importexport.export;
+
+import com.importexport.config.ExportConfig;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XlsxExporterTest {
+
+    private static final List<ExportColumn> COLUMNS = ExportSchema.forModule("task").select(
+            List.of("id", "name", "priority", "dueDate", "isActive"));
+    private static final LocalDateTime DUE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @TempDir
+    Path tempFiles;
+
+    private ExportConfig exportConfig;
+    private XlsxExporter xlsxExporter;
+
+    @BeforeEach
+    void createExporter() {
+        // Keeps the temp files of the workbook apart, so a test can tell they are gone
+        TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy(tempFiles.toFile()));
+        exportConfig = new ExportConfig();
+        xlsxExporter = new XlsxExporter();
+        ReflectionTestUtils.setField(xlsxExporter, "exportConfig", exportConfig);
+    }
+
+    @AfterEach
+    void restoreTempFiles() {
+        TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy());
+    }
+
+    @Test
+    void typesCellsByTheEntityAttribute() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowWriter writer = xlsxExporter.open(out, COLUMNS)) {
+            writer.writeRow(new Object[]{7L, "Alpha", 3, DUE, true});
+            writer.writeRow(new Object[]{8L, "Beta", null, null, false});
+            writer.finish();
+        }
+
+        try (XSSFWorkbook workbook = read(out)) {
+            assertEquals(1, workbook.getNumberOfSheets());
+            Sheet sheet = workbook.getSheet("Data");
+            Row header = sheet.getRow(0);
+            assertEquals("due_date", header.getCell(3).getStringCellValue());
+            assertTrue(workbook.getFontAt(header.getCell(0).getCellStyle().getFontIndex()).getBold());
+            assertEquals(1, sheet.getPaneInformation().getHorizontalSplitPosition());
+
+            Row row = sheet.getRow(1);
+            assertEquals(CellType.NUMERIC, row.getCell(0).getCellType());
+            assertEquals(7, row.getCell(0).getNumericCellValue());
+            assertEquals(CellType.STRING, row.getCell(1).getCellType());
+            assertEquals("Alpha", row.getCell(1).getStringCellValue());
+            assertEquals(CellType.NUMERIC, row.getCell(2).getCellType());
+            assertEquals(3, row.getCell(2).getNumericCellValue());
+            Cell due = row.getCell(3);
+            assertEquals(CellType.NUMERIC, due.getCellType());
+            assertTrue(DateUtil.isCellDateFormatted(due));
+            assertEquals(DUE, due.getLocalDateTimeCellValue());
+            assertEquals(CellType.BOOLEAN, row.getCell(4).getCellType());
+            assertTrue(row.getCell(4).getBooleanCellValue());
+
+            // Nulls leave the cell out
+            Row sparse = sheet.getRow(2);
+            assertNull(sparse.getCell(2));
+            assertNull(sparse.getCell(3));
+            assertFalse(sparse.getCell(4).getBooleanCellValue());
+        }
+    }
+
+    @Test
+    void continuesOnAnotherSheetOnceASheetIsFull() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowWriter writer = xlsxExporter.open(out, COLUMNS, 3)) {
+            for (long id = 1; id <= 5; id++) {
+                writer.writeRow(new Object[]{id, "Task " + id, null, null, null});
+            }
+            writer.finish();
+        }
+
+        try (XSSFWorkbook workbook = read(out)) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            assertEquals(List.of("Data", "Data 2", "Data 3"), List.of(workbook.getSheetName(0),
+                    workbook.getSheetName(1), workbook.getSheetName(2)));
+            long id = 1;
+            for (Sheet sheet : workbook) {
+                // Every sheet starts with the header
+                assertEquals("id", sheet.getRow(0).getCell(0).getStringCellValue());
+                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                    assertEquals(id++, (long) sheet.getRow(i).getCell(0).getNumericCellValue());
+                }
+            }
+            assertEquals(6, id);
+            assertEquals(1, workbook.getSheet("Data 3").getLastRowNum());
+        }
+    }
+
+    @Test
+    void deletesTheTempFilesOfAnUnfinishedExport() throws IOException {
+        exportConfig.setXlsxRowWindow(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = xlsxExporter.open(out, COLUMNS);
+        for (long id = 1; id <= 10; id++) {
+            writer.writeRow(new Object[]{id, "Task " + id, 1, DUE, true});
+        }
+        assertFalse(listTempFiles().isEmpty(), "flushed rows are in a temp file");
+
+        // The client aborted the download, finish() never runs
+        writer.close();
+
+        assertEquals(List.of(), listTempFiles());
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void deletesTheTempFilesOfAFinishedExport() throws IOException {
+        exportConfig.setXlsxRowWindow(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowWriter writer = xlsxExporter.open(out, COLUMNS)) {
+            for (long id = 1; id <= 10; id++) {
+                writer.writeRow(new Object[]{id, "Task " + id, 1, DUE, true});
+            }
+            writer.finish();
+        }
+
+        assertEquals(List.of(), listTempFiles());
+        try (XSSFWorkbook workbook = read(out)) {
+            assertEquals(10, workbook.getSheet("Data").getLastRowNum());
+        }
+    }
+
+    private static XSSFWorkbook read(ByteArrayOutputStream out) throws IOException {
+        return new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private List<Path> listTempFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempFiles)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
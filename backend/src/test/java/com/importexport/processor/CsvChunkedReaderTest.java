@@ -0,0 +1,104 @@
+package com.importexport.processor;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvChunkedReaderTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void cutsAtEveryOffsetLikeTheSequentialParser() throws Exception {
+        String csv = "name,description\r\n"
+                + "12\" monitor,plain\r\n"
+                + "\"quoted, with comma\",\"line one\r\nline two\"\r\n"
+                + "  \"spaced\"  tail,x\n"
+                + "\"esc \"\"aped\"\"\",5\" tall\r"
+                + "a\"b\"c,\"\"\n"
+                + "\n"
+                + "last,row";
+        ByteBuffer content = ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8));
+        List<String> expected = parseSequentially(content);
+
+        for (int chunkSize = 1; chunkSize <= content.limit(); chunkSize++) {
+            assertEquals(expected, parseInChunks(content, chunkSize), "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void strayQuoteInLargeFileDoesNotShiftRecords() throws Exception {
+        // Larger than the size from which CsvProcessor parses in chunks, with its chunk size
+        StringBuilder csv = new StringBuilder("name,description\n");
+        int row = 0;
+        while (csv.length() < 17 * 1024 * 1024) {
+            row++;
+            if (row == 1) {
+                // A single literal quote flips the parity of every quote count after it
+                csv.append("Display ").append(row).append(",12\" monitor\n");
+            } else if (row % 1000 == 2) {
+                csv.append("\"Multi ").append(row).append("\",\"first\nsecond\"\n");
+            } else {
+                csv.append("Item ").append(row).append(",description of item ").append(row).append('\n');
+            }
+        }
+        ByteBuffer content = ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<String> chunked = parseInChunks(content, 4 * 1024 * 1024);
+        assertEquals(row, chunked.size());
+        assertEquals(parseSequentially(content), chunked);
+    }
+
+    /**
+     * @return "rowNumber:name|description" per data row
+     */
+    private static List<String> parseSequentially(ByteBuffer content) throws Exception {
+        CsvTokenizer tokenizer = new CsvTokenizer(content.duplicate());
+        RowSchema schema = headers(tokenizer);
+        List<String> rows = new ArrayList<>();
+        int rowNumber = 1;
+        while (tokenizer.next()) {
+            rows.add(describe(tokenizer.toRow(schema), ++rowNumber));
+        }
+        return rows;
+    }
+
+    private static List<String> parseInChunks(ByteBuffer content, int chunkSize) throws Exception {
+        CsvTokenizer tokenizer = new CsvTokenizer(content.duplicate());
+        RowSchema schema = headers(tokenizer);
+        List<String> rows = new ArrayList<>();
+        new CsvChunkedReader(content, schema, tokenizer.position(), chunkSize, pool).read((row, rowNumber) -> {
+            rows.add(describe(row, rowNumber));
+            return true;
+        });
+        return rows;
+    }
+
+    private static RowSchema headers(CsvTokenizer tokenizer) throws Exception {
+        tokenizer.next();
+        return new RowSchema(new String[] {tokenizer.field(0), tokenizer.field(1)});
+    }
+
+    private static String describe(Map<String, Object> row, int rowNumber) {
+        return rowNumber + ":" + row.get("name") + "|" + row.get("description");
+    }
+}
@@ -0,0 +1,137 @@
+package com.importexport.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvTokenizerTest {
+
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    @Test
+    void parsesQuotedFields() throws IOException {
+        String csv = "name,description\n"
+                + "\"Smith, John\",\"He said \"\"hi\"\"\"\n"
+                + "\"multi\nline\",\"quoted\" tail\n";
+
+        assertEquals(List.of(
+                List.of("name", "description"),
+                List.of("Smith, John", "He said \"hi\""),
+                List.of("multi\nline", "quoted tail")), parseStream(bytes(csv), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void keepsQuotesInsideUnquotedFields() throws IOException {
+        assertEquals(List.of(List.of("12\" monitor", "x"), List.of("a", "b")),
+                parseStream(bytes("12\" monitor,x\na,b\n"), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void acceptsEveryLineEnding() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e", "f"), List.of("g", "h")),
+                parseStream(bytes("a,b\r\nc,d\re,f\ng,h"), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void handlesRecordsSplitAcrossReads() throws IOException {
+        String csv = "a,b\r\n\"x\r\ny\",\"q\"\"q\"\r\nlast,row\r\n";
+        List<List<String>> expected = List.of(List.of("a", "b"), List.of("x\r\ny", "q\"q"), List.of("last", "row"));
+
+        // One byte per read splits every CRLF and escaped quote pair between refills
+        assertEquals(expected, parseStream(bytes(csv), 1));
+        assertEquals(expected, parseStream(bytes(csv), 2));
+    }
+
+    @Test
+    void skipsByteOrderMark() throws IOException {
+        byte[] csv = concat(BOM, bytes("name,type\nCam,ip\n"));
+        List<List<String>> expected = List.of(List.of("name", "type"), List.of("Cam", "ip"));
+
+        assertEquals(expected, parseStream(csv, Integer.MAX_VALUE));
+        assertEquals(expected, parseStream(csv, 1));
+        assertEquals(expected, parseBuffer(csv));
+    }
+
+    @Test
+    void handlesInputShorterThanByteOrderMark() throws IOException {
+        assertEquals(List.of(List.of("a")), parseStream(bytes("a"), 1));
+        assertEquals(List.of(), parseStream(BOM, 1));
+    }
+
+    @Test
+    void rejectsUnterminatedQuotedField() {
+        assertThrows(IllegalArgumentException.class, () -> parseStream(bytes("a,\"open\n"), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void countsConsumedBytes() throws IOException {
+        CsvTokenizer tokenizer = new CsvTokenizer(new TrickleInputStream(bytes("ab,c\r\nd\n"), 1));
+        tokenizer.next();
+        assertEquals(6, tokenizer.bytesConsumed());
+        tokenizer.next();
+        assertEquals(8, tokenizer.bytesConsumed());
+    }
+
+    private static List<List<String>> parseStream(byte[] content, int maxRead) throws IOException {
+        return records(new CsvTokenizer(new TrickleInputStream(content, maxRead)));
+    }
+
+    private static List<List<String>> parseBuffer(byte[] content) throws IOException {
+        return records(new CsvTokenizer(ByteBuffer.wrap(content)));
+    }
+
+    private static List<List<String>> records(CsvTokenizer tokenizer) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        while (tokenizer.next()) {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < tokenizer.fieldCount(); i++) {
+                fields.add(tokenizer.field(i));
+            }
+            records.add(fields);
+        }
+        return records;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = new byte[first.length + second.length];
+        System.arraycopy(first, 0, joined, 0, first.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    /**
+     * Returns at most a few bytes per read, like a slow request body
+     */
+    private static class TrickleInputStream extends ByteArrayInputStream {
+
+        private final int maxRead;
+
+        TrickleInputStream(byte[] content, int maxRead) {
+            super(content);
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length) {
+            return super.read(bytes, offset, Math.min(length, maxRead));
+        }
+
+        @Override
+        public synchronized int available() {
+            // Otherwise the channel adapter keeps reading until the buffer is full
+            return 0;
+        }
+    }
+}
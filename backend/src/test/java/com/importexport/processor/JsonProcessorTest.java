@@ -0,0 +1,134 @@
+package com.importexport.processor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonProcessorTest {
+
+    private static final String[] OBJECTS = {
+            "{\"name\": \"Alpha\", \"priority\": 3, \"big\": 12345678901, \"huge\": 123456789012345678901234567890,"
+                    + " \"ratio\": 2.5, \"exponent\": 1e3, \"isActive\": true, \"dueDate\": null}",
+            "{\"name\": \"Beta \\\"quoted\\\"\\n\", \"priority\": -1, \"big\": 0, \"huge\": 0,"
+                    + " \"ratio\": -0.125, \"exponent\": 0.0, \"isActive\": false, \"dueDate\": \"2024-01-15\"}",
+            // Other keys and order start another schema
+            "{\"priority\": 7, \"name\": \"Gamma\", \"tags\": [\"a\", 1, [true]], \"owner\": {\"id\": 4, \"roles\": []}}",
+            "{}",
+            "{\"name\": \"Delta\"}"
+    };
+
+    private final JsonProcessor jsonProcessor = new JsonProcessor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsATopLevelArrayLikeTheObjectMapper() throws Exception {
+        String json = "[" + String.join(",\n", OBJECTS) + ", 42, \"skipped\", [1, 2], null]";
+
+        List<String> rows = read(json);
+
+        assertEquals(readWithObjectMapper(json), rows);
+        assertEquals(OBJECTS.length, rows.size());
+        assertEquals("2:{name=Alpha (String), priority=3 (Integer), big=12345678901 (Long),"
+                + " huge=123456789012345678901234567890 (BigInteger), ratio=2.5 (Double), exponent=1000.0 (Double),"
+                + " isActive=true (Boolean), dueDate=null}", rows.get(0));
+        assertEquals("4:{priority=7 (Integer), name=Gamma (String), tags=[a, 1, [true]] (ArrayList),"
+                + " owner={id=4, roles=[]} (LinkedHashMap)}", rows.get(2));
+    }
+
+    @Test
+    void readsASingleObjectLikeTheObjectMapper() throws Exception {
+        assertEquals(readWithObjectMapper(OBJECTS[0]), read(OBJECTS[0]));
+    }
+
+    @Test
+    void readsEveryLineOfAnNdjsonFile() throws Exception {
+        String ndjson = String.join("\n", OBJECTS) + "\n\n" + OBJECTS[1] + "\r\n";
+
+        List<String> rows = read(ndjson);
+
+        List<String> expected = new ArrayList<>();
+        int rowNumber = 1;
+        for (String line : ndjson.split("\r?\n")) {
+            if (!line.isEmpty()) {
+                expected.add(describe(objectMapper.readValue(line, Map.class), ++rowNumber));
+            }
+        }
+        assertEquals(expected, rows);
+        assertEquals(OBJECTS.length + 1, rows.size());
+    }
+
+    @Test
+    void rejectsNdjsonLinesThatAreNotObjects() {
+        String ndjson = OBJECTS[0] + "\n[" + OBJECTS[1] + "]\n";
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> read(ndjson));
+        assertEquals("Each line of an NDJSON file must contain an object", e.getMessage());
+    }
+
+    @Test
+    void rejectsTopLevelValuesThatAreNotObjects() {
+        assertThrows(IllegalArgumentException.class, () -> read("\"text\""));
+        assertThrows(IllegalArgumentException.class, () -> read("42"));
+    }
+
+    @Test
+    void stopsWhenTheSinkAsksTo() throws Exception {
+        for (String json : new String[]{"[" + String.join(",", OBJECTS) + "]", String.join("\n", OBJECTS)}) {
+            List<Integer> rowNumbers = new ArrayList<>();
+            int count = jsonProcessor.processFile(stream(json), (row, rowNumber) -> {
+                rowNumbers.add(rowNumber);
+                return rowNumber < 3;
+            });
+
+            assertEquals(2, count);
+            assertEquals(List.of(2, 3), rowNumbers);
+        }
+    }
+
+    private List<String> read(String json) throws Exception {
+        List<String> rows = new ArrayList<>();
+        int count = jsonProcessor.processFile(stream(json), (row, rowNumber) -> rows.add(describe(row, rowNumber)));
+        assertEquals(rows.size(), count);
+        return rows;
+    }
+
+    /**
+     * The rows of the tree model JsonProcessor used before it streamed tokens
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> readWithObjectMapper(String json) throws Exception {
+        JsonNode root = objectMapper.readTree(json);
+        List<String> rows = new ArrayList<>();
+        for (JsonNode node : root.isArray() ? root : List.of(root)) {
+            if (node.isObject()) {
+                rows.add(describe(objectMapper.convertValue(node, Map.class), rows.size() + 2));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return the row with the type of every value, so Integer and Long do not compare equal by their text
+     */
+    private static String describe(Map<String, Object> row, int rowNumber) {
+        Map<String, String> typed = new LinkedHashMap<>();
+        row.forEach((field, value) ->
+                typed.put(field, value == null ? "null" : value + " (" + value.getClass().getSimpleName() + ")"));
+        return rowNumber + ":" + typed;
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,145 @@
+package com.importexport.processor;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XlsStreamingReaderTest {
+
+    private static final LocalDateTime DUE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+
+    @BeforeEach
+    void writeWorkbook() throws Exception {
+        file = directory.resolve("tasks.xls");
+        try (HSSFWorkbook workbook = new HSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            fill(workbook);
+            workbook.write(out);
+        }
+    }
+
+    @Test
+    void readsCellsLikeTheWorkbookModel() throws Exception {
+        List<String> rows = readStreaming();
+
+        assertEquals(readWorkbook(), rows);
+        assertEquals(List.of(
+                "2:{name=Alpha, count=3.0, due=" + DateUtil.getJavaDate(DateUtil.getExcelDate(DUE))
+                        + ", active=true, total=B2*2, note=padded}",
+                "3:{name=Beta, count=, due=, active=false, total=, note=}",
+                "4:{name=, count=, due=, active=, total=, note=}",
+                "6:{name=Alpha, count=, due=2.5, active=, total=SUM(B2:B3), note=}",
+                "7:{name=, count=, due=, active=, total=, note=}"), rows);
+    }
+
+    @Test
+    void stopsWhenTheSinkAsksTo() throws Exception {
+        List<Integer> rowNumbers = new ArrayList<>();
+        int count = new XlsStreamingReader(file).read((row, rowNumber) -> {
+            rowNumbers.add(rowNumber);
+            return false;
+        });
+
+        assertEquals(1, count);
+        assertEquals(List.of(2), rowNumbers);
+    }
+
+    @Test
+    void stopsAtTheLastRowWhenTheSinkAsksTo() throws Exception {
+        List<Integer> rowNumbers = new ArrayList<>();
+        int count = new XlsStreamingReader(file).read((row, rowNumber) -> {
+            rowNumbers.add(rowNumber);
+            return rowNumber < 7;
+        });
+
+        assertEquals(5, count);
+        assertEquals(List.of(2, 3, 4, 6, 7), rowNumbers);
+    }
+
+    /**
+     * Numbers, dates, booleans and formulas, with missing cells and rows in between
+     */
+    private static void fill(HSSFWorkbook workbook) {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+        Sheet sheet = workbook.createSheet("Tasks");
+        Row header = sheet.createRow(0);
+        String[] headers = {"name", " count ", "due", "active", "total", "note"};
+        for (int i = 0; i < headers.length; i++) {
+            header.createCell(i).setCellValue(headers[i]);
+        }
+
+        Row full = sheet.createRow(1);
+        full.createCell(0).setCellValue("Alpha");
+        full.createCell(1).setCellValue(3);
+        full.createCell(2).setCellValue(DUE);
+        full.getCell(2).setCellStyle(dateStyle);
+        full.createCell(3).setCellValue(true);
+        full.createCell(4).setCellFormula("B2*2");
+        full.createCell(5).setCellValue("  padded ");
+
+        // Blank cells between values
+        Row sparse = sheet.createRow(2);
+        sparse.createCell(0).setCellValue("Beta");
+        sparse.createCell(3).setCellValue(false);
+
+        // A ROW record without cells, then no row at all at index 4
+        sheet.createRow(3);
+
+        Row mixed = sheet.createRow(5);
+        mixed.createCell(0).setCellValue("Alpha");
+        mixed.createCell(1);
+        mixed.createCell(2).setCellValue(2.5);
+        mixed.createCell(4).setCellFormula("SUM(B2:B3)");
+
+        // Cells past the headers are dropped
+        Row outside = sheet.createRow(6);
+        outside.createCell(8).setCellValue("ignored");
+
+        // Only the first sheet is read
+        workbook.createSheet("Other").createRow(0).createCell(0).setCellValue("other");
+    }
+
+    private List<String> readStreaming() throws Exception {
+        List<String> rows = new ArrayList<>();
+        int count = new XlsStreamingReader(file).read((row, rowNumber) -> rows.add(describe(row, rowNumber)));
+        assertEquals(rows.size(), count);
+        return rows;
+    }
+
+    /**
+     * Reads a file small enough for the DOM model of ExcelProcessor
+     */
+    private List<String> readWorkbook() throws Exception {
+        assertTrue(Files.size(file) <= 64 * 1024);
+        List<String> rows = new ArrayList<>();
+        new ExcelProcessor().processFile(file, (row, rowNumber) -> rows.add(describe(row, rowNumber)));
+        return rows;
+    }
+
+    private static String describe(Map<String, Object> row, int rowNumber) {
+        return rowNumber + ":" + new LinkedHashMap<>(row);
+    }
+}
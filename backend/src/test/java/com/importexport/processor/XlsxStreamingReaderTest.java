@@ -0,0 +1,152 @@
+package com.importexport.processor;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XlsxStreamingReaderTest {
+
+    private static final LocalDateTime DUE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsCellsLikeTheWorkbookModel() throws Exception {
+        Path file = directory.resolve("tasks.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            fill(workbook);
+            write(workbook, file);
+            // Strings go to the shared strings table, "Alpha" is stored once
+            assertTrue(workbook.getSharedStringSource().getUniqueCount() > 0);
+            assertEquals(workbook.getSharedStringSource().getCount() - 1,
+                    workbook.getSharedStringSource().getUniqueCount());
+        }
+
+        List<String> rows = readStreaming(file);
+
+        assertEquals(readWorkbook(file), rows);
+        assertEquals(List.of(
+                "2:{name=Alpha, count=3.0, due=" + DateUtil.getJavaDate(DateUtil.getExcelDate(DUE))
+                        + ", active=true, total=B2*2, note=padded}",
+                "3:{name=Beta, count=, due=, active=false, total=, note=}",
+                "5:{name=Alpha, count=, due=2.5, active=, total=SUM(B2:B3), note=}",
+                "6:{name=, count=, due=, active=, total=, note=}"), rows);
+    }
+
+    @Test
+    void readsTheInlineStringsOfStreamedWorkbooks() throws Exception {
+        // SXSSF, which the xlsx export uses, writes strings inline instead of sharing them
+        Path file = directory.resolve("exported.xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook()) {
+            fill(workbook);
+            write(workbook, file);
+            workbook.dispose();
+        }
+
+        assertEquals(readWorkbook(file), readStreaming(file));
+    }
+
+    @Test
+    void stopsWhenTheSinkAsksTo() throws Exception {
+        Path file = directory.resolve("tasks.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            fill(workbook);
+            write(workbook, file);
+        }
+
+        List<Integer> rowNumbers = new ArrayList<>();
+        int count = new XlsxStreamingReader(file).read((row, rowNumber) -> {
+            rowNumbers.add(rowNumber);
+            return false;
+        });
+
+        assertEquals(1, count);
+        assertEquals(List.of(2), rowNumbers);
+    }
+
+    /**
+     * Numbers, dates, booleans and formulas, with missing cells and rows in between
+     */
+    private static void fill(Workbook workbook) {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+        Sheet sheet = workbook.createSheet("Tasks");
+        Row header = sheet.createRow(0);
+        String[] headers = {"name", " count ", "due", "active", "total", "note"};
+        for (int i = 0; i < headers.length; i++) {
+            header.createCell(i).setCellValue(headers[i]);
+        }
+
+        Row full = sheet.createRow(1);
+        full.createCell(0).setCellValue("Alpha");
+        full.createCell(1).setCellValue(3);
+        full.createCell(2).setCellValue(DUE);
+        full.getCell(2).setCellStyle(dateStyle);
+        full.createCell(3).setCellValue(true);
+        full.createCell(4).setCellFormula("B2*2");
+        full.createCell(5).setCellValue("  padded ");
+
+        // Blank cells between values
+        Row sparse = sheet.createRow(2);
+        sparse.createCell(0).setCellValue("Beta");
+        sparse.createCell(3).setCellValue(false);
+
+        // Row index 3 is missing altogether
+        Row mixed = sheet.createRow(4);
+        mixed.createCell(0).setCellValue("Alpha");
+        mixed.createCell(1);
+        mixed.createCell(2).setCellValue(2.5);
+        mixed.createCell(4).setCellFormula("SUM(B2:B3)");
+
+        // Cells past the headers are dropped
+        Row outside = sheet.createRow(5);
+        outside.createCell(8).setCellValue("ignored");
+    }
+
+    private static void write(Workbook workbook, Path file) throws Exception {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            workbook.write(out);
+        }
+    }
+
+    private static List<String> readStreaming(Path file) throws Exception {
+        List<String> rows = new ArrayList<>();
+        int count = new XlsxStreamingReader(file).read((row, rowNumber) -> rows.add(describe(row, rowNumber)));
+        assertEquals(rows.size(), count);
+        return rows;
+    }
+
+    /**
+     * Reads a file small enough for the DOM model of ExcelProcessor
+     */
+    private static List<String> readWorkbook(Path file) throws Exception {
+        assertTrue(Files.size(file) <= 64 * 1024);
+        List<String> rows = new ArrayList<>();
+        new ExcelProcessor().processFile(file, (row, rowNumber) -> rows.add(describe(row, rowNumber)));
+        return rows;
+    }
+
+    private static String describe(Map<String, Object> row, int rowNumber) {
+        return rowNumber + ":" + new LinkedHashMap<>(row);
+    }
+}
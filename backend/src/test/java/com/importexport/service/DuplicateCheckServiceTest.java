@@ -0,0 +1,82 @@
+package com.importexport.service;
+
+import com.importexport.config.ValidationConfig;
+import com.importexport.dto.ValidationError;
+import com.importexport.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DuplicateCheckServiceTest {
+
+    private KeyLookup keyLookup;
+    private DuplicateCheckService duplicateCheckService;
+    private ValidationService validationService;
+
+    @BeforeEach
+    void createService() {
+        keyLookup = mock(KeyLookup.class);
+        duplicateCheckService = new DuplicateCheckService();
+        ReflectionTestUtils.setField(duplicateCheckService, "keyLookup", keyLookup);
+        ReflectionTestUtils.setField(duplicateCheckService, "validationConfig", new ValidationConfig());
+        validationService = new ValidationService();
+    }
+
+    @Test
+    void reportsRepeatedValuesWithTheirFirstRow() {
+        when(keyLookup.count(User.class)).thenReturn(0L);
+        DuplicateCheckService.Detector detector = duplicateCheckService.newDetector("user",
+                validationService.getPlan("user"));
+
+        List<ValidationError> errors = new ArrayList<>();
+        detector.check(user("alice", "alice@example.com"), 2, errors);
+        detector.check(user(" alice ", "other@example.com"), 3, errors);
+        detector.check(user("Alice", "alice@example.com"), 4, errors);
+        detector.resolve(errors);
+
+        assertEquals(2, errors.size());
+        assertEquals(3, errors.get(0).getRow());
+        assertEquals("username", errors.get(0).getField());
+        assertEquals("Duplicate of row 2", errors.get(0).getErrorMessage());
+        assertEquals(4, errors.get(1).getRow());
+        assertEquals("email", errors.get(1).getField());
+        // An empty table is never queried
+        verify(keyLookup, never()).findExisting(any(), any(), anyCollection());
+    }
+
+    @Test
+    void looksUpFirstOccurrencesInTheTable() {
+        when(keyLookup.count(User.class)).thenReturn(10L);
+        when(keyLookup.findExisting(eq(User.class), eq("username"), anyCollection())).thenReturn(Set.of("carol"));
+        when(keyLookup.findExisting(eq(User.class), eq("email"), anyCollection())).thenReturn(Set.of());
+        DuplicateCheckService.Detector detector = duplicateCheckService.newDetector("user",
+                validationService.getPlan("user"));
+
+        List<ValidationError> errors = new ArrayList<>();
+        detector.check(user("carol", "carol@example.com"), 2, errors);
+        detector.check(user("dave", "dave@example.com"), 3, errors);
+        detector.resolve(errors);
+
+        assertEquals(1, errors.size());
+        assertEquals(2, errors.get(0).getRow());
+        assertEquals("Value already exists", errors.get(0).getErrorMessage());
+    }
+
+    private static Map<String, Object> user(String username, String email) {
+        return Map.of("username", username, "email", email);
+    }
+}
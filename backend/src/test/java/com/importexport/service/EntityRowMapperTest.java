@@ -0,0 +1,127 @@
+package com.importexport.service;
+
+import com.importexport.dto.ValidationError;
+import com.importexport.entity.Camera;
+import com.importexport.entity.Task;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityRowMapperTest {
+
+    private ValidatorFactory validatorFactory;
+    private EntityRowMapper entityRowMapper;
+
+    @BeforeEach
+    void createMapper() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        entityRowMapper = new EntityRowMapper();
+        ReflectionTestUtils.setField(entityRowMapper, "validator", validatorFactory.getValidator());
+    }
+
+    @AfterEach
+    void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void mapsRowByPropertyAndColumnNames() {
+        List<ValidationError> errors = new ArrayList<>();
+        Object entity = entityRowMapper.toEntity("task", Map.of("name", "Inspect", "type", "check",
+                "assigned_to", "alice", "priority", "3", "is_active", "no"), 2, errors);
+
+        Task task = assertInstanceOf(Task.class, entity);
+        assertTrue(errors.isEmpty());
+        assertEquals("alice", task.getAssignedTo());
+        assertEquals(3, task.getPriority());
+        assertEquals(Boolean.FALSE, task.getIsActive());
+    }
+
+    @Test
+    void acceptsValuesUpToTheColumnLength() {
+        List<ValidationError> errors = new ArrayList<>();
+        Object entity = entityRowMapper.toEntity("task", Map.of("name", "n".repeat(255), "type", "check",
+                "description", "d".repeat(1000)), 2, errors);
+
+        assertInstanceOf(Task.class, entity);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void reportsValuesLongerThanTheirColumn() {
+        List<ValidationError> errors = new ArrayList<>();
+        Object entity = entityRowMapper.toEntity("task", Map.of("name", "n".repeat(256), "type", "check",
+                "description", "d".repeat(1001)), 7, errors);
+
+        assertNull(entity);
+        assertEquals(2, errors.size());
+        ValidationError name = errors.stream().filter(error -> error.getField().equals("name")).findFirst()
+                .orElseThrow();
+        assertEquals(7, name.getRow());
+        assertEquals("INVALID_LENGTH", name.getErrorCode());
+        assertEquals("maximum 255 characters", name.getExpectedValue());
+        assertEquals("n".repeat(50) + "...", name.getActualValue());
+        ValidationError description = errors.stream().filter(error -> error.getField().equals("description"))
+                .findFirst().orElseThrow();
+        assertEquals("maximum 1000 characters", description.getExpectedValue());
+    }
+
+    @Test
+    void countsSurrogatePairsAsOneCharacter() {
+        List<ValidationError> errors = new ArrayList<>();
+        // 255 characters, 510 UTF-16 units
+        Object entity = entityRowMapper.toEntity("camera", Map.of("name", "📷".repeat(255),
+                "type", "ip"), 2, errors);
+
+        assertTrue(errors.isEmpty());
+        assertInstanceOf(Camera.class, entity);
+    }
+
+    @Test
+    void reportsBeanConstraintViolations() {
+        List<ValidationError> errors = new ArrayList<>();
+        Object entity = entityRowMapper.toEntity("user", Map.of("username", "alice", "email", "a..b@example.com"),
+                3, errors);
+
+        assertNull(entity);
+        assertEquals(1, errors.size());
+        assertEquals(3, errors.get(0).getRow());
+        assertEquals("email", errors.get(0).getField());
+        assertEquals("INVALID_EMAIL", errors.get(0).getErrorCode());
+        assertEquals("a..b@example.com", errors.get(0).getActualValue());
+    }
+
+    @Test
+    void reportsMissingRequiredValues() {
+        List<ValidationError> errors = new ArrayList<>();
+        Object entity = entityRowMapper.toEntity("robot", Map.of("name", "R2", "model", " "), 4, errors);
+
+        assertNull(entity);
+        assertEquals(1, errors.size());
+        assertEquals("model", errors.get(0).getField());
+        assertEquals("REQUIRED", errors.get(0).getErrorCode());
+    }
+
+    @Test
+    void reportsConversionErrors() {
+        List<ValidationError> errors = new ArrayList<>();
+        Object entity = entityRowMapper.toEntity("map", Map.of("name", "Floor", "type", "grid", "width", "wide"),
+                5, errors);
+
+        assertNull(entity);
+        assertEquals(1, errors.size());
+        assertEquals("INVALID_INTEGER", errors.get(0).getErrorCode());
+    }
+}
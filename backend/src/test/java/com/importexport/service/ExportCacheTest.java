@@ -0,0 +1,192 @@
+package com.importexport.service;
+
+import com.importexport.config.ExportCacheConfig;
+import com.importexport.dto.ExportRequest;
+import com.importexport.export.ExportPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportCacheTest {
+
+    @TempDir
+    Path cachePath;
+
+    private ExportCacheConfig config;
+    private ExportCache cache;
+
+    @BeforeEach
+    void createCache() throws IOException {
+        config = new ExportCacheConfig();
+        config.setCachePath(cachePath.toString());
+        config.setSpillThreshold(16);
+        config.setMaxMemorySize(64);
+        config.setMaxDiskSize(1024);
+        config.setMaxEntrySize(256);
+        cache = new ExportCache();
+        ReflectionTestUtils.setField(cache, "exportCacheConfig", config);
+        cache.createDirectory();
+    }
+
+    @AfterEach
+    void clearCache() throws IOException {
+        cache.clear();
+    }
+
+    @Test
+    void servesCommittedExport() throws IOException {
+        ExportPlan plan = plan("user", "csv", "ASC");
+        assertEquals(-1, cache.serve(plan, new ByteArrayOutputStream()));
+
+        ByteArrayOutputStream client = new ByteArrayOutputStream();
+        export(plan, "id,name\n1,a\n", client, 1);
+        assertEquals("id,name\n1,a\n", client.toString(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream served = new ByteArrayOutputStream();
+        assertEquals(1, cache.serve(plan, served));
+        assertEquals("id,name\n1,a\n", served.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void equivalentRequestsShareEntryAndETag() throws IOException {
+        export(plan("user", "csv", "ASC"), "rows", new ByteArrayOutputStream(), 1);
+
+        ExportPlan spelledDifferently = plan("user", "CSV", null);
+        assertEquals(cache.eTag(plan("user", "csv", "ASC")), cache.eTag(spelledDifferently));
+        assertEquals(1, cache.serve(spelledDifferently, new ByteArrayOutputStream()));
+        assertNotEquals(cache.eTag(plan("user", "csv", "ASC")), cache.eTag(plan("user", "csv", "DESC")));
+    }
+
+    @Test
+    void spillsLargeExportsToDisk() throws IOException {
+        ExportPlan plan = plan("user", "csv", "ASC");
+        byte[] content = "0123456789".repeat(10).getBytes(StandardCharsets.UTF_8);
+        try (ExportCache.Recorder recorder = cache.record(plan, new ByteArrayOutputStream())) {
+            // Written in pieces, so the recording moves from memory to a file midway
+            for (int offset = 0; offset < content.length; offset += 7) {
+                recorder.write(content, offset, Math.min(7, content.length - offset));
+            }
+            recorder.commit(10);
+        }
+        assertEquals(1, cacheFiles().size());
+
+        ByteArrayOutputStream served = new ByteArrayOutputStream();
+        assertEquals(10, cache.serve(plan, served));
+        assertArrayEquals(content, served.toByteArray());
+    }
+
+    @Test
+    void skipsExportsLargerThanMaxEntrySize() throws IOException {
+        ExportPlan plan = plan("user", "csv", "ASC");
+        ByteArrayOutputStream client = new ByteArrayOutputStream();
+        export(plan, "x".repeat(300), client, 1);
+
+        assertEquals(300, client.size());
+        assertEquals(-1, cache.serve(plan, new ByteArrayOutputStream()));
+        assertTrue(cacheFiles().isEmpty());
+    }
+
+    @Test
+    void uncommittedRecordingIsDropped() throws IOException {
+        ExportPlan plan = plan("user", "csv", "ASC");
+        try (ExportCache.Recorder recorder = cache.record(plan, new ByteArrayOutputStream())) {
+            recorder.write("x".repeat(100).getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(-1, cache.serve(plan, new ByteArrayOutputStream()));
+        assertTrue(cacheFiles().isEmpty());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() throws IOException {
+        ExportPlan first = plan("user", "csv", "ASC");
+        ExportPlan second = plan("user", "csv", "DESC");
+        ExportPlan third = plan("user", "json", "ASC");
+        export(first, "a".repeat(16), new ByteArrayOutputStream(), 1);
+        export(second, "b".repeat(16), new ByteArrayOutputStream(), 1);
+        export(third, "c".repeat(16), new ByteArrayOutputStream(), 1);
+
+        // Touch the oldest, so the next one to go is the second
+        assertEquals(1, cache.serve(first, new ByteArrayOutputStream()));
+        export(plan("user", "json", "DESC"), "d".repeat(16), new ByteArrayOutputStream(), 1);
+        export(plan("user", "xlsx", "ASC"), "e".repeat(16), new ByteArrayOutputStream(), 1);
+
+        assertEquals(1, cache.serve(first, new ByteArrayOutputStream()));
+        assertEquals(-1, cache.serve(second, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void invalidateDropsEntriesAndChangesETag() throws IOException {
+        ExportPlan users = plan("user", "csv", "ASC");
+        ExportPlan tasks = plan("task", "csv", "ASC");
+        export(users, "x".repeat(100), new ByteArrayOutputStream(), 1);
+        export(tasks, "tasks", new ByteArrayOutputStream(), 1);
+        String userETag = cache.eTag(users);
+        String taskETag = cache.eTag(tasks);
+
+        cache.invalidate("user");
+
+        assertEquals(-1, cache.serve(users, new ByteArrayOutputStream()));
+        assertTrue(cacheFiles().isEmpty());
+        assertNotEquals(userETag, cache.eTag(users));
+        assertEquals(1, cache.serve(tasks, new ByteArrayOutputStream()));
+        assertEquals(taskETag, cache.eTag(tasks));
+    }
+
+    @Test
+    void doesNotStoreExportOverlappingAnImport() throws IOException {
+        ExportPlan plan = plan("user", "csv", "ASC");
+        try (ExportCache.Recorder recorder = cache.record(plan, new ByteArrayOutputStream())) {
+            recorder.write("rows".getBytes(StandardCharsets.UTF_8));
+            cache.invalidate("user");
+            recorder.commit(1);
+        }
+        assertEquals(-1, cache.serve(plan, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void deletesOnlyItsOwnFiles() throws IOException {
+        Path stale = Files.createTempFile(cachePath, "export-", ".tmp");
+        Path foreign = Files.writeString(cachePath.resolve("report.csv"), "keep");
+        Path similar = Files.writeString(cachePath.resolve("export-notes.txt"), "keep");
+
+        cache.createDirectory();
+
+        assertTrue(Files.notExists(stale));
+        assertTrue(Files.exists(foreign));
+        assertTrue(Files.exists(similar));
+    }
+
+    private void export(ExportPlan plan, String content, ByteArrayOutputStream client, long rowCount)
+            throws IOException {
+        try (ExportCache.Recorder recorder = cache.record(plan, client)) {
+            recorder.write(content.getBytes(StandardCharsets.UTF_8));
+            recorder.commit(rowCount);
+        }
+    }
+
+    private List<Path> cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(cachePath)) {
+            return files.toList();
+        }
+    }
+
+    private static ExportPlan plan(String moduleType, String fileFormat, String sortOrder) {
+        ExportRequest request = new ExportRequest(moduleType, fileFormat, null, null, null, sortOrder, false);
+        return new ExportPlan(request, null, List.of(), null, null, List.of());
+    }
+}
@@ -0,0 +1,140 @@
+package com.importexport.service;
+
+import com.importexport.dto.ExportRequest;
+import com.importexport.entity.Task;
+import com.importexport.export.ExportPlan;
+import com.importexport.export.ExportSchema;
+import com.importexport.export.FilterCompiler;
+import com.importexport.export.RowWriter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pages of three rows, so every walk crosses several page boundaries,
+ * some of them between rows with the same or a null sort value.
+ */
+@SpringBootTest(properties = "app.export.page-size=3")
+class ExportQueryServiceTest {
+
+    private static final String TYPE = "keyset-test";
+    private static final String FILTER = "type = '" + TYPE + "'";
+
+    @Autowired
+    private ExportQueryService exportQueryService;
+
+    @Autowired
+    private FilterCompiler filterCompiler;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ExportSchema schema = ExportSchema.forModule("task");
+
+    @BeforeEach
+    void createTasks() {
+        // Ids follow the names, T0 has the lowest
+        Integer[] priorities = {3, null, 1, 3, null, 2, 3, 1, null, 2};
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < priorities.length; i++) {
+                entityManager.persist(new Task("T" + i, TYPE, priorities[i], null, null, null, true, null));
+            }
+            entityManager.persist(new Task("Inactive", TYPE, 2, null, null, null, false, null));
+        });
+    }
+
+    @AfterEach
+    void deleteTasks() {
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("delete from Task t where t.type = :type")
+                .setParameter("type", TYPE)
+                .executeUpdate());
+    }
+
+    @Test
+    void walksEveryRowInIdOrder() throws IOException {
+        assertEquals(List.of("T0", "T1", "T2", "T3", "T4", "T5", "T6", "T7", "T8", "T9"), export("id", "ASC"));
+        assertEquals(List.of("T9", "T8", "T7", "T6", "T5", "T4", "T3", "T2", "T1", "T0"), export("id", "DESC"));
+    }
+
+    @Test
+    void walksTiesAndNullsAcrossPages() throws IOException {
+        // Nulls first, ties by id, in both directions
+        assertEquals(List.of("T1", "T4", "T8", "T2", "T7", "T5", "T9", "T0", "T3", "T6"),
+                export("priority", "ASC"));
+        assertEquals(List.of("T1", "T4", "T8", "T0", "T3", "T6", "T5", "T9", "T2", "T7"),
+                export("priority", "DESC"));
+    }
+
+    @Test
+    void endsOnAPageThatIsExactlyFull() throws IOException {
+        List<String> names = new ArrayList<>();
+        long count = exportQueryService.export(plan("id", "ASC", FILTER + " AND priority IS NOT NULL"),
+                writer(names, () -> { }));
+
+        assertEquals(7, count);
+        assertEquals(List.of("T0", "T2", "T3", "T5", "T6", "T7", "T9"), names);
+    }
+
+    @Test
+    void doesNotSkipRowsWhenEarlierRowsAreDeletedDuringTheExport() throws IOException {
+        List<String> names = new ArrayList<>();
+        // Runs once the first page has been read and written
+        Runnable deleteFirstRow = () -> transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("delete from Task t where t.type = :type and t.name = 'T0'")
+                .setParameter("type", TYPE)
+                .executeUpdate());
+
+        exportQueryService.export(plan("id", "ASC", FILTER), writer(names, () -> {
+            if (names.size() == 3) {
+                deleteFirstRow.run();
+            }
+        }));
+
+        assertEquals(List.of("T0", "T1", "T2", "T3", "T4", "T5", "T6", "T7", "T8", "T9"), names);
+    }
+
+    private List<String> export(String sortBy, String sortOrder) throws IOException {
+        List<String> names = new ArrayList<>();
+        long count = exportQueryService.export(plan(sortBy, sortOrder, FILTER), writer(names, () -> { }));
+        assertEquals(names.size(), count);
+        return names;
+    }
+
+    private ExportPlan plan(String sortBy, String sortOrder, String filter) {
+        ExportRequest request = new ExportRequest("task", "csv", List.of("name"), filter, sortBy, sortOrder, false);
+        return new ExportPlan(request, schema, schema.select(request.getFields()), null,
+                filterCompiler.compile("task", schema, filter), List.of());
+    }
+
+    private static RowWriter writer(List<String> names, Runnable afterRow) {
+        return new RowWriter() {
+            @Override
+            public void writeRow(Object[] values) {
+                names.add((String) values[0]);
+                afterRow.run();
+            }
+
+            @Override
+            public void finish() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
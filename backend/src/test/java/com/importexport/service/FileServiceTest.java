@@ -0,0 +1,89 @@
+package com.importexport.service;
+
+import com.importexport.config.FileUploadConfig;
+import com.importexport.dto.FileMetadata;
+import com.importexport.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileServiceTest {
+
+    @TempDir
+    Path uploadPath;
+
+    private FileUploadConfig fileUploadConfig;
+    private FileService fileService;
+
+    @BeforeEach
+    void createService() {
+        fileUploadConfig = new FileUploadConfig();
+        fileUploadConfig.setUploadPath(uploadPath.toString());
+        fileService = new FileService();
+        ReflectionTestUtils.setField(fileService, "fileUploadConfig", fileUploadConfig);
+    }
+
+    @Test
+    void keepsReleasedUploadsByDefault() throws IOException {
+        FileMetadata stored = fileService.saveFile(upload(), "camera", null);
+
+        fileService.release(stored.getFileName());
+
+        assertTrue(Files.exists(fileService.getFilePath(stored.getFileName())));
+    }
+
+    @Test
+    void deletesUploadsOnceTheLastReferenceIsReleased() throws IOException {
+        fileUploadConfig.setKeepUploads(false);
+        FileMetadata stored = fileService.saveFile(upload(), "camera", null);
+        FileMetadata again = fileService.saveFile(upload(), "camera", null);
+        assertEquals(stored.getFileName(), again.getFileName());
+
+        fileService.release(stored.getFileName());
+        assertTrue(Files.exists(fileService.getFilePath(stored.getFileName())));
+        fileService.release(again.getFileName());
+        assertFalse(Files.exists(fileService.getFilePath(stored.getFileName())));
+    }
+
+    @Test
+    void writesChunksAtTheirOffsets() throws IOException {
+        FileMetadata file = fileService.createFile("cameras.csv", 10, "camera");
+
+        assertEquals(4, fileService.writeChunk(file.getFileName(), 6, stream("6789"), 4));
+        assertEquals(6, fileService.writeChunk(file.getFileName(), 0, stream("012345"), 10));
+
+        assertEquals("0123456789", Files.readString(fileService.getFilePath(file.getFileName())));
+    }
+
+    @Test
+    void rejectsChunksLongerThanTheirLimit() throws IOException {
+        FileMetadata file = fileService.createFile("cameras.csv", 10, "camera");
+
+        assertThrows(ValidationException.class,
+                () -> fileService.writeChunk(file.getFileName(), 6, stream("67890"), 4));
+
+        assertEquals(10, Files.size(fileService.getFilePath(file.getFileName())));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile upload() {
+        return new MockMultipartFile("file", "cameras.csv", "text/csv", "name,type\nC1,ip\n".getBytes());
+    }
+}
@@ -0,0 +1,100 @@
+package com.importexport.service;
+
+import com.importexport.config.ImportJobConfig;
+import com.importexport.dto.FileMetadata;
+import com.importexport.dto.ImportJob;
+import com.importexport.dto.ImportRequest;
+import com.importexport.dto.ImportResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportJobServiceTest {
+
+    private ImportExportService importExportService;
+    private FileService fileService;
+    private ImportResultStore importResultStore;
+    private ImportJobService importJobService;
+
+    @BeforeEach
+    void createService() {
+        importExportService = mock(ImportExportService.class);
+        fileService = mock(FileService.class);
+        importResultStore = mock(ImportResultStore.class);
+        importJobService = new ImportJobService();
+        ReflectionTestUtils.setField(importJobService, "importJobConfig", new ImportJobConfig());
+        ReflectionTestUtils.setField(importJobService, "importExportService", importExportService);
+        ReflectionTestUtils.setField(importJobService, "fileService", fileService);
+        ReflectionTestUtils.setField(importJobService, "importResultStore", importResultStore);
+        importJobService.startExecutor();
+    }
+
+    @AfterEach
+    void stopService() {
+        importJobService.stopExecutor();
+    }
+
+    @Test
+    void releasesFileAfterImport() {
+        ImportResponse success = new ImportResponse("SUCCESS", "Imported", 1, 1, 0);
+        when(importExportService.importFile(any(), any(), any())).thenReturn(success);
+
+        FileMetadata upload = upload();
+        ImportRequest request = request();
+        ImportJob job = importJobService.submit(upload, request);
+
+        verify(fileService, timeout(5000)).release("upload.csv");
+        verify(importResultStore, timeout(5000)).finish(upload, request, success);
+        awaitFinished(job);
+        assertEquals(success, job.getResult());
+    }
+
+    @Test
+    void completesJobWhenImportThrows() {
+        when(importExportService.importFile(any(), any(), any())).thenThrow(new OutOfMemoryError("Java heap space"));
+
+        FileMetadata upload = upload();
+        ImportRequest request = request();
+        ImportJob job = importJobService.submit(upload, request);
+
+        ArgumentCaptor<ImportResponse> recorded = ArgumentCaptor.forClass(ImportResponse.class);
+        verify(importResultStore, timeout(5000)).finish(eq(upload), eq(request), recorded.capture());
+        verify(fileService, times(1)).release("upload.csv");
+        assertEquals("ERROR", recorded.getValue().getStatus());
+
+        awaitFinished(job);
+        assertEquals(ImportJob.FAILED, job.getStatus());
+        assertEquals("Import failed: Java heap space", job.getResult().getMessage());
+    }
+
+    private static void awaitFinished(ImportJob job) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(job.isFinished());
+    }
+
+    private static FileMetadata upload() {
+        return new FileMetadata("upload.csv", "csv", 10, "text/csv", null, "user");
+    }
+
+    private static ImportRequest request() {
+        ImportRequest request = new ImportRequest();
+        request.setModuleType("user");
+        request.setFileName("users.csv");
+        return request;
+    }
+}
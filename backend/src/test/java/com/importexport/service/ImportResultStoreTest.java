@@ -0,0 +1,124 @@
+package com.importexport.service;
+
+import com.importexport.config.ImportJobConfig;
+import com.importexport.dto.FileMetadata;
+import com.importexport.dto.ImportRequest;
+import com.importexport.dto.ImportResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ImportResultStoreTest {
+
+    private FileService fileService;
+    private ImportResultStore store;
+
+    @BeforeEach
+    void createStore() {
+        fileService = mock(FileService.class);
+        store = new ImportResultStore();
+        ReflectionTestUtils.setField(store, "importJobConfig", new ImportJobConfig());
+        ReflectionTestUtils.setField(store, "fileService", fileService);
+    }
+
+    @Test
+    void returnsEarlierResultOfSameImport() throws Exception {
+        FileMetadata upload = upload("abc");
+        ImportResponse response = new ImportResponse("SUCCESS", "Imported", 2, 2, 0);
+
+        assertNull(store.begin(upload, request(false, false), null));
+        ImportResultStore.Record previous = store.begin(upload, request(false, false), null);
+        assertNotNull(previous);
+        assertNull(store.begin(upload, request(false, true), null));
+
+        store.finish(upload, request(false, false), response);
+        assertSame(response, previous.getResult().get());
+        verify(fileService, times(2)).retain("abc.csv");
+    }
+
+    @Test
+    void forgetsFailedImports() {
+        FileMetadata upload = upload("abc");
+        store.begin(upload, request(false, false), null);
+        store.finish(upload, request(false, false), new ImportResponse("ERROR", "Import failed", 0, 0, 0));
+
+        verify(fileService).release("abc.csv");
+        assertNull(store.begin(upload, request(false, false), null));
+    }
+
+    @Test
+    void forgetsImportsRejectedBeforeWritingRows() {
+        FileMetadata upload = upload("abc");
+        store.begin(upload, request(false, false), null);
+        store.finish(upload, request(false, false), new ImportResponse("VALIDATION_ERRORS",
+                "Import aborted with 1 errors, no records were imported", 2, 0, 1));
+
+        verify(fileService).release("abc.csv");
+        assertNull(store.begin(upload, request(false, false), null));
+    }
+
+    @Test
+    void keepsImportsStoppedAfterWritingRows() {
+        FileMetadata upload = upload("abc");
+        store.begin(upload, request(false, false), null);
+        store.finish(upload, request(false, false), new ImportResponse("VALIDATION_ERRORS",
+                "Import stopped with 1 errors after 3 records were imported", 4, 3, 1));
+
+        verify(fileService, never()).release(anyString());
+        assertNotNull(store.begin(upload, request(false, false), null));
+    }
+
+    @Test
+    void stopsWaitingForAnImportStillRunning() throws Exception {
+        ImportJobConfig config = new ImportJobConfig();
+        config.setWaitMinutes(0);
+        ReflectionTestUtils.setField(store, "importJobConfig", config);
+        FileMetadata upload = upload("abc");
+        store.begin(upload, request(false, false), null);
+
+        ImportResultStore.Record running = store.begin(upload, request(false, false), null);
+        ImportResponse response = store.await(running);
+
+        assertEquals("ERROR", response.getStatus());
+        assertEquals("The same file is still being imported, try again later", response.getMessage());
+    }
+
+    @Test
+    void neverKeepsValidationOnlyResults() {
+        FileMetadata upload = upload("abc");
+        ImportRequest validateOnly = request(true, false);
+
+        assertNull(store.begin(upload, validateOnly, null));
+        store.finish(upload, validateOnly, new ImportResponse("SUCCESS", "Validation passed", 2, 2, 0));
+        assertNull(store.begin(upload, validateOnly, null));
+        store.record(upload, validateOnly, new ImportResponse("SUCCESS", "Validation passed", 2, 2, 0));
+        assertNull(store.begin(upload, validateOnly, null));
+
+        verify(fileService, never()).retain(anyString());
+    }
+
+    private static FileMetadata upload(String checksum) {
+        FileMetadata upload = new FileMetadata(checksum + ".csv", "csv", 10, "text/csv", null, "user");
+        upload.setChecksum(checksum);
+        return upload;
+    }
+
+    private static ImportRequest request(boolean validateOnly, boolean skipErrors) {
+        ImportRequest request = new ImportRequest();
+        request.setModuleType("user");
+        request.setValidateOnly(validateOnly);
+        request.setSkipErrors(skipErrors);
+        request.setBatchSize(100);
+        return request;
+    }
+}
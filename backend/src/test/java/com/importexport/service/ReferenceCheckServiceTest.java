@@ -0,0 +1,142 @@
+package com.importexport.service;
+
+import com.importexport.config.ValidationConfig;
+import com.importexport.dto.ValidationError;
+import com.importexport.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReferenceCheckServiceTest {
+
+    private ValidationConfig validationConfig;
+    private KeyLookup keyLookup;
+    private ReferenceCheckService referenceCheckService;
+    private ValidationService validationService;
+
+    @BeforeEach
+    void createService() {
+        validationConfig = new ValidationConfig();
+        keyLookup = mock(KeyLookup.class);
+        referenceCheckService = new ReferenceCheckService();
+        ReflectionTestUtils.setField(referenceCheckService, "validationConfig", validationConfig);
+        ReflectionTestUtils.setField(referenceCheckService, "keyLookup", keyLookup);
+        validationService = new ValidationService();
+    }
+
+    @Test
+    void rejectsTasksAssignedToUnknownUsers() {
+        when(keyLookup.count(User.class)).thenReturn(2L);
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(3);
+            consumer.accept("alice");
+            consumer.accept("bob");
+            return null;
+        }).when(keyLookup).forEachValue(eq(User.class), eq("username"), anyInt(), any());
+        ReferenceCheckService.Checker checker = newChecker();
+
+        List<ValidationError> errors = new ArrayList<>();
+        checker.check(task("alice"), 2, errors);
+        checker.check(task(" bob "), 3, errors);
+        checker.check(task("mallory"), 4, errors);
+        checker.check(task(""), 5, errors);
+        checker.resolve(errors);
+
+        assertEquals(1, errors.size());
+        assertEquals(4, errors.get(0).getRow());
+        assertEquals("assignedTo", errors.get(0).getField());
+        assertEquals("INVALID_REFERENCE", errors.get(0).getErrorCode());
+        assertEquals("mallory", errors.get(0).getActualValue());
+        // A small table is read once and checked in memory
+        verify(keyLookup, never()).findExisting(any(), any(), anyCollection());
+    }
+
+    @Test
+    void looksUpEachBatchWithOneQueryAndCachesTheAnswers() {
+        validationConfig.setReferenceCacheSize(10);
+        validationConfig.setLookupSize(3);
+        when(keyLookup.count(User.class)).thenReturn(1000L);
+        List<Set<String>> lookedUp = new ArrayList<>();
+        when(keyLookup.findExisting(eq(User.class), eq("username"), anyCollection())).thenAnswer(invocation -> {
+            Collection<String> values = invocation.getArgument(2);
+            lookedUp.add(Set.copyOf(values));
+            return Set.of("alice", "bob");
+        });
+        ReferenceCheckService.Checker checker = newChecker();
+
+        List<ValidationError> errors = new ArrayList<>();
+        checker.check(task("alice"), 2, errors);
+        checker.check(task("mallory"), 3, errors);
+        assertFalse(checker.isFull());
+        checker.check(task("alice"), 4, errors);
+        assertTrue(checker.isFull());
+        checker.resolve(errors);
+
+        assertEquals(List.of(Set.of("alice", "mallory")), lookedUp);
+        assertEquals(1, errors.size());
+        assertEquals(3, errors.get(0).getRow());
+
+        // Known answers are reported right away, only new values are looked up
+        errors.clear();
+        checker.check(task("mallory"), 5, errors);
+        checker.check(task("alice"), 6, errors);
+        checker.check(task("bob"), 7, errors);
+        assertEquals(1, errors.size());
+        assertEquals(5, errors.get(0).getRow());
+        checker.resolve(errors);
+
+        assertEquals(List.of(Set.of("alice", "mallory"), Set.of("bob")), lookedUp);
+        assertEquals(1, errors.size());
+        verify(keyLookup, times(2)).findExisting(any(), any(), anyCollection());
+        verify(keyLookup, never()).forEachValue(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void skipsTheLookupsOfDiscardedRows() {
+        when(keyLookup.count(User.class)).thenReturn(Long.MAX_VALUE);
+        ReferenceCheckService.Checker checker = newChecker();
+
+        List<ValidationError> errors = new ArrayList<>();
+        checker.check(task("mallory"), 2, errors);
+        checker.discard(2);
+        checker.resolve(errors);
+
+        assertTrue(errors.isEmpty());
+        verify(keyLookup, never()).findExisting(any(), any(), anyCollection());
+    }
+
+    @Test
+    void checksNothingForModulesWithoutReferences() {
+        assertNull(referenceCheckService.newChecker("camera", validationService.getPlan("camera")));
+    }
+
+    private ReferenceCheckService.Checker newChecker() {
+        return referenceCheckService.newChecker("task", validationService.getPlan("task"));
+    }
+
+    private static Map<String, Object> task(String assignedTo) {
+        return Map.of("name", "Task", "type", "chore", "assignedTo", assignedTo);
+    }
+}
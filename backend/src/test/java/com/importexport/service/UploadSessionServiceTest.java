@@ -0,0 +1,171 @@
+package com.importexport.service;
+
+import com.importexport.config.FileUploadConfig;
+import com.importexport.dto.FileMetadata;
+import com.importexport.dto.ImportRequest;
+import com.importexport.dto.UploadSession;
+import com.importexport.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadSessionServiceTest {
+
+    private static final String CHECKSUM = "5e1363395669f23a68b153a770ec800d5cce29db59643ed2133be750904457f3";
+
+    private FileUploadConfig fileUploadConfig;
+    private FileService fileService;
+    private ImportJobService importJobService;
+    private UploadSessionService uploadSessionService;
+
+    @BeforeEach
+    void createService() throws IOException {
+        fileUploadConfig = new FileUploadConfig();
+        fileService = mock(FileService.class);
+        importJobService = mock(ImportJobService.class);
+        when(fileService.createFile(anyString(), anyLong(), anyString()))
+                .thenReturn(new FileMetadata("part.csv", "csv", 10, null, null, "camera"));
+        uploadSessionService = new UploadSessionService();
+        ReflectionTestUtils.setField(uploadSessionService, "fileUploadConfig", fileUploadConfig);
+        ReflectionTestUtils.setField(uploadSessionService, "fileService", fileService);
+        ReflectionTestUtils.setField(uploadSessionService, "importJobService", importJobService);
+    }
+
+    @Test
+    void limitsChunksToTheChunkSizeAndTheRestOfTheFile() throws IOException {
+        UploadSession session = uploadSessionService.create("camera", "cameras.csv", 10, CHECKSUM);
+        InputStream chunk = new ByteArrayInputStream(new byte[4]);
+        when(fileService.writeChunk("part.csv", 6, chunk, 4)).thenReturn(4L);
+
+        uploadSessionService.writeChunk(session, 6, chunk);
+
+        fileUploadConfig.setMaxChunkSize(3);
+        uploadSessionService.writeChunk(session, 0, chunk);
+        verify(fileService).writeChunk("part.csv", 0, chunk, 3);
+        assertEquals(4, session.getReceivedBytes());
+    }
+
+    @Test
+    void rejectsOversizedChunksWithoutCountingThem() throws IOException {
+        UploadSession session = uploadSessionService.create("camera", "cameras.csv", 10, CHECKSUM);
+        when(fileService.writeChunk(anyString(), anyLong(), any(), anyLong()))
+                .thenThrow(new ValidationException("Chunk is longer than 10 bytes"));
+
+        assertThrows(ValidationException.class,
+                () -> uploadSessionService.writeChunk(session, 0, new ByteArrayInputStream(new byte[11])));
+        assertThrows(ValidationException.class,
+                () -> uploadSessionService.writeChunk(session, 10, new ByteArrayInputStream(new byte[1])));
+
+        assertEquals(0, session.getReceivedBytes());
+        // The rejected chunk is no longer in flight
+        assertTrue(session.isIdleSince(LocalDateTime.now().plusMinutes(1)));
+    }
+
+    @Test
+    void countsTheBytesOfAChunkThatBrokeOff() throws IOException {
+        UploadSession session = uploadSessionService.create("camera", "cameras.csv", 10, CHECKSUM);
+        when(fileService.writeChunk(anyString(), anyLong(), any(), anyLong()))
+                .thenThrow(new FileService.ChunkWriteException("Connection reset", 3));
+
+        assertThrows(IOException.class,
+                () -> uploadSessionService.writeChunk(session, 2, new ByteArrayInputStream(new byte[8])));
+
+        assertEquals(3, session.getReceivedBytes());
+        assertArrayEquals(new long[]{2, 5}, session.getReceivedRanges().get(0));
+    }
+
+    @Test
+    void resetsTheRangesOnAChecksumMismatch() throws IOException {
+        UploadSession session = receivedSession();
+        when(fileService.checksum("part.csv")).thenReturn("0".repeat(64));
+
+        assertThrows(ValidationException.class, () -> uploadSessionService.complete(session, new ImportRequest()));
+
+        assertEquals(UploadSession.UPLOADING, session.getStatus());
+        assertEquals(0, session.getReceivedBytes());
+        assertSame(session, uploadSessionService.getSession(session.getUploadId()));
+        verify(fileService, never()).storeFile(any(), anyString());
+        verify(importJobService, never()).submit(any(FileMetadata.class), any());
+    }
+
+    @Test
+    void takesChunksAgainWhenTheFileCannotBeRead() throws IOException {
+        UploadSession session = receivedSession();
+        when(fileService.checksum("part.csv")).thenThrow(new IOException("Disk error"));
+
+        assertThrows(IOException.class, () -> uploadSessionService.complete(session, new ImportRequest()));
+
+        assertEquals(UploadSession.UPLOADING, session.getStatus());
+        assertEquals(10, session.getReceivedBytes());
+        assertSame(session, uploadSessionService.getSession(session.getUploadId()));
+        assertTrue(session.beginChunk());
+    }
+
+    @Test
+    void canCompleteAgainWhenTheFileCannotBeStored() throws IOException {
+        UploadSession session = receivedSession();
+        FileMetadata stored = new FileMetadata(CHECKSUM + ".csv", "csv", 10, null, null, "camera");
+        when(fileService.checksum("part.csv")).thenReturn(CHECKSUM);
+        when(fileService.storeFile(session.getFile(), CHECKSUM))
+                .thenThrow(new IOException("Disk full"))
+                .thenReturn(stored);
+
+        assertThrows(IOException.class, () -> uploadSessionService.complete(session, new ImportRequest()));
+        assertEquals(UploadSession.UPLOADING, session.getStatus());
+        verify(importJobService, never()).submit(any(FileMetadata.class), any());
+
+        uploadSessionService.complete(session, new ImportRequest());
+        verify(importJobService).submit(any(FileMetadata.class), any());
+        assertNull(uploadSessionService.getSession(session.getUploadId()));
+    }
+
+    @Test
+    void expiresIdleSessionsWhateverTheirStatus() throws IOException {
+        UploadSession uploading = uploadSessionService.create("camera", "cameras.csv", 10, CHECKSUM);
+        UploadSession completed = receivedSession();
+        assertTrue(completed.complete());
+
+        fileUploadConfig.setUploadExpiryMinutes(-1);
+        uploadSessionService.pruneExpiredSessions();
+
+        assertNull(uploadSessionService.getSession(uploading.getUploadId()));
+        assertNull(uploadSessionService.getSession(completed.getUploadId()));
+    }
+
+    @Test
+    void keepsSessionsWithAChunkBeingWritten() throws IOException {
+        UploadSession session = uploadSessionService.create("camera", "cameras.csv", 10, CHECKSUM);
+        assertTrue(session.beginChunk());
+
+        fileUploadConfig.setUploadExpiryMinutes(-1);
+        uploadSessionService.pruneExpiredSessions();
+
+        assertSame(session, uploadSessionService.getSession(session.getUploadId()));
+    }
+
+    private UploadSession receivedSession() throws IOException {
+        UploadSession session = uploadSessionService.create("camera", "cameras.csv", 10, CHECKSUM);
+        assertTrue(session.beginChunk());
+        session.endChunk(0, 10);
+        return session;
+    }
+}
@@ -0,0 +1,139 @@
+package com.importexport.service;
+
+import com.importexport.config.ValidationConfig;
+import com.importexport.dto.ImportResponse;
+import com.importexport.processor.RowSource;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ValidationServiceTest {
+
+    private ValidationService validationService;
+
+    private ValidatorFactory validatorFactory;
+
+    @AfterEach
+    void stopService() {
+        validationService.stopValidationPool();
+        validatorFactory.close();
+    }
+
+    @Test
+    void countsFailedRowsOnceInSerialProgress() throws Exception {
+        createService(Integer.MAX_VALUE, 1);
+        Progress progress = new Progress();
+
+        ImportResponse response = validationService.validateData(cameras(), "camera", progress);
+
+        assertEquals(6, response.getTotalRecords());
+        assertEquals(2, response.getFailedRecords());
+        assertEquals(3, response.getErrors().size());
+        assertEquals(List.of(1, 0, 0), progress.at(1));
+        // Row 3 has two errors but is one failed record
+        assertEquals(List.of(2, 1, 2), progress.at(2));
+        assertEquals(List.of(6, 2, 3), progress.last());
+    }
+
+    @Test
+    void countsFailedRowsOnceInSegmentedProgress() throws Exception {
+        createService(1, 2);
+        Progress progress = new Progress();
+
+        ImportResponse response = validationService.validateData(cameras(), "camera", progress);
+
+        assertEquals(2, response.getFailedRecords());
+        assertEquals(3, response.getErrors().size());
+        assertEquals(List.of(6, 2, 3), progress.last());
+        for (List<Integer> update : progress.updates) {
+            assertTrue(update.get(1) <= update.get(0), "failed rows exceed validated rows: " + update);
+        }
+    }
+
+    @Test
+    void reportsWhatTheInsertWouldRejectWhenValidatingOnly() throws Exception {
+        createService(Integer.MAX_VALUE, 1);
+        Map<String, Object> tooLong = camera("n".repeat(256), "ip");
+        Map<String, Object> notANumber = new HashMap<>(Map.of("name", "Floor", "type", "grid", "width", "wide"));
+
+        ImportResponse cameras = validationService.validateData(List.of(camera("Gate", "ip"), tooLong), "camera");
+        ImportResponse maps = validationService.validateData(List.of(notANumber), "map");
+
+        assertEquals(1, cameras.getFailedRecords());
+        assertEquals("INVALID_LENGTH", cameras.getErrors().get(0).getErrorCode());
+        assertEquals(3, cameras.getErrors().get(0).getRow());
+        assertEquals("INVALID_INTEGER", maps.getErrors().get(0).getErrorCode());
+    }
+
+    private void createService(int parallelThreshold, int segmentSize) {
+        ValidationConfig config = new ValidationConfig();
+        config.setParallelThreshold(parallelThreshold);
+        config.setSegmentSize(segmentSize);
+        config.setParallelism(2);
+        validationService = new ValidationService();
+        ReflectionTestUtils.setField(validationService, "validationConfig", config);
+        ReflectionTestUtils.setField(validationService, "duplicateCheckService", mock(DuplicateCheckService.class));
+        ReflectionTestUtils.setField(validationService, "referenceCheckService", mock(ReferenceCheckService.class));
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        EntityRowMapper entityRowMapper = new EntityRowMapper();
+        ReflectionTestUtils.setField(entityRowMapper, "validator", validatorFactory.getValidator());
+        ReflectionTestUtils.setField(validationService, "entityRowMapper", entityRowMapper);
+        validationService.startValidationPool();
+    }
+
+    private static RowSource cameras() {
+        List<Map<String, Object>> rows = List.of(
+                camera("Gate", "ip"),
+                camera("", ""),
+                camera("Hall", "ip"),
+                camera("Dock", "ip"),
+                camera("Yard", null),
+                camera("Roof", "ip"));
+        return sink -> {
+            for (int i = 0; i < rows.size(); i++) {
+                sink.accept(rows.get(i), i + 2);
+            }
+            return rows.size();
+        };
+    }
+
+    private static Map<String, Object> camera(String name, String type) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("name", name);
+        row.put("type", type);
+        row.put("isActive", "true");
+        return row;
+    }
+
+    /**
+     * Records every onRowsValidated call as [rowsValidated, failedRecords, errorCount]
+     */
+    private static class Progress implements ImportProgressListener {
+
+        private final List<List<Integer>> updates = new ArrayList<>();
+
+        @Override
+        public void onRowsValidated(int rowsValidated, int failedRecords, int errorCount) {
+            updates.add(List.of(rowsValidated, failedRecords, errorCount));
+        }
+
+        List<Integer> at(int rowsValidated) {
+            return updates.stream().filter(update -> update.get(0) == rowsValidated).findFirst().orElseThrow();
+        }
+
+        List<Integer> last() {
+            return updates.get(updates.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.importexport.service.impl;
+
+import com.importexport.config.FileUploadConfig;
+import com.importexport.dto.FileMetadata;
+import com.importexport.dto.ImportRequest;
+import com.importexport.dto.ImportResponse;
+import com.importexport.processor.FileProcessor;
+import com.importexport.service.FileService;
+import com.importexport.service.ImportResultStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportExportServiceImplTest {
+
+    private final MockMultipartFile file = new MockMultipartFile("file", "users.csv", "text/csv",
+            "username,email\nalice,alice@example.com\n".getBytes());
+
+    private FileService fileService;
+    private ImportResultStore importResultStore;
+    private FileMetadata upload;
+    private ImportExportServiceImpl importExportService;
+
+    @BeforeEach
+    void createService() throws Exception {
+        fileService = mock(FileService.class);
+        importResultStore = mock(ImportResultStore.class);
+        FileProcessor processor = mock(FileProcessor.class);
+        when(processor.supports("csv")).thenReturn(true);
+        upload = new FileMetadata("upload.csv", "csv", file.getSize(), "text/csv", null, "user");
+        when(fileService.saveFile(any(), any(), any())).thenReturn(upload);
+
+        importExportService = spy(new ImportExportServiceImpl());
+        ReflectionTestUtils.setField(importExportService, "fileUploadConfig", new FileUploadConfig());
+        ReflectionTestUtils.setField(importExportService, "fileService", fileService);
+        ReflectionTestUtils.setField(importExportService, "importResultStore", importResultStore);
+        ReflectionTestUtils.setField(importExportService, "fileProcessors", List.of(processor));
+    }
+
+    @Test
+    void finishesTheImportWhenItThrowsAnError() {
+        ImportRequest request = request();
+        doThrow(new OutOfMemoryError("Java heap space"))
+                .when(importExportService).importFile(eq(upload), eq(request), any());
+
+        ImportResponse response = importExportService.importData(file, request);
+
+        assertEquals("ERROR", response.getStatus());
+        assertEquals("Import failed: Java heap space", response.getMessage());
+        ArgumentCaptor<ImportResponse> finished = ArgumentCaptor.forClass(ImportResponse.class);
+        verify(importResultStore).finish(eq(upload), eq(request), finished.capture());
+        assertSame(response, finished.getValue());
+        verify(fileService).release("upload.csv");
+    }
+
+    @Test
+    void returnsTheResponseOfAnIdenticalImport() throws Exception {
+        ImportRequest request = request();
+        ImportResultStore.Record previous = mock(ImportResultStore.Record.class);
+        ImportResponse earlier = new ImportResponse("SUCCESS", "Imported", 1, 1, 0);
+        when(importResultStore.begin(upload, request, null)).thenReturn(previous);
+        when(importResultStore.await(previous)).thenReturn(earlier);
+
+        assertSame(earlier, importExportService.importData(file, request));
+        verify(importExportService, never()).importFile(any(), any(), any());
+        verify(fileService).release("upload.csv");
+    }
+
+    private static ImportRequest request() {
+        ImportRequest request = new ImportRequest();
+        request.setModuleType("user");
+        request.setBatchSize(100);
+        return request;
+    }
+}
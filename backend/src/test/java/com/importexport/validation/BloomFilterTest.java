@@ -0,0 +1,59 @@
+package com.importexport.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void containsEveryAddedHash() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        long[] hashes = new SplittableRandom(7).longs(100_000).toArray();
+        for (long hash : hashes) {
+            filter.add(hash);
+        }
+
+        for (long hash : hashes) {
+            assertTrue(filter.mightContain(hash));
+        }
+    }
+
+    @Test
+    void containsEveryAddedHashBeyondExpectedKeys() {
+        BloomFilter filter = new BloomFilter(10, 0.01);
+        for (long hash = -500; hash < 500; hash++) {
+            filter.add(hash * 0x9e3779b97f4a7c15L);
+        }
+
+        for (long hash = -500; hash < 500; hash++) {
+            assertTrue(filter.mightContain(hash * 0x9e3779b97f4a7c15L));
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add(random.nextLong());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(random.nextLong())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000");
+    }
+
+    @Test
+    void rejectsRateOutsideZeroAndOne() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
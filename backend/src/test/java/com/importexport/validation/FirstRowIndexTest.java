@@ -0,0 +1,46 @@
+package com.importexport.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FirstRowIndexTest {
+
+    @Test
+    void returnsRowOfFirstOccurrence() {
+        FirstRowIndex index = new FirstRowIndex(16);
+
+        assertEquals(0, index.putIfAbsent("alice", 1, 101, 2));
+        assertEquals(0, index.putIfAbsent("bob", 2, 102, 3));
+        assertEquals(2, index.putIfAbsent("alice", 1, 101, 4));
+        assertEquals(3, index.putIfAbsent("bob", 2, 102, 5));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void doesNotMatchDifferentValuesWithTheSameFirstHash() {
+        FirstRowIndex index = new FirstRowIndex(16);
+
+        assertEquals(0, index.putIfAbsent("alice", 1, 101, 2));
+        assertEquals(0, index.putIfAbsent("mallory", 1, 999, 3));
+        assertEquals(0, index.putIfAbsent("trudy", 1, 555, 4));
+
+        assertEquals(2, index.putIfAbsent("alice", 1, 101, 5));
+        assertEquals(3, index.putIfAbsent("mallory", 1, 999, 6));
+        assertEquals(4, index.putIfAbsent("trudy", 1, 555, 7));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void keepsEntriesWhileGrowing() {
+        FirstRowIndex index = new FirstRowIndex(16);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(0, index.putIfAbsent("value" + i, i * 31L + 1, i, i + 2));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i + 2, index.putIfAbsent("value" + i, i * 31L + 1, i, 20_000));
+        }
+        assertEquals(10_000, index.size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.importexport.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongIntHashMapTest {
+
+    @Test
+    void keepsFirstValueOfKey() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(0, map.putIfAbsent(42, 1));
+        assertEquals(1, map.putIfAbsent(42, 2));
+        assertEquals(1, map.get(42));
+        assertEquals(0, map.get(43));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void storesZeroKeyAside() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(0, map.get(0));
+        assertEquals(0, map.putIfAbsent(0, 7));
+        assertEquals(7, map.putIfAbsent(0, 8));
+        assertEquals(7, map.get(0));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void wrapsProbesAroundTheEndOfTheTable() {
+        // 16 slots, and these keys all hash to the last one
+        LongIntHashMap map = new LongIntHashMap(4);
+        assertEquals(0, map.putIfAbsent(15, 1));
+        assertEquals(0, map.putIfAbsent(31, 2));
+        assertEquals(0, map.putIfAbsent(47, 3));
+        // Hashes to the first slot, which the wrapped probe of 31 took
+        assertEquals(0, map.putIfAbsent(16, 4));
+
+        assertEquals(1, map.get(15));
+        assertEquals(2, map.get(31));
+        assertEquals(3, map.get(47));
+        assertEquals(4, map.get(16));
+        assertEquals(0, map.get(63));
+        assertEquals(3, map.putIfAbsent(47, 5));
+    }
+
+    @Test
+    void keepsEntriesWhileGrowing() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        long[] keys = new SplittableRandom(1).longs(100_000).toArray();
+        for (int i = 0; i < keys.length; i++) {
+            // Sequential keys as well, they fill neighbouring slots
+            map.putIfAbsent(keys[i], i + 1);
+            map.putIfAbsent(i + 1, i + 1);
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i + 1, map.get(keys[i]));
+            assertEquals(i + 1, map.get(i + 1));
+        }
+        assertEquals(200_000, map.size());
+    }
+
+    @Test
+    void rejectsValuesThatMeanAbsent() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> map.putIfAbsent(1, -1));
+    }
+}
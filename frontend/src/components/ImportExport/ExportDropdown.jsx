@@ -14,7 +14,8 @@ const ExportDropdown = ({ moduleType, onExport, onClose }) => {
   const formatOptions = [
     { value: 'csv', label: 'CSV' },
     { value: 'xlsx', label: 'Excel (XLSX)' },
-    { value: 'json', label: 'JSON' }
+    { value: 'json', label: 'JSON' },
+    { value: 'ndjson', label: 'NDJSON (one object per line)' }
   ];
 
   const handleFieldChange = (field, checked) => {
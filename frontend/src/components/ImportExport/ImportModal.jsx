@@ -5,6 +5,7 @@ import ImportResult from './ImportResult';
 import ProgressBar from './ProgressBar';
 import useImportExport from '../../hooks/useImportExport';
 import useFileUpload from '../../hooks/useFileUpload';
+import { SUPPORTED_FILE_TYPES } from '../../utils/constants';
 
 const ImportModal = ({ moduleType, onClose }) => {
   const [step, setStep] = useState('upload'); // 'upload', 'processing', 'result'
@@ -12,7 +13,7 @@ const ImportModal = ({ moduleType, onClose }) => {
   const [validateOnly, setValidateOnly] = useState(false);
   const [skipErrors, setSkipErrors] = useState(false);
   
-  const { importData } = useImportExport(moduleType);
+  const { importData, progress } = useImportExport(moduleType);
   const { 
     uploadProgress, 
     isUploading, 
@@ -49,6 +50,42 @@ const ImportModal = ({ moduleType, onClose }) => {
     setImportResult(null);
   };
 
+  const STAGE_LABELS = {
+    QUEUED: 'Waiting in queue...',
+    VALIDATING: 'Validating...',
+    IMPORTING: 'Importing...'
+  };
+
+  const renderProgress = () => {
+    if (!progress) {
+      return (
+        <ProgressBar 
+          progress={uploadProgress} 
+          status={isUploading ? 'Uploading...' : 'Processing...'}
+        />
+      );
+    }
+
+    const percentage = progress.totalBytes > 0
+      ? Math.min(100, Math.round((progress.bytesRead / progress.totalBytes) * 100))
+      : 0;
+
+    return (
+      <>
+        <ProgressBar 
+          progress={percentage} 
+          status={STAGE_LABELS[progress.stage] || 'Processing...'}
+        />
+        <div className="import-progress-counts">
+          <span>Parsed: {progress.processedRecords}</span>
+          <span>Validated: {progress.validatedRecords}</span>
+          {!validateOnly && <span>Imported: {progress.persistedRecords}</span>}
+          <span>Errors: {progress.errorCount}</span>
+        </div>
+      </>
+    );
+  };
+
   const renderContent = () => {
     switch (step) {
       case 'upload':
@@ -78,7 +115,7 @@ const ImportModal = ({ moduleType, onClose }) => {
             
             <FileUpload 
               onFileSelect={handleFileSelect}
-              acceptedFormats={['.csv', '.xlsx', '.xls', '.json']}
+              acceptedFormats={SUPPORTED_FILE_TYPES}
               maxSize={10 * 1024 * 1024} // 10MB
             />
             
@@ -92,10 +129,7 @@ const ImportModal = ({ moduleType, onClose }) => {
         return (
           <div className="import-processing-step">
             <h3>Processing {moduleType} Data...</h3>
-            <ProgressBar 
-              progress={uploadProgress} 
-              status={isUploading ? 'Uploading...' : 'Processing...'}
-            />
+            {renderProgress()}
           </div>
         );
         
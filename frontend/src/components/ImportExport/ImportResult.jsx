@@ -64,6 +64,12 @@ const ImportResult = ({ result, onStartOver, onClose }) => {
               <div className="summary-value">{result.processingTimeMs}ms</div>
             </div>
           )}
+          {result.rowsPerSecond > 0 && (
+            <div className="summary-item">
+              <div className="summary-label">Throughput</div>
+              <div className="summary-value">{Math.round(result.rowsPerSecond)} rows/s</div>
+            </div>
+          )}
         </div>
       </div>
 
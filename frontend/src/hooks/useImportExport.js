@@ -4,14 +4,28 @@ import importExportService from '../services/importExportService';
 const useImportExport = (moduleType) => {
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState(null);
+  const [progress, setProgress] = useState(null);
+
+  const waitForJob = (job) => new Promise((resolve, reject) => {
+    importExportService.subscribeToImportProgress(moduleType, job.jobId, {
+      onProgress: setProgress,
+      onComplete: (finishedJob) => {
+        setProgress(finishedJob);
+        resolve(finishedJob.result);
+      },
+      onError: reject
+    });
+  });
 
   const importData = async (formData) => {
     setLoading(true);
     setError(null);
+    setProgress(null);
     
     try {
-      const response = await importExportService.importData(moduleType, formData);
-      return response;
+      const job = await importExportService.importDataAsync(moduleType, formData);
+      setProgress(job);
+      return job.result ?? await waitForJob(job);
     } catch (err) {
       setError(err.message);
       throw err;
@@ -54,6 +68,7 @@ const useImportExport = (moduleType) => {
     importData,
     exportData,
     downloadTemplate,
+    progress,
     loading,
     error
   };
@@ -15,6 +15,43 @@ const importExportService = {
     }
   },
 
+  async importDataAsync(moduleType, formData) {
+    try {
+      const response = await api.post(`/${moduleType}/import/async`, formData, {
+        headers: {
+          'Content-Type': 'multipart/form-data'
+        }
+      });
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.message || 'Import failed');
+    }
+  },
+
+  /**
+   * Listen to the progress events of an import job.
+   * Returns a function that closes the stream.
+   */
+  subscribeToImportProgress(moduleType, jobId, { onProgress, onComplete, onError }) {
+    const source = new EventSource(`${api.defaults.baseURL}/${moduleType}/import/jobs/${jobId}/events`);
+
+    source.addEventListener('progress', (event) => {
+      onProgress?.(JSON.parse(event.data));
+    });
+    source.addEventListener('complete', (event) => {
+      source.close();
+      onComplete?.(JSON.parse(event.data));
+    });
+    source.onerror = () => {
+      // EventSource reconnects on its own unless the stream was closed
+      if (source.readyState === EventSource.CLOSED) {
+        onError?.(new Error('Lost connection to the import progress stream'));
+      }
+    };
+
+    return () => source.close();
+  },
+
   async exportData(moduleType, exportRequest) {
     try {
       const response = await api.post(`/${moduleType}/export`, exportRequest, {
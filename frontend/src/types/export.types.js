@@ -3,7 +3,7 @@
  */
 export const ExportRequestType = {
   moduleType: '', // string - camera, robot, task, user, map
-  fileFormat: 'csv', // string - csv, xlsx, json
+  fileFormat: 'csv', // string - csv, xlsx, json, ndjson
   fields: [], // array of strings - fields to include in export
   filter: '', // string - filter criteria (SQL-like syntax)
   sortBy: '', // string - field to sort by
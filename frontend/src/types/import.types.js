@@ -4,7 +4,7 @@
 export const ImportRequestType = {
   moduleType: '', // string - camera, robot, task, user, map
   fileName: '', // string - name of the uploaded file
-  fileType: '', // string - csv, xlsx, json
+  fileType: '', // string - csv, xlsx, xls, json, ndjson, jsonl
   validateOnly: false, // boolean - if true, only validate don't import
   skipErrors: false, // boolean - if true, skip invalid records and continue
   batchSize: 100 // number - batch size for processing
@@ -21,7 +21,27 @@ export const ImportResponseType = {
   failedRecords: 0, // number - failed records
   errors: [], // array of ValidationError objects
   processedAt: null, // Date - when processing completed
-  processingTimeMs: 0 // number - processing time in milliseconds
+  processingTimeMs: 0, // number - processing time in milliseconds
+  rowsPerSecond: 0 // number - records processed per second
+};
+
+/**
+ * Asynchronous import job, as polled or streamed while it runs
+ */
+export const ImportJobType = {
+  jobId: '', // string - id to poll or subscribe with
+  moduleType: '', // string - module type
+  fileName: '', // string - name of the uploaded file
+  status: '', // string - QUEUED, RUNNING, COMPLETED, FAILED
+  stage: '', // string - QUEUED, VALIDATING, IMPORTING, COMPLETED, FAILED
+  totalBytes: 0, // number - size of the upload
+  bytesRead: 0, // number - bytes parsed so far
+  processedRecords: 0, // number - rows parsed so far
+  validatedRecords: 0, // number - rows validated so far
+  persistedRecords: 0, // number - rows written so far
+  failedRecords: 0, // number - rows with errors so far
+  errorCount: 0, // number - validation errors so far
+  result: null // ImportResponse - set once the job has finished
 };
 
 /**
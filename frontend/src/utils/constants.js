@@ -31,7 +31,7 @@ export const FILE_SIZE_LIMITS = {
   MAX_SIZE_DEV: 5 * 1024 * 1024 // 5MB for development
 };
 
-export const SUPPORTED_FILE_TYPES = ['.csv', '.xlsx', '.xls', '.json'];
+export const SUPPORTED_FILE_TYPES = ['.csv', '.xlsx', '.xls', '.json', '.ndjson', '.jsonl'];
 
 export const API_ENDPOINTS = {
   IMPORT: (module) => `/${module}/import`,